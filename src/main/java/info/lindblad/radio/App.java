@@ -1,20 +1,46 @@
 package info.lindblad.radio;
 
-import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.coverage.RedundancyReport;
 import info.lindblad.radio.model.Island;
-import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.model.IslandAnalysis;
+import info.lindblad.radio.solver.DirectoryBatchSolver;
 import info.lindblad.radio.solver.MatrixSolver;
-import info.lindblad.radio.solver.Solver;
+import info.lindblad.radio.solver.PlanVerifier;
+import info.lindblad.radio.solver.Solution;
+import info.lindblad.radio.util.BatchInputParser;
+import info.lindblad.radio.util.FastInputParser;
 import info.lindblad.radio.util.InputParser;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 
 public class App
 {
 
+    private static final String DEFAULT_SUMMARY_FILENAME = "summary.tsv";
+
+    /**
+     * A line of a plan, holding the id and new power level of a transmitter tower
+     */
+    private static final Pattern PLAN_LINE = Pattern.compile("(\\d+)\\s+(\\d+)");
+
+    /**
+     * The coverage line the application prints before the plan, e.g. 2/3
+     */
+    private static final Pattern COVERAGE_LINE = Pattern.compile("\\d+/\\d+");
+
     public static void main(String[] args)
     {
         /*
@@ -22,14 +48,41 @@ public class App
          */
         HashSet<String> optionFlags = new HashSet<>(Arrays.asList(args));
 
+        Optional<String> directory = getOptionValue(args, "--directory");
+        if (directory.isPresent()) {
+            solveDirectory(directory.get(), args);
+            return;
+        }
+
+        Optional<String> plan = getOptionValue(args, "--verify");
+        if (plan.isPresent()) {
+            verifyPlan(plan.get(), optionFlags);
+            return;
+        }
+
+        Optional<String> redundancy = getOptionValue(args, "--redundancy");
+        if (redundancy.isPresent()) {
+            reportRedundancy(redundancy.get(), optionFlags);
+            return;
+        }
+
+        if (optionFlags.contains("--events")) {
+            streamEvents(args);
+            return;
+        }
+
+        if (optionFlags.contains("--batch")) {
+            solveBatch(optionFlags);
+            return;
+        }
+
         /*
           Attempt to parse standard input and construct an island if the --stdin flag is set, otherwise
           we read from a file called input.txt
          */
         Island island;
         if (optionFlags.contains("--stdin")) {
-            BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
-            island = InputParser.parse(br).orElseThrow(() -> new RuntimeException("Could not parse input and construct an island. Exiting."));
+            island = FastInputParser.parse(System.in).orElseThrow(() -> new RuntimeException("Could not parse input and construct an island. Exiting."));
         } else {
             island = InputParser.islandFromFile(InputParser.DEFAULT_INPUT_FILENAME);
         }
@@ -39,27 +92,219 @@ public class App
         if (islandOptional.isPresent()) {
             island = islandOptional.get();
 
+            /*
+                The coverage is computed once and shared by the visualisation and the solver.
+             */
+            IslandAnalysis analysis = new IslandAnalysis(island);
+
             if (optionFlags.contains("--visualise")) {
-                System.out.println(island.toString(new Coverage(island)));
+                System.out.println(island.toString(analysis.getCoverage()));
             }
 
-            MatrixSolver solver = new MatrixSolver();
-
             /*
-                Use the solver to calculate the number of receiver towers that have signal coverage.
+                Use the solver to calculate the number of receiver towers that have signal coverage and
+                the required transmitter tower power changes that will give all receiver towers signal coverage.
              */
-            int nbrOfReceiversWithCoverage = island.getNbrOfReceiverTowers() - Solver.nbrOfReceiverTowersWithoutCoverage(island);
-            System.out.println(String.format("%d/%d", nbrOfReceiversWithCoverage, island.getNbrOfReceiverTowers()));
+            System.out.print(Solution.solve(analysis, new MatrixSolver()));
+        } else {
+            System.err.println("No island provided. Exiting.");
+        }
+    }
 
-            /*
-                Use the solver to calculate the required transmitter tower power changes that will give
-                all receiver towers signal coverage.
-             */
-            for (Map.Entry<TransmitterTower, Integer> change : solver.getRequiredTransmitterTowerChanges(island).entrySet()) {
-                System.out.println(String.format("%d %d", change.getKey().getId(), change.getValue()));
+    /**
+     * Solve every island of a multi-island input, see BatchInputParser, one after another.
+     *
+     * The solution of each island is printed after a line with the id of the island, in the order of the
+     * input, and the island is dropped before the next one is read.
+     *
+     * @param optionFlags The command line flags
+     */
+    private static void solveBatch(Set<String> optionFlags) {
+        MatrixSolver solver = new MatrixSolver();
+        BatchInputParser.IslandHandler handler = (id, island) -> {
+            StringBuilder output = new StringBuilder("# ").append(id).append('\n');
+            if (island.isPresent()) {
+                // One island that can not be solved must not stop the rest of the batch
+                try {
+                    IslandAnalysis analysis = new IslandAnalysis(island.get());
+                    if (optionFlags.contains("--visualise")) {
+                        output.append(island.get().toString(analysis.getCoverage())).append('\n');
+                    }
+                    output.append(Solution.solve(analysis, solver));
+                } catch (RuntimeException exception) {
+                    System.err.println(String.format("Could not solve island '%s': %s. Skipping.", id, exception));
+                }
+            } else {
+                System.err.println(String.format("Could not parse island '%s'. Skipping.", id));
             }
+            System.out.print(output);
+            System.out.flush();
+        };
+
+        if (optionFlags.contains("--stdin")) {
+            BatchInputParser.parse(System.in, handler);
         } else {
-            System.err.println("No island provided. Exiting.");
+            try (InputStream inputStream = new FileInputStream(InputParser.DEFAULT_INPUT_FILENAME)) {
+                BatchInputParser.parse(inputStream, handler);
+            } catch (IOException exception) {
+                System.err.println(String.format("Could not read file '%s': %s", InputParser.DEFAULT_INPUT_FILENAME, exception));
+            }
+        }
+    }
+
+    /**
+     * Verify a plan of new power levels for the island in input.txt, or on standard input with --stdin,
+     * printing the receiver towers still without coverage and the total power increase.
+     *
+     * The plan holds one line with the id and new power level of every changed transmitter tower, so the
+     * output of the application can be used as it is; lines that do not hold two integers, such as the
+     * coverage line, are ignored. The exit status is 1 if the plan can not be read, holds an id or power
+     * level that is not a valid integer, or leaves a receiver tower without coverage.
+     *
+     * @param planFilename The file holding the plan
+     * @param optionFlags The command line flags
+     */
+    private static void verifyPlan(String planFilename, Set<String> optionFlags) {
+        Island island = optionFlags.contains("--stdin")
+                ? FastInputParser.parse(System.in).orElseThrow(() -> new RuntimeException("Could not parse input and construct an island. Exiting."))
+                : InputParser.islandFromFile(InputParser.DEFAULT_INPUT_FILENAME);
+        Map<Integer, Integer> plan = new HashMap<>();
+        try {
+            for (String line : Files.readAllLines(Paths.get(planFilename), StandardCharsets.UTF_8)) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || COVERAGE_LINE.matcher(trimmed).matches()) {
+                    continue;
+                }
+                Matcher matcher = PLAN_LINE.matcher(trimmed);
+                if (!matcher.matches()) {
+                    System.err.println(String.format("Invalid plan '%s': '%s' is not an id and a power level", planFilename, trimmed));
+                    System.exit(1);
+                    return;
+                }
+                try {
+                    plan.put(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                } catch (NumberFormatException exception) {
+                    System.err.println(String.format("Invalid plan '%s': '%s' is out of range", planFilename, trimmed));
+                    System.exit(1);
+                    return;
+                }
+            }
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not read plan '%s': %s", planFilename, exception));
+            System.exit(1);
+            return;
+        }
+        PlanVerifier.Report report;
+        try {
+            report = PlanVerifier.verify(island, plan);
+        } catch (IllegalArgumentException exception) {
+            System.err.println(String.format("Invalid plan '%s': %s", planFilename, exception.getMessage()));
+            System.exit(1);
+            return;
+        }
+        System.out.println(report);
+        if (!report.isValid()) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Write how many transmitter towers cover every receiver tower, and with what margin, to a CSV file,
+     * see RedundancyReport, and print the number of receiver towers by multiplicity.
+     *
+     * @param csvFilename The file to write the report to
+     * @param optionFlags The command line flags
+     */
+    private static void reportRedundancy(String csvFilename, Set<String> optionFlags) {
+        Island island = optionFlags.contains("--stdin")
+                ? FastInputParser.parse(System.in).orElseThrow(() -> new RuntimeException("Could not parse input and construct an island. Exiting."))
+                : InputParser.islandFromFile(InputParser.DEFAULT_INPUT_FILENAME);
+        RedundancyReport report = new RedundancyReport(island);
+        try {
+            report.writeCsv(Paths.get(csvFilename));
+        } catch (UncheckedIOException exception) {
+            System.err.println(exception.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.println(report);
+    }
+
+    /**
+     * Apply a stream of tower events, see EventStream, to the island in input.txt or the file given by
+     * --island, reporting the coverage after every event or every --batch-size events.
+     *
+     * The events are read from standard input, or from connections to --port, one connection at a time,
+     * in which case the coverage is written back to the connection and the island is kept between connections.
+     *
+     * @param args The command line arguments
+     */
+    private static void streamEvents(String[] args) {
+        int batchSize = getOptionValue(args, "--batch-size").map(Integer::parseInt).orElse(1);
+        Island island = InputParser.islandFromFile(getOptionValue(args, "--island").orElse(InputParser.DEFAULT_INPUT_FILENAME));
+        EventStream eventStream = new EventStream(island, batchSize);
+
+        Optional<String> port = getOptionValue(args, "--port");
+        if (!port.isPresent()) {
+            eventStream.run(System.in, System.out);
+            return;
+        }
+        try (ServerSocket serverSocket = new ServerSocket(Integer.parseInt(port.get()))) {
+            System.err.println(String.format("Listening for events on port %d", serverSocket.getLocalPort()));
+            while (true) {
+                try (Socket socket = serverSocket.accept()) {
+                    eventStream.run(socket.getInputStream(), socket.getOutputStream());
+                } catch (IOException | UncheckedIOException exception) {
+                    System.err.println(String.format("Lost event connection: %s", exception));
+                }
+            }
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not listen on port %s: %s", port.get(), exception));
+        }
+    }
+
+    /**
+     * Solve the island files in a directory, or matching a glob, concurrently. The solutions are printed
+     * after a line with the file of each island, and the results and timings are written to a summary file.
+     *
+     * @param directoryOrGlob The directory or glob
+     * @param args The command line arguments
+     */
+    private static void solveDirectory(String directoryOrGlob, String[] args) {
+        int nbrOfThreads = getOptionValue(args, "--threads").map(Integer::parseInt).orElse(Runtime.getRuntime().availableProcessors());
+        long timeBudgetMillis = getOptionValue(args, "--time-budget").map(Long::parseLong).orElse(DirectoryBatchSolver.DEFAULT_TIME_BUDGET_MILLIS);
+        Path summary = Paths.get(getOptionValue(args, "--summary").orElse(DEFAULT_SUMMARY_FILENAME));
+
+        List<Path> files = DirectoryBatchSolver.findIslandFiles(directoryOrGlob);
+        if (files.isEmpty()) {
+            System.err.println(String.format("No island files in '%s'. Exiting.", directoryOrGlob));
+            return;
+        }
+        List<DirectoryBatchSolver.Result> results = new DirectoryBatchSolver(nbrOfThreads, timeBudgetMillis).solve(files);
+        for (DirectoryBatchSolver.Result result : results) {
+            System.out.println("# " + result.getPath());
+            if (result.getSolution() != null) {
+                System.out.print(result.getSolution());
+            } else {
+                System.err.println(String.format("Could not parse island '%s'. Skipping.", result.getPath()));
+            }
+        }
+        DirectoryBatchSolver.writeSummary(results, summary);
+    }
+
+    /**
+     * Get the value following a command line flag, e.g. 4 for --threads 4
+     *
+     * @param args The command line arguments
+     * @param name The flag
+     * @return The value, if the flag is given with a value
+     */
+    static Optional<String> getOptionValue(String[] args, String name) {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals(name)) {
+                return Optional.of(args[i + 1]);
+            }
         }
+        return Optional.empty();
     }
 }
@@ -0,0 +1,234 @@
+package info.lindblad.radio;
+
+import info.lindblad.radio.coverage.IncrementalCoverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies a stream of tower events to an island held in memory and reports the coverage after every
+ * event, or after every micro-batch of events, so the island does not have to be solved from scratch
+ * whenever a tower changes.
+ *
+ * Every event is a line starting with its type followed by integers separated by whitespace:
+ *
+ * <pre>
+ * P id power       the power of transmitter tower id changes
+ * O id             transmitter tower id is out of service and removed
+ * T id x y power   a transmitter tower is installed
+ * R id x y         a receiver tower is installed
+ * </pre>
+ *
+ * Blank lines and lines starting with {@code #} are ignored, and invalid events are reported on
+ * standard error and skipped. After every batchSize events, and at the end of the stream, a line is
+ * written with the number of receiver towers with coverage out of all receiver towers, followed by the
+ * id of every receiver tower that is new or whose coverage changed during the batch, prefixed with
+ * {@code +} if it now has coverage and {@code -} if it does not, in order of id, e.g. {@code 5/7 +3 -4}.
+ *
+ * The coverage is maintained by an IncrementalCoverage, so an event only costs as much as the number of
+ * receiver towers within reach of the tower it changes.
+ */
+public class EventStream {
+
+    private static final int MAX_VALUES = 4;
+
+    private final IncrementalCoverage coverage;
+    private final int batchSize;
+
+    /**
+     * The receiver towers touched during the current batch, and whether they had coverage before it,
+     * or null for new receiver towers.
+     */
+    private final Map<ReceiverTower, Boolean> touched = new HashMap<>();
+    private final IncrementalCoverage.ChangeListener listener;
+
+    private final int[] values = new int[MAX_VALUES];
+    private int nbrOfEventsInBatch = 0;
+
+    /**
+     * Create an event stream
+     *
+     * @param island The island the events apply to, which is changed by them
+     * @param batchSize The number of events per reported batch
+     */
+    public EventStream(Island island, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException(String.format("Batch size must be a positive integer, got %d", batchSize));
+        }
+        this.coverage = new IncrementalCoverage(island);
+        this.batchSize = batchSize;
+        this.listener = (receiverTower, hasSignal) -> {
+            if (!touched.containsKey(receiverTower)) {
+                touched.put(receiverTower, !hasSignal);
+            }
+        };
+    }
+
+    public IncrementalCoverage getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * Apply the events of an input stream, which is read until it ends but not closed, and write the
+     * coverage after every batch. The output is flushed whenever no more events are waiting, so events
+     * arriving one at a time are answered straight away.
+     *
+     * @param inputStream The events
+     * @param outputStream The stream the coverage is written to
+     * @return The number of events applied
+     */
+    public long run(InputStream inputStream, OutputStream outputStream) {
+        long nbrOfEvents = 0;
+        long lineNumber = 0;
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                try {
+                    if (!apply(line)) {
+                        continue;
+                    }
+                } catch (IllegalArgumentException exception) {
+                    System.err.println(String.format("Skipping invalid event on line %d: %s", lineNumber, exception.getMessage()));
+                    continue;
+                }
+                nbrOfEvents++;
+                if (++nbrOfEventsInBatch == batchSize) {
+                    writeBatch(writer);
+                }
+                if (!reader.ready()) {
+                    writer.flush();
+                }
+            }
+            if (nbrOfEventsInBatch > 0) {
+                writeBatch(writer);
+            }
+            writer.flush();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not process events", exception);
+        }
+        return nbrOfEvents;
+    }
+
+    /**
+     * Apply an event
+     *
+     * @param line The line holding the event
+     * @return Whether the line held an event, rather than being blank or a comment
+     */
+    boolean apply(String line) {
+        int start = 0;
+        while (start < line.length() && Character.isWhitespace(line.charAt(start))) {
+            start++;
+        }
+        if (start == line.length() || line.charAt(start) == '#') {
+            return false;
+        }
+        char type = Character.toUpperCase(line.charAt(start));
+        int nbrOfValues = parseValues(line, start + 1);
+        switch (type) {
+            case 'P':
+                expectValues(type, nbrOfValues, 2);
+                coverage.setPower(values[0], values[1], listener);
+                break;
+            case 'O':
+                expectValues(type, nbrOfValues, 1);
+                coverage.removeTransmitterTower(values[0], listener);
+                break;
+            case 'T':
+                expectValues(type, nbrOfValues, 4);
+                coverage.addTransmitterTower(new TransmitterTower(values[0], new Point(values[1], values[2]), values[3]), listener);
+                break;
+            case 'R':
+                expectValues(type, nbrOfValues, 3);
+                ReceiverTower receiverTower = new ReceiverTower(values[0], new Point(values[1], values[2]));
+                touched.put(receiverTower, null);
+                coverage.addReceiverTower(receiverTower, listener);
+                break;
+            default:
+                throw new IllegalArgumentException(String.format("Unknown event type '%c'", type));
+        }
+        return true;
+    }
+
+    private static void expectValues(char type, int nbrOfValues, int expected) {
+        if (nbrOfValues != expected) {
+            throw new IllegalArgumentException(String.format("Event '%c' takes %d values, got %d", type, expected, nbrOfValues));
+        }
+    }
+
+    /**
+     * Parse the integers following the event type into the values array
+     *
+     * @return The number of integers
+     */
+    private int parseValues(String line, int position) {
+        int nbrOfValues = 0;
+        int length = line.length();
+        while (true) {
+            while (position < length && Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                return nbrOfValues;
+            }
+            boolean negative = line.charAt(position) == '-';
+            if (negative) {
+                position++;
+            }
+            int start = position;
+            long value = 0;
+            while (position < length && line.charAt(position) >= '0' && line.charAt(position) <= '9') {
+                value = value * 10 + (line.charAt(position++) - '0');
+                if (value > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Value does not fit in an integer");
+                }
+            }
+            if (position == start || (position < length && !Character.isWhitespace(line.charAt(position)))) {
+                throw new IllegalArgumentException("Expected an integer");
+            }
+            if (nbrOfValues == MAX_VALUES) {
+                throw new IllegalArgumentException(String.format("Too many values, expected at most %d", MAX_VALUES));
+            }
+            values[nbrOfValues++] = (int) (negative ? -value : value);
+        }
+    }
+
+    private void writeBatch(Writer writer) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(coverage.getNbrOfReceiverTowersWithCoverage()).append('/').append(coverage.getNbrOfReceiverTowers());
+        List<ReceiverTower> changed = new ArrayList<>();
+        for (Map.Entry<ReceiverTower, Boolean> receiverTower : touched.entrySet()) {
+            if (receiverTower.getValue() == null || receiverTower.getValue() != coverage.hasSignal(receiverTower.getKey())) {
+                changed.add(receiverTower.getKey());
+            }
+        }
+        changed.sort(Comparator.comparingInt(ReceiverTower::getId));
+        for (ReceiverTower receiverTower : changed) {
+            sb.append(' ').append(coverage.hasSignal(receiverTower) ? '+' : '-').append(receiverTower.getId());
+        }
+        writer.write(sb.append('\n').toString());
+        touched.clear();
+        nbrOfEventsInBatch = 0;
+    }
+
+}
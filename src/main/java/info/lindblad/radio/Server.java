@@ -0,0 +1,275 @@
+package info.lindblad.radio;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.solver.CachingSolver;
+import info.lindblad.radio.solver.MatrixSolver;
+import info.lindblad.radio.solver.Solution;
+import info.lindblad.radio.util.FastInputParser;
+import info.lindblad.radio.util.IslandJson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiFunction;
+
+/**
+ * A long-running HTTP service solving islands, so that clients do not have to start a JVM per island.
+ *
+ * POST an island to /solve, in the text format or as JSON (see IslandJson) with a JSON content type.
+ * The response holds what App prints, the coverage as x/y followed by the power changes, or the JSON
+ * of the Solution if the island was sent as JSON or JSON is accepted. GET /health answers OK.
+ *
+ * Each request is handled on a virtual thread when the JVM has them, and on a cached pool of
+ * platform threads otherwise. At most maxConcurrentRequests islands are solved at once, and further
+ * requests are turned away with 503 straight away rather than queued. Islands larger than maxBytes,
+ * with more than maxTowers towers, or with a size or transmitter power above maxSize are rejected
+ * with 413. The solver builds a matrix of transmitter towers by receiver towers, so the tower limit
+ * also bounds the memory and the time between its checks of the deadline. Every island has
+ * timeoutMillis to be solved, after which the best solution found so far is returned, marked as
+ * incomplete, with 504.
+ *
+ * Complete solutions are kept in a CachingSolver, so resubmitted islands are answered straight away.
+ */
+public class Server {
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final long DEFAULT_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_MAX_BYTES = 16 << 20;
+    public static final int DEFAULT_MAX_TOWERS = 2_000;
+    public static final int DEFAULT_MAX_SIZE = 100_000;
+
+    private static final String TEXT_CONTENT_TYPE = "text/plain; charset=utf-8";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Semaphore admission;
+    private final long timeoutMillis;
+    private final int maxBytes;
+    private final int maxTowers;
+    private final int maxSize;
+    private final BiFunction<Island, Long, Solution> solver;
+    private final CachingSolver cache = new CachingSolver();
+
+    /**
+     * A response, worked out while the request holds its admission permit and sent after it has been released
+     */
+    private static class Reply {
+        final int status;
+        final String contentType;
+        final String body;
+
+        Reply(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Create a server
+     *
+     * @param port The port to listen on, or 0 for any free port
+     * @param maxConcurrentRequests The largest number of islands solved at once
+     * @param timeoutMillis The time budget of every island in milliseconds
+     * @param maxBytes The largest accepted request body in bytes
+     * @param maxTowers The largest accepted number of towers on an island
+     * @param maxSize The largest accepted size of an island along either axis, and power of a transmitter tower
+     * @throws IOException If the server cannot listen on the port
+     */
+    public Server(int port, int maxConcurrentRequests, long timeoutMillis, int maxBytes, int maxTowers, int maxSize) throws IOException {
+        this(port, maxConcurrentRequests, timeoutMillis, maxBytes, maxTowers, maxSize, (island, timeout) -> new MatrixSolver().solve(island, timeout));
+    }
+
+    /**
+     * Create a server solving islands with the given solver, which gets the island and the timeout in milliseconds
+     */
+    Server(int port, int maxConcurrentRequests, long timeoutMillis, int maxBytes, int maxTowers, int maxSize,
+           BiFunction<Island, Long, Solution> solver) throws IOException {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum number of concurrent requests must be a positive integer, got %d", maxConcurrentRequests));
+        }
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Timeout must be a positive integer, got %d", timeoutMillis));
+        }
+        this.admission = new Semaphore(maxConcurrentRequests);
+        this.timeoutMillis = timeoutMillis;
+        this.maxBytes = maxBytes;
+        this.maxTowers = maxTowers;
+        this.maxSize = maxSize;
+        this.solver = solver;
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        server.createContext("/solve", this::solve);
+        server.createContext("/health", exchange -> respond(exchange, 200, TEXT_CONTENT_TYPE, "OK\n"));
+    }
+
+    /**
+     * Create an executor running every task on a new virtual thread.
+     *
+     * The project targets Java 8, so virtual threads are looked up reflectively, falling back to a
+     * cached pool of platform threads on JVMs that do not have them.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException exception) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop the server, waiting at most a second for the requests being handled
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the port the server listens on
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void solve(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "POST");
+                respond(exchange, 405, TEXT_CONTENT_TYPE, "Islands have to be POSTed\n");
+                return;
+            }
+            if (!admission.tryAcquire()) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                respond(exchange, 503, TEXT_CONTENT_TYPE, "Too many requests\n");
+                return;
+            }
+            Reply reply;
+            try {
+                reply = solveAdmitted(exchange);
+            } finally {
+                // Released before responding, so a client sending its next request on the answer is admitted
+                admission.release();
+            }
+            respond(exchange, reply.status, reply.contentType, reply.body);
+        } catch (RuntimeException exception) {
+            System.err.println(String.format("Could not solve island: %s", exception));
+            respond(exchange, 500, TEXT_CONTENT_TYPE, "Could not solve island\n");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private Reply solveAdmitted(HttpExchange exchange) throws IOException {
+        String contentType = Optional.ofNullable(exchange.getRequestHeaders().getFirst("Content-Type")).orElse("");
+        String accept = Optional.ofNullable(exchange.getRequestHeaders().getFirst("Accept")).orElse("");
+        boolean jsonRequest = contentType.contains("json");
+        boolean jsonResponse = jsonRequest || accept.contains(JSON_CONTENT_TYPE);
+
+        byte[] body = readBody(exchange.getRequestBody());
+        if (body == null) {
+            return new Reply(413, TEXT_CONTENT_TYPE, String.format("Islands can be at most %d bytes\n", maxBytes));
+        }
+        Optional<Island> islandOptional = jsonRequest
+                ? IslandJson.parse(new String(body, StandardCharsets.UTF_8))
+                : FastInputParser.parse(body);
+        if (!islandOptional.isPresent()) {
+            return new Reply(400, TEXT_CONTENT_TYPE, "Could not parse island\n");
+        }
+        Island island = islandOptional.get();
+        if ((long) island.getNbrOfTransmitterTowers() + island.getNbrOfReceiverTowers() > maxTowers) {
+            return new Reply(413, TEXT_CONTENT_TYPE, String.format("Islands can have at most %d towers\n", maxTowers));
+        }
+        if (!withinMaxSize(island)) {
+            return new Reply(413, TEXT_CONTENT_TYPE, String.format("Island sizes and transmitter powers can be at most %d\n", maxSize));
+        }
+
+        Optional<Solution> cached = cache.get(island);
+        Solution solution;
+        if (cached.isPresent()) {
+            solution = cached.get();
+        } else {
+            solution = solver.apply(island, timeoutMillis);
+            cache.put(island, solution);
+        }
+        int status = solution.isComplete() ? 200 : 504;
+        if (jsonResponse) {
+            return new Reply(status, JSON_CONTENT_TYPE, solution.toJson() + "\n");
+        }
+        return new Reply(status, TEXT_CONTENT_TYPE, solution.toString());
+    }
+
+    private boolean withinMaxSize(Island island) {
+        if (island.getBounds().getSizeX() > maxSize || island.getBounds().getSizeY() > maxSize) {
+            return false;
+        }
+        for (TransmitterTower transmitterTower : island.getTransmitterTowerList()) {
+            if (transmitterTower.getPower() > maxSize) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a request body
+     *
+     * @return The body, or null if it is larger than maxBytes
+     */
+    private byte[] readBody(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            if (body.size() + read > maxBytes) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = App.getOptionValue(args, "--port").map(Integer::parseInt).orElse(DEFAULT_PORT);
+        int maxConcurrentRequests = App.getOptionValue(args, "--max-concurrent").map(Integer::parseInt)
+                .orElse(Runtime.getRuntime().availableProcessors());
+        long timeoutMillis = App.getOptionValue(args, "--timeout").map(Long::parseLong).orElse(DEFAULT_TIMEOUT_MILLIS);
+        int maxBytes = App.getOptionValue(args, "--max-bytes").map(Integer::parseInt).orElse(DEFAULT_MAX_BYTES);
+        int maxTowers = App.getOptionValue(args, "--max-towers").map(Integer::parseInt).orElse(DEFAULT_MAX_TOWERS);
+        int maxSize = App.getOptionValue(args, "--max-size").map(Integer::parseInt).orElse(DEFAULT_MAX_SIZE);
+
+        Server server = new Server(port, maxConcurrentRequests, timeoutMillis, maxBytes, maxTowers, maxSize);
+        server.start();
+        System.out.println(String.format("Listening on port %d", server.getPort()));
+    }
+
+}
@@ -0,0 +1,249 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.SpaceFillingCurve;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Answers which transmitter towers cover each of a large number of points at once.
+ *
+ * The points are given as arrays of coordinates and the answers are returned as arrays too, in
+ * compressed sparse row form: the ids of the transmitter towers covering point i are found between
+ * offsets[i] and offsets[i + 1], so a point without signal costs nothing beyond its offset.
+ *
+ * The points are visited along the Hilbert curve rather than in the order they were given, so that
+ * consecutive lookups descend into the same parts of the SquareUnionCoverage index. Batches of at
+ * least PARALLEL_THRESHOLD points are split into chunks of consecutive points along the curve, which
+ * are looked up by a pool of worker threads. Every point is written by exactly one thread, so the
+ * result is identical to a serial lookup.
+ */
+public class BulkCoverageQuery {
+
+    /**
+     * Smaller batches are looked up on the calling thread.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int CHUNK_SIZE = 1 << 12;
+
+    /**
+     * The points are sorted by the Hilbert curve position of the cell they are in, with cells small
+     * enough that there are at most 2^15 along each axis. The position and the index of the point
+     * then fit in a single long and the points can be sorted as primitives.
+     */
+    private static final int CELL_BITS = 15;
+
+    /**
+     * The transmitter towers covering each point of a batch.
+     */
+    public static class Result {
+
+        private final int[] offsets;
+        private final int[] transmitterTowerIds;
+
+        Result(int[] offsets, int[] transmitterTowerIds) {
+            this.offsets = offsets;
+            this.transmitterTowerIds = transmitterTowerIds;
+        }
+
+        /**
+         * Get the number of points
+         *
+         * @return The number of points
+         */
+        public int size() {
+            return offsets.length - 1;
+        }
+
+        public boolean hasSignal(int point) {
+            return offsets[point + 1] > offsets[point];
+        }
+
+        public int getNbrOfCovering(int point) {
+            return offsets[point + 1] - offsets[point];
+        }
+
+        /**
+         * Get the ids of the transmitter towers covering a point
+         *
+         * @param point The index of the point in the batch
+         * @return A new array with the ids, in increasing order
+         */
+        public int[] getCovering(int point) {
+            return Arrays.copyOfRange(transmitterTowerIds, offsets[point], offsets[point + 1]);
+        }
+
+        /**
+         * Get the offsets of the covering transmitter towers of every point into {@link #getTransmitterTowerIds()}
+         *
+         * @return The offsets, one more than the number of points. The array is not copied.
+         */
+        public int[] getOffsets() {
+            return offsets;
+        }
+
+        /**
+         * Get the ids of the covering transmitter towers of all points, point by point
+         *
+         * @return The ids. The array is not copied.
+         */
+        public int[] getTransmitterTowerIds() {
+            return transmitterTowerIds;
+        }
+    }
+
+    private interface Range {
+        void run(int from, int to);
+    }
+
+    private final SquareUnionCoverage coverage;
+    private final int nbrOfThreads;
+
+    /**
+     * Create a query over the coverage of an island, using one thread per available processor
+     *
+     * @param island The island
+     */
+    public BulkCoverageQuery(Island island) {
+        this(new SquareUnionCoverage(island), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a query
+     *
+     * @param coverage The coverage
+     * @param nbrOfThreads The number of worker threads used for large batches
+     */
+    public BulkCoverageQuery(SquareUnionCoverage coverage, int nbrOfThreads) {
+        if (nbrOfThreads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be a positive integer, got %d", nbrOfThreads));
+        }
+        this.coverage = coverage;
+        this.nbrOfThreads = nbrOfThreads;
+    }
+
+    /**
+     * Find the transmitter towers covering every point of a batch. Points outside the island have no signal.
+     *
+     * @param xs The X coordinates of the points
+     * @param ys The Y coordinates of the points
+     * @return The covering transmitter towers, by the index of the point in the batch
+     */
+    public Result query(int[] xs, int[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException(String.format("Got %d X coordinates but %d Y coordinates", xs.length, ys.length));
+        }
+        int nbrOfPoints = xs.length;
+        int[] order = spatialOrder(xs, ys);
+        ExecutorService executor = nbrOfThreads > 1 && nbrOfPoints >= PARALLEL_THRESHOLD ? Executors.newFixedThreadPool(nbrOfThreads) : null;
+        try {
+            return query(xs, ys, order, executor);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private Result query(int[] xs, int[] ys, int[] order, ExecutorService executor) {
+        int nbrOfPoints = xs.length;
+
+        int[] counts = new int[nbrOfPoints];
+        forEachChunk(executor, nbrOfPoints, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                int point = order[i];
+                counts[point] = coverage.countCovering(xs[point], ys[point]);
+            }
+        });
+
+        int[] offsets = new int[nbrOfPoints + 1];
+        long total = 0;
+        for (int point = 0; point < nbrOfPoints; point++) {
+            total += counts[point];
+            if (total > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("Too many covering transmitter towers for a single batch");
+            }
+            offsets[point + 1] = (int) total;
+        }
+
+        int[] transmitterTowerIds = new int[(int) total];
+        forEachChunk(executor, nbrOfPoints, (from, to) -> {
+            int[] next = new int[1];
+            for (int i = from; i < to; i++) {
+                int point = order[i];
+                if (counts[point] == 0) {
+                    continue;
+                }
+                next[0] = offsets[point];
+                coverage.forEachCovering(xs[point], ys[point], square -> transmitterTowerIds[next[0]++] = coverage.getTowerId(square));
+                Arrays.sort(transmitterTowerIds, offsets[point], offsets[point + 1]);
+            }
+        });
+        return new Result(offsets, transmitterTowerIds);
+    }
+
+    /**
+     * Get the indices of the points sorted along the Hilbert curve
+     */
+    private int[] spatialOrder(int[] xs, int[] ys) {
+        int nbrOfPoints = xs.length;
+        int maxCoordinate = 0;
+        for (int point = 0; point < nbrOfPoints; point++) {
+            maxCoordinate = Math.max(maxCoordinate, Math.max(xs[point], ys[point]));
+        }
+        int shift = Math.max(0, (32 - Integer.numberOfLeadingZeros(maxCoordinate)) - CELL_BITS);
+
+        long[] keys = new long[nbrOfPoints];
+        for (int point = 0; point < nbrOfPoints; point++) {
+            // Points outside the island have no signal, so where they end up does not matter
+            int cellX = Math.max(0, xs[point]) >> shift;
+            int cellY = Math.max(0, ys[point]) >> shift;
+            keys[point] = (SpaceFillingCurve.HILBERT.index(cellX, cellY) << 32) | point;
+        }
+        if (nbrOfThreads > 1 && nbrOfPoints >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+
+        int[] order = new int[nbrOfPoints];
+        for (int i = 0; i < nbrOfPoints; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * Run a range of consecutive points, split into chunks handed to the worker threads if there are any
+     */
+    private static void forEachChunk(ExecutorService executor, int nbrOfPoints, Range range) {
+        if (executor == null) {
+            range.run(0, nbrOfPoints);
+            return;
+        }
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (int from = 0; from < nbrOfPoints; from += CHUNK_SIZE) {
+                int chunkFrom = from;
+                int chunkTo = Math.min(nbrOfPoints, from + CHUNK_SIZE);
+                chunks.add(executor.submit(() -> range.run(chunkFrom, chunkTo)));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up coverage", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Could not look up coverage", exception.getCause());
+        }
+    }
+
+}
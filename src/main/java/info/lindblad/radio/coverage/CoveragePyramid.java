@@ -0,0 +1,272 @@
+package info.lindblad.radio.coverage;
+
+/**
+ * A pyramid of coverage summaries on top of a coverage raster.
+ *
+ * Each level splits the island into square blocks (8 x 8, 64 x 64 and 512 x 512 points) and stores
+ * the number of points with signal within each block. Rectangle queries start at the coarsest level
+ * and only descend into blocks that are partially covered and partially inside the rectangle, so the
+ * full resolution raster is only read along the edges of the rectangle. Coarse tiles can be rendered
+ * directly from the block counts.
+ */
+public class CoveragePyramid {
+
+    /**
+     * The block sizes of the levels, from the finest to the coarsest. Each block size is a multiple
+     * of the previous one.
+     */
+    public static final int[] BLOCK_SIZES = {8, 64, 512};
+
+    private final CoverageRaster raster;
+    private final int sizeX;
+    private final int sizeY;
+
+    private final int[] blocksX;
+    private final int[] blocksY;
+    private final int[][] counts;
+
+    public CoveragePyramid(CoverageRaster raster) {
+        this.raster = raster;
+        this.sizeX = raster.getSizeX();
+        this.sizeY = raster.getSizeY();
+        int nbrOfLevels = BLOCK_SIZES.length;
+        blocksX = new int[nbrOfLevels];
+        blocksY = new int[nbrOfLevels];
+        counts = new int[nbrOfLevels][];
+        for (int level = 0; level < nbrOfLevels; level++) {
+            blocksX[level] = (sizeX + BLOCK_SIZES[level] - 1) / BLOCK_SIZES[level];
+            blocksY[level] = (sizeY + BLOCK_SIZES[level] - 1) / BLOCK_SIZES[level];
+            counts[level] = new int[Math.multiplyExact(blocksX[level], blocksY[level])];
+        }
+
+        int blockSize = BLOCK_SIZES[0];
+        for (int y = 0; y < sizeY; y++) {
+            int rowOffset = (y / blockSize) * blocksX[0];
+            for (int x = 0; x < sizeX; x++) {
+                if (raster.hasSignal(x, y)) {
+                    counts[0][rowOffset + x / blockSize]++;
+                }
+            }
+        }
+        for (int level = 1; level < nbrOfLevels; level++) {
+            int ratio = BLOCK_SIZES[level] / BLOCK_SIZES[level - 1];
+            for (int by = 0; by < blocksY[level - 1]; by++) {
+                for (int bx = 0; bx < blocksX[level - 1]; bx++) {
+                    counts[level][(by / ratio) * blocksX[level] + bx / ratio] += counts[level - 1][by * blocksX[level - 1] + bx];
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the number of levels in the pyramid
+     *
+     * @return The number of levels
+     */
+    public int getNbrOfLevels() {
+        return BLOCK_SIZES.length;
+    }
+
+    /**
+     * Get the number of blocks along the X axis for a level
+     *
+     * @param level The level, where 0 is the finest
+     * @return The number of blocks
+     */
+    public int getNbrOfBlocksX(int level) {
+        return blocksX[level];
+    }
+
+    /**
+     * Get the number of blocks along the Y axis for a level
+     *
+     * @param level The level, where 0 is the finest
+     * @return The number of blocks
+     */
+    public int getNbrOfBlocksY(int level) {
+        return blocksY[level];
+    }
+
+    /**
+     * Get the number of points with signal within a block
+     *
+     * @param level The level, where 0 is the finest
+     * @param blockX The X index of the block
+     * @param blockY The Y index of the block
+     * @return The number of points with signal
+     */
+    public int getCoveredCount(int level, int blockX, int blockY) {
+        return counts[level][blockY * blocksX[level] + blockX];
+    }
+
+    /**
+     * Get the fraction of the points within a block that have signal, e.g. for rendering a coarse tile
+     *
+     * @param level The level, where 0 is the finest
+     * @param blockX The X index of the block
+     * @param blockY The Y index of the block
+     * @return The fraction of points with signal
+     */
+    public double getCoveredFraction(int level, int blockX, int blockY) {
+        return (double) getCoveredCount(level, blockX, blockY) / blockArea(level, blockX, blockY);
+    }
+
+    /**
+     * Count the points with signal within a rectangle (inclusive coordinates)
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return The number of points with signal
+     */
+    public long countCovered(int x0, int y0, int x1, int y1) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(sizeX - 1, x1);
+        y1 = Math.min(sizeY - 1, y1);
+        if (x0 > x1 || y0 > y1) {
+            return 0;
+        }
+        int top = BLOCK_SIZES.length - 1;
+        int blockSize = BLOCK_SIZES[top];
+        long count = 0;
+        for (int by = y0 / blockSize; by <= y1 / blockSize; by++) {
+            for (int bx = x0 / blockSize; bx <= x1 / blockSize; bx++) {
+                count += countCovered(top, bx, by, x0, y0, x1, y1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check whether any point within a rectangle (inclusive coordinates) has signal
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return Whether any point has signal
+     */
+    public boolean anyCovered(int x0, int y0, int x1, int y1) {
+        return findAny(true, x0, y0, x1, y1);
+    }
+
+    /**
+     * Check whether every point within a rectangle (inclusive coordinates) has signal
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return Whether every point has signal
+     */
+    public boolean allCovered(int x0, int y0, int x1, int y1) {
+        return !findAny(false, x0, y0, x1, y1);
+    }
+
+    private boolean findAny(boolean covered, int x0, int y0, int x1, int y1) {
+        x0 = Math.max(0, x0);
+        y0 = Math.max(0, y0);
+        x1 = Math.min(sizeX - 1, x1);
+        y1 = Math.min(sizeY - 1, y1);
+        if (x0 > x1 || y0 > y1) {
+            return false;
+        }
+        int top = BLOCK_SIZES.length - 1;
+        int blockSize = BLOCK_SIZES[top];
+        for (int by = y0 / blockSize; by <= y1 / blockSize; by++) {
+            for (int bx = x0 / blockSize; bx <= x1 / blockSize; bx++) {
+                if (findAny(covered, top, bx, by, x0, y0, x1, y1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private long countCovered(int level, int bx, int by, int x0, int y0, int x1, int y1) {
+        int count = getCoveredCount(level, bx, by);
+        int area = blockArea(level, bx, by);
+        if (count == 0) {
+            return 0;
+        }
+        int blockSize = BLOCK_SIZES[level];
+        int fromX = Math.max(x0, bx * blockSize);
+        int fromY = Math.max(y0, by * blockSize);
+        int toX = Math.min(x1, Math.min(sizeX, (bx + 1) * blockSize) - 1);
+        int toY = Math.min(y1, Math.min(sizeY, (by + 1) * blockSize) - 1);
+        long intersection = (long) (toX - fromX + 1) * (toY - fromY + 1);
+        if (intersection == area || count == area) {
+            // The block is either completely inside the rectangle or completely covered
+            return count == area ? intersection : count;
+        }
+        if (level == 0) {
+            long cellCount = 0;
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = fromX; x <= toX; x++) {
+                    if (raster.hasSignal(x, y)) {
+                        cellCount++;
+                    }
+                }
+            }
+            return cellCount;
+        }
+        int childSize = BLOCK_SIZES[level - 1];
+        long childCount = 0;
+        for (int cy = fromY / childSize; cy <= toY / childSize; cy++) {
+            for (int cx = fromX / childSize; cx <= toX / childSize; cx++) {
+                childCount += countCovered(level - 1, cx, cy, fromX, fromY, toX, toY);
+            }
+        }
+        return childCount;
+    }
+
+    private boolean findAny(boolean covered, int level, int bx, int by, int x0, int y0, int x1, int y1) {
+        int count = getCoveredCount(level, bx, by);
+        int area = blockArea(level, bx, by);
+        if (count == 0 || count == area) {
+            // The block is uniform, and it intersects the rectangle
+            return (count > 0) == covered;
+        }
+        int blockSize = BLOCK_SIZES[level];
+        int fromX = Math.max(x0, bx * blockSize);
+        int fromY = Math.max(y0, by * blockSize);
+        int toX = Math.min(x1, Math.min(sizeX, (bx + 1) * blockSize) - 1);
+        int toY = Math.min(y1, Math.min(sizeY, (by + 1) * blockSize) - 1);
+        if ((long) (toX - fromX + 1) * (toY - fromY + 1) == area) {
+            // The block is mixed and completely inside the rectangle
+            return true;
+        }
+        if (level == 0) {
+            for (int y = fromY; y <= toY; y++) {
+                for (int x = fromX; x <= toX; x++) {
+                    if (raster.hasSignal(x, y) == covered) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+        int childSize = BLOCK_SIZES[level - 1];
+        for (int cy = fromY / childSize; cy <= toY / childSize; cy++) {
+            for (int cx = fromX / childSize; cx <= toX / childSize; cx++) {
+                if (findAny(covered, level - 1, cx, cy, fromX, fromY, toX, toY)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of points within a block, which is smaller than the block size squared along the edges of the island.
+     */
+    private int blockArea(int level, int bx, int by) {
+        int blockSize = BLOCK_SIZES[level];
+        int width = Math.min(blockSize, sizeX - bx * blockSize);
+        int height = Math.min(blockSize, sizeY - by * blockSize);
+        return width * height;
+    }
+
+}
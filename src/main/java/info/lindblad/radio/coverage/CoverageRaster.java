@@ -0,0 +1,107 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.Collection;
+
+/**
+ * A raster holding, for every point on an island, the number of transmitter towers whose
+ * signal covers that point.
+ *
+ * Implementations decide where the counts live, e.g. on the heap or in a memory-mapped file,
+ * while Coverage and the analyses built on top of it only rely on this interface.
+ */
+public interface CoverageRaster {
+
+    /**
+     * Get the X size of the raster
+     *
+     * @return The X size
+     */
+    int getSizeX();
+
+    /**
+     * Get the Y size of the raster
+     *
+     * @return The Y size
+     */
+    int getSizeY();
+
+    /**
+     * Get the number of transmitter towers covering a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The number of transmitter towers covering the point
+     */
+    int getCount(int x, int y);
+
+    /**
+     * Set the number of transmitter towers covering a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param count The number of transmitter towers covering the point
+     */
+    void setCount(int x, int y, int count);
+
+    /**
+     * Check whether a specific point has signal or not
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return Whether the point has signal or not
+     */
+    default boolean hasSignal(int x, int y) {
+        return getCount(x, y) > 0;
+    }
+
+    /**
+     * Increment the count of every point within a rectangle (inclusive coordinates). The
+     * rectangle must lie within the raster.
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     */
+    default void addRectangle(int x0, int y0, int x1, int y1) {
+        for (int y = y0; y <= y1; y++) {
+            for (int x = x0; x <= x1; x++) {
+                setCount(x, y, getCount(x, y) + 1);
+            }
+        }
+    }
+
+    /**
+     * Add the signal of a transmitter tower, clipped to the rows [fromY, toY), to the raster.
+     *
+     * @param transmitterTower The transmitter tower
+     * @param fromY The first row to update
+     * @param toY The row after the last row to update
+     */
+    default void addTransmitterTower(TransmitterTower transmitterTower, int fromY, int toY) {
+        long x = transmitterTower.getPoint().getX();
+        long y = transmitterTower.getPoint().getY();
+        long power = transmitterTower.getPower();
+        long x0 = Math.max(0L, x - power);
+        long x1 = Math.min(getSizeX() - 1L, x + power);
+        long y0 = Math.max((long) fromY, y - power);
+        long y1 = Math.min(toY - 1L, y + power);
+        if (x0 <= x1 && y0 <= y1) {
+            addRectangle((int) x0, (int) y0, (int) x1, (int) y1);
+        }
+    }
+
+    /**
+     * Add the signal of a set of transmitter towers to the raster.
+     *
+     * @param transmitterTowers The transmitter towers
+     */
+    default void fill(Collection<TransmitterTower> transmitterTowers) {
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            addTransmitterTower(transmitterTower, 0, getSizeY());
+        }
+    }
+
+}
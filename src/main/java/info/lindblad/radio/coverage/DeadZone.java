@@ -0,0 +1,95 @@
+package info.lindblad.radio.coverage;
+
+/**
+ * A connected region of points without signal coverage.
+ */
+public class DeadZone {
+
+    private final long nbrOfPoints;
+    private final int minX;
+    private final int minY;
+    private final int maxX;
+    private final int maxY;
+    private final double centroidX;
+    private final double centroidY;
+
+    public DeadZone(long nbrOfPoints, int minX, int minY, int maxX, int maxY, double centroidX, double centroidY) {
+        this.nbrOfPoints = nbrOfPoints;
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.centroidX = centroidX;
+        this.centroidY = centroidY;
+    }
+
+    /**
+     * Get the number of points in the region
+     *
+     * @return The number of points
+     */
+    public long getNbrOfPoints() {
+        return nbrOfPoints;
+    }
+
+    /**
+     * Get the smallest X coordinate of the bounding box
+     *
+     * @return The smallest X coordinate
+     */
+    public int getMinX() {
+        return minX;
+    }
+
+    /**
+     * Get the smallest Y coordinate of the bounding box
+     *
+     * @return The smallest Y coordinate
+     */
+    public int getMinY() {
+        return minY;
+    }
+
+    /**
+     * Get the largest X coordinate of the bounding box
+     *
+     * @return The largest X coordinate
+     */
+    public int getMaxX() {
+        return maxX;
+    }
+
+    /**
+     * Get the largest Y coordinate of the bounding box
+     *
+     * @return The largest Y coordinate
+     */
+    public int getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Get the X coordinate of the centroid of the region
+     *
+     * @return The X coordinate of the centroid
+     */
+    public double getCentroidX() {
+        return centroidX;
+    }
+
+    /**
+     * Get the Y coordinate of the centroid of the region
+     *
+     * @return The Y coordinate of the centroid
+     */
+    public double getCentroidY() {
+        return centroidY;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Dead zone of %d points within (%d, %d)-(%d, %d) centred at (%.1f, %.1f)",
+                nbrOfPoints, minX, minY, maxX, maxY, centroidX, centroidY);
+    }
+
+}
@@ -0,0 +1,192 @@
+package info.lindblad.radio.coverage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Finds the connected regions of points without signal coverage (dead zones) on a coverage raster.
+ *
+ * The raster is labelled in a single pass using union-find over row runs: each row is compressed
+ * into runs of consecutive uncovered points, and every run is joined with the runs of the previous
+ * row it touches. Points are connected horizontally and vertically. The size, bounding box and
+ * centroid are accumulated per label while scanning and combined per region at the end, so the
+ * memory used is proportional to the number of labels rather than the area of the island.
+ */
+public class DeadZoneAnalysis {
+
+    private int[] parent = new int[64];
+    private long[] nbrOfPoints = new long[64];
+    private long[] sumX = new long[64];
+    private long[] sumY = new long[64];
+    private int[] minX = new int[64];
+    private int[] minY = new int[64];
+    private int[] maxX = new int[64];
+    private int[] maxY = new int[64];
+    private int nbrOfLabels = 0;
+
+    private DeadZoneAnalysis() {
+
+    }
+
+    /**
+     * Find all dead zones on a coverage raster, largest first.
+     *
+     * @param raster The coverage raster
+     * @return The dead zones, sorted by decreasing number of points
+     */
+    public static List<DeadZone> findDeadZones(CoverageRaster raster) {
+        return new DeadZoneAnalysis().label(raster);
+    }
+
+    private List<DeadZone> label(CoverageRaster raster) {
+        int sizeX = raster.getSizeX();
+        int sizeY = raster.getSizeY();
+
+        // A row has at most (sizeX + 1) / 2 runs
+        int maxRuns = (sizeX + 1) / 2;
+        int[] previousStart = new int[maxRuns];
+        int[] previousEnd = new int[maxRuns];
+        int[] previousLabel = new int[maxRuns];
+        int[] currentStart = new int[maxRuns];
+        int[] currentEnd = new int[maxRuns];
+        int[] currentLabel = new int[maxRuns];
+        int nbrOfPreviousRuns = 0;
+
+        for (int y = 0; y < sizeY; y++) {
+            int nbrOfCurrentRuns = 0;
+            int previous = 0;
+            int x = 0;
+            while (x < sizeX) {
+                if (raster.hasSignal(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < sizeX && !raster.hasSignal(x, y)) {
+                    x++;
+                }
+                int end = x - 1;
+
+                // Skip the runs of the previous row that end before this run starts
+                while (previous < nbrOfPreviousRuns && previousEnd[previous] < start) {
+                    previous++;
+                }
+                int label = -1;
+                int touching = previous;
+                while (touching < nbrOfPreviousRuns && previousStart[touching] <= end) {
+                    if (label < 0) {
+                        label = find(previousLabel[touching]);
+                    } else {
+                        label = union(label, previousLabel[touching]);
+                    }
+                    touching++;
+                }
+                if (label < 0) {
+                    label = newLabel();
+                }
+                accumulate(label, start, end, y);
+
+                currentStart[nbrOfCurrentRuns] = start;
+                currentEnd[nbrOfCurrentRuns] = end;
+                currentLabel[nbrOfCurrentRuns] = label;
+                nbrOfCurrentRuns++;
+            }
+
+            int[] swap = previousStart;
+            previousStart = currentStart;
+            currentStart = swap;
+            swap = previousEnd;
+            previousEnd = currentEnd;
+            currentEnd = swap;
+            swap = previousLabel;
+            previousLabel = currentLabel;
+            currentLabel = swap;
+            nbrOfPreviousRuns = nbrOfCurrentRuns;
+        }
+
+        return collect();
+    }
+
+    private int newLabel() {
+        if (nbrOfLabels == parent.length) {
+            int capacity = parent.length * 2;
+            parent = Arrays.copyOf(parent, capacity);
+            nbrOfPoints = Arrays.copyOf(nbrOfPoints, capacity);
+            sumX = Arrays.copyOf(sumX, capacity);
+            sumY = Arrays.copyOf(sumY, capacity);
+            minX = Arrays.copyOf(minX, capacity);
+            minY = Arrays.copyOf(minY, capacity);
+            maxX = Arrays.copyOf(maxX, capacity);
+            maxY = Arrays.copyOf(maxY, capacity);
+        }
+        int label = nbrOfLabels++;
+        parent[label] = label;
+        minX[label] = Integer.MAX_VALUE;
+        minY[label] = Integer.MAX_VALUE;
+        maxX[label] = -1;
+        maxY[label] = -1;
+        return label;
+    }
+
+    private void accumulate(int label, int start, int end, int y) {
+        long length = end - start + 1;
+        nbrOfPoints[label] += length;
+        sumX[label] += ((long) start + end) * length / 2;
+        sumY[label] += y * length;
+        minX[label] = Math.min(minX[label], start);
+        maxX[label] = Math.max(maxX[label], end);
+        minY[label] = Math.min(minY[label], y);
+        maxY[label] = Math.max(maxY[label], y);
+    }
+
+    private int find(int label) {
+        while (parent[label] != label) {
+            parent[label] = parent[parent[label]];
+            label = parent[label];
+        }
+        return label;
+    }
+
+    /**
+     * Join two labels and return the new root. The smaller label is kept as the root.
+     */
+    private int union(int first, int second) {
+        int firstRoot = find(first);
+        int secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return firstRoot;
+        }
+        int root = Math.min(firstRoot, secondRoot);
+        parent[Math.max(firstRoot, secondRoot)] = root;
+        return root;
+    }
+
+    /**
+     * Combine the statistics of all labels into their regions.
+     */
+    private List<DeadZone> collect() {
+        for (int label = 0; label < nbrOfLabels; label++) {
+            int root = find(label);
+            if (root != label) {
+                nbrOfPoints[root] += nbrOfPoints[label];
+                sumX[root] += sumX[label];
+                sumY[root] += sumY[label];
+                minX[root] = Math.min(minX[root], minX[label]);
+                minY[root] = Math.min(minY[root], minY[label]);
+                maxX[root] = Math.max(maxX[root], maxX[label]);
+                maxY[root] = Math.max(maxY[root], maxY[label]);
+            }
+        }
+        List<DeadZone> deadZones = new ArrayList<>();
+        for (int label = 0; label < nbrOfLabels; label++) {
+            if (parent[label] == label) {
+                deadZones.add(new DeadZone(nbrOfPoints[label], minX[label], minY[label], maxX[label], maxY[label],
+                        (double) sumX[label] / nbrOfPoints[label], (double) sumY[label] / nbrOfPoints[label]));
+            }
+        }
+        deadZones.sort((first, second) -> Long.compare(second.getNbrOfPoints(), first.getNbrOfPoints()));
+        return deadZones;
+    }
+
+}
@@ -0,0 +1,219 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Bounds;
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Point;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A precomputed Chebyshev (L-infinity) distance transform over an island.
+ *
+ * For every cell on the island the transform stores the distance to the closest cell with signal
+ * coverage, as well as the location of one such closest cell. This turns nearest-signal lookups
+ * into constant time array reads instead of a scan over every covered point.
+ *
+ * The transform is computed using the classic two-pass chamfer algorithm. Since every one of the
+ * eight neighbours of a cell is at Chebyshev distance one, a forward raster scan followed by a
+ * backward raster scan yields the exact Chebyshev distance for every cell.
+ */
+public class DistanceTransform {
+
+    /**
+     * Distance reported for every cell when there is no signal anywhere on the island.
+     */
+    public static final int NO_SIGNAL = -1;
+
+    private final int sizeX;
+    private final int sizeY;
+
+    /**
+     * The distance to the closest covered cell, indexed by y * sizeX + x.
+     */
+    private final int[] distances;
+
+    /**
+     * The index (y * sizeX + x) of one of the closest covered cells, or -1 if there is no signal.
+     */
+    private final int[] nearest;
+
+    /**
+     * Compute the distance transform for the points with signal in a given coverage.
+     *
+     * @param bounds The bounds of the island
+     * @param coverage The signal coverage
+     */
+    public DistanceTransform(Bounds bounds, Coverage coverage) {
+        this(bounds.getSizeX(), bounds.getSizeY());
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                if (coverage.hasSignal(x, y)) {
+                    markCovered(x, y);
+                }
+            }
+        }
+        calculate();
+    }
+
+    /**
+     * Compute the distance transform for a grid of covered cells.
+     *
+     * @param sizeX The X size of the grid
+     * @param sizeY The Y size of the grid
+     * @param covered Whether each cell has signal, indexed by y * sizeX + x
+     */
+    public DistanceTransform(int sizeX, int sizeY, boolean[] covered) {
+        this(sizeX, sizeY);
+        if (covered.length != distances.length) {
+            throw new IllegalArgumentException(String.format("Expected %d cells, got %d", distances.length, covered.length));
+        }
+        for (int index = 0; index < covered.length; index++) {
+            if (covered[index]) {
+                markCovered(index % sizeX, index / sizeX);
+            }
+        }
+        calculate();
+    }
+
+    private DistanceTransform(int sizeX, int sizeY) {
+        long nbrOfCells = (long) sizeX * sizeY;
+        if (nbrOfCells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Island of size %d x %d is too large for a distance transform", sizeX, sizeY));
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.distances = new int[(int) nbrOfCells];
+        this.nearest = new int[(int) nbrOfCells];
+        Arrays.fill(distances, Integer.MAX_VALUE);
+        Arrays.fill(nearest, -1);
+    }
+
+    private void markCovered(int x, int y) {
+        int index = y * sizeX + x;
+        distances[index] = 0;
+        nearest[index] = index;
+    }
+
+    /**
+     * Run the forward and backward chamfer passes.
+     *
+     * The forward pass propagates distances from the neighbours to the left and below, the
+     * backward pass from the neighbours to the right and above. Along with each distance the
+     * closest covered cell is propagated, which is exact since the propagated distance is.
+     */
+    private void calculate() {
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                int index = y * sizeX + x;
+                relax(index, x - 1, y);
+                relax(index, x - 1, y - 1);
+                relax(index, x, y - 1);
+                relax(index, x + 1, y - 1);
+            }
+        }
+        for (int y = sizeY - 1; y >= 0; y--) {
+            for (int x = sizeX - 1; x >= 0; x--) {
+                int index = y * sizeX + x;
+                relax(index, x + 1, y);
+                relax(index, x + 1, y + 1);
+                relax(index, x, y + 1);
+                relax(index, x - 1, y + 1);
+            }
+        }
+    }
+
+    private void relax(int index, int neighbourX, int neighbourY) {
+        if (neighbourX < 0 || neighbourX >= sizeX || neighbourY < 0 || neighbourY >= sizeY) {
+            return;
+        }
+        int neighbourIndex = neighbourY * sizeX + neighbourX;
+        int neighbourDistance = distances[neighbourIndex];
+        if (neighbourDistance != Integer.MAX_VALUE && neighbourDistance + 1 < distances[index]) {
+            distances[index] = neighbourDistance + 1;
+            nearest[index] = nearest[neighbourIndex];
+        }
+    }
+
+    /**
+     * Get the Chebyshev distance from a point to the closest point with signal
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The distance, or NO_SIGNAL if there is no signal anywhere on the island
+     */
+    public int getDistanceToSignal(int x, int y) {
+        int distance = distances[indexOf(x, y)];
+        return distance == Integer.MAX_VALUE ? NO_SIGNAL : distance;
+    }
+
+    /**
+     * Get the Chebyshev distance from a point to the closest point with signal
+     *
+     * @param point The point
+     * @return The distance, or NO_SIGNAL if there is no signal anywhere on the island
+     */
+    public int getDistanceToSignal(Point point) {
+        return getDistanceToSignal(point.getX(), point.getY());
+    }
+
+    /**
+     * Get one of the closest points with signal with respect to a specified point
+     *
+     * @param point The point
+     * @return One of the closest points with signal, if there is any signal at all
+     */
+    public Optional<Point> getNearestPointWithSignal(Point point) {
+        int nearestIndex = nearest[indexOf(point.getX(), point.getY())];
+        if (nearestIndex < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Point(nearestIndex % sizeX, nearestIndex / sizeX));
+    }
+
+    /**
+     * Get all of the closest points with signal with respect to a specified point.
+     *
+     * Since the distance d is already known, only the ring of cells at exactly distance d
+     * around the point needs to be visited.
+     *
+     * @param point The point
+     * @return A set of the closest points with signal, empty if there is no signal at all
+     */
+    public Set<Point> getNearestPointsWithSignal(Point point) {
+        Set<Point> nearestPoints = new HashSet<>();
+        int distance = getDistanceToSignal(point);
+        if (distance == NO_SIGNAL) {
+            return nearestPoints;
+        }
+        int minX = point.getX() - distance;
+        int maxX = point.getX() + distance;
+        int minY = point.getY() - distance;
+        int maxY = point.getY() + distance;
+        for (int x = minX; x <= maxX; x++) {
+            addIfCovered(nearestPoints, x, minY);
+            addIfCovered(nearestPoints, x, maxY);
+        }
+        for (int y = minY + 1; y < maxY; y++) {
+            addIfCovered(nearestPoints, minX, y);
+            addIfCovered(nearestPoints, maxX, y);
+        }
+        return nearestPoints;
+    }
+
+    private void addIfCovered(Set<Point> points, int x, int y) {
+        if (x >= 0 && x < sizeX && y >= 0 && y < sizeY && distances[y * sizeX + x] == 0) {
+            points.add(new Point(x, y));
+        }
+    }
+
+    private int indexOf(int x, int y) {
+        if (x < 0 || x >= sizeX || y < 0 || y >= sizeY) {
+            throw new IllegalArgumentException(String.format("Point (%d, %d) is outside of the island", x, y));
+        }
+        return y * sizeX + x;
+    }
+
+}
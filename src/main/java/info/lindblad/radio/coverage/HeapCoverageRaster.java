@@ -0,0 +1,52 @@
+package info.lindblad.radio.coverage;
+
+/**
+ * A coverage raster stored as a single row-major array on the heap.
+ */
+public class HeapCoverageRaster implements CoverageRaster {
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int[] counts;
+
+    public HeapCoverageRaster(int sizeX, int sizeY) {
+        long nbrOfCells = (long) sizeX * sizeY;
+        if (nbrOfCells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Island of size %d x %d is too large for an on-heap raster", sizeX, sizeY));
+        }
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.counts = new int[(int) nbrOfCells];
+    }
+
+    @Override
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    @Override
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    @Override
+    public int getCount(int x, int y) {
+        return counts[y * sizeX + x];
+    }
+
+    @Override
+    public void setCount(int x, int y, int count) {
+        counts[y * sizeX + x] = count;
+    }
+
+    @Override
+    public void addRectangle(int x0, int y0, int x1, int y1) {
+        for (int y = y0; y <= y1; y++) {
+            int rowStart = y * sizeX;
+            for (int index = rowStart + x0; index <= rowStart + x1; index++) {
+                counts[index]++;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,235 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.PointMap;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps track of which receiver towers on an island have signal coverage while transmitter towers are
+ * changed, removed and installed and receiver towers are installed, one change at a time.
+ *
+ * For every receiver tower the number of transmitter towers covering it is kept. A change to a
+ * transmitter tower only visits the receiver towers within its old and new reach, found through the
+ * spatial index of the island, so the cost of a change does not depend on the size of the island.
+ * Every receiver tower whose coverage changes is handed to a listener.
+ *
+ * The island is changed along with the coverage and should not be changed in any other way while the
+ * coverage is in use. Transmitter towers are replaced rather than having their power changed, so the
+ * version of the island follows the changes.
+ */
+public class IncrementalCoverage {
+
+    /**
+     * Receives the receiver towers whose signal coverage changed.
+     */
+    public interface ChangeListener {
+
+        /**
+         * Handle a change
+         *
+         * @param receiverTower The receiver tower, which is new or has gained or lost signal coverage
+         * @param hasSignal Whether the receiver tower now has signal coverage
+         */
+        void changed(ReceiverTower receiverTower, boolean hasSignal);
+    }
+
+    private static final ChangeListener IGNORE = (receiverTower, hasSignal) -> { };
+
+    private final Island island;
+
+    /**
+     * The number of transmitter towers covering each receiver tower, keyed by its location.
+     */
+    private final PointMap<int[]> coveringCounts = new PointMap<>();
+    private final Map<Integer, TransmitterTower> transmitterTowers = new HashMap<>();
+
+    /**
+     * No transmitter tower has ever had more power than this, so none reaches further.
+     */
+    private int maxPower = 0;
+    private int nbrOfReceiverTowersWithCoverage = 0;
+
+    /**
+     * Start keeping track of the coverage of an island
+     *
+     * @param island The island, which is changed by this coverage from now on
+     */
+    public IncrementalCoverage(Island island) {
+        this.island = island;
+        for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+            coveringCounts.put(receiverTower.getPoint(), new int[1]);
+        }
+        for (TransmitterTower transmitterTower : island.getTransmitterTowerList()) {
+            transmitterTowers.put(transmitterTower.getId(), transmitterTower);
+            cover(transmitterTower, 1, IGNORE);
+        }
+    }
+
+    public Island getIsland() {
+        return island;
+    }
+
+    public int getNbrOfReceiverTowers() {
+        return coveringCounts.size();
+    }
+
+    public int getNbrOfReceiverTowersWithCoverage() {
+        return nbrOfReceiverTowersWithCoverage;
+    }
+
+    /**
+     * Get the transmitter tower with an id
+     *
+     * @param id The id of the transmitter tower
+     * @return The transmitter tower, or null if there is none
+     */
+    public TransmitterTower getTransmitterTower(int id) {
+        return transmitterTowers.get(id);
+    }
+
+    /**
+     * Check whether a receiver tower has signal coverage
+     *
+     * @param receiverTower The receiver tower
+     * @return Whether the receiver tower has signal coverage, false if it is not on the island
+     */
+    public boolean hasSignal(ReceiverTower receiverTower) {
+        int[] count = coveringCounts.get(receiverTower.getPoint());
+        return count != null && count[0] > 0;
+    }
+
+    /**
+     * Change the power of a transmitter tower
+     *
+     * @param id The id of the transmitter tower
+     * @param power The new power level
+     * @param listener The listener receiving the receiver towers whose coverage changed
+     * @throws IllegalArgumentException If there is no such transmitter tower or the power level is negative
+     */
+    public void setPower(int id, int power, ChangeListener listener) {
+        TransmitterTower transmitterTower = transmitterTowers.get(id);
+        if (transmitterTower == null) {
+            throw new IllegalArgumentException(String.format("There is no transmitter tower %d", id));
+        }
+        checkPower(power);
+        TransmitterTower changed = new TransmitterTower(id, transmitterTower.getPoint(), power);
+        int oldPower = transmitterTower.getPower();
+        maxPower = Math.max(maxPower, power);
+
+        // Only the receiver towers between the old and the new reach change, so visit the larger square once
+        for (ReceiverTower receiverTower : island.getReceiverTowerIndex().findWithinDistance(changed.getPoint(), Math.max(oldPower, power))) {
+            int distance = receiverTower.getPoint().distance(changed.getPoint());
+            boolean wasCovered = distance <= oldPower;
+            boolean isCovered = distance <= power;
+            if (wasCovered != isCovered) {
+                count(receiverTower, isCovered ? 1 : -1, listener);
+            }
+        }
+        island.addTransmitterTower(changed);
+        transmitterTowers.put(id, changed);
+    }
+
+    /**
+     * Remove a transmitter tower, e.g. because of an outage
+     *
+     * @param id The id of the transmitter tower
+     * @param listener The listener receiving the receiver towers whose coverage changed
+     */
+    public void removeTransmitterTower(int id, ChangeListener listener) {
+        TransmitterTower transmitterTower = transmitterTowers.remove(id);
+        if (transmitterTower == null) {
+            throw new IllegalArgumentException(String.format("There is no transmitter tower %d", id));
+        }
+        cover(transmitterTower, -1, listener);
+        island.removeTransmitterTower(transmitterTower.getPoint().getX(), transmitterTower.getPoint().getY());
+    }
+
+    /**
+     * Install a transmitter tower. A transmitter tower with the same id, or at the same location, is removed first.
+     *
+     * @param transmitterTower The transmitter tower
+     * @param listener The listener receiving the receiver towers whose coverage changed
+     * @throws IllegalArgumentException If the transmitter tower is outside the island
+     */
+    public void addTransmitterTower(TransmitterTower transmitterTower, ChangeListener listener) {
+        checkLocation(transmitterTower.getPoint());
+        if (transmitterTowers.containsKey(transmitterTower.getId())) {
+            removeTransmitterTower(transmitterTower.getId(), listener);
+        }
+        Point point = transmitterTower.getPoint();
+        TransmitterTower replaced = island.getTransmitterTower(point.getX(), point.getY());
+        if (replaced != null) {
+            removeTransmitterTower(replaced.getId(), listener);
+        }
+        cover(transmitterTower, 1, listener);
+        island.addTransmitterTower(transmitterTower);
+        transmitterTowers.put(transmitterTower.getId(), transmitterTower);
+    }
+
+    /**
+     * Install a receiver tower. A receiver tower at the same location is replaced.
+     *
+     * @param receiverTower The receiver tower
+     * @param listener The listener receiving the new receiver tower
+     * @throws IllegalArgumentException If the receiver tower is outside the island
+     */
+    public void addReceiverTower(ReceiverTower receiverTower, ChangeListener listener) {
+        Point point = receiverTower.getPoint();
+        checkLocation(point);
+        int[] count = coveringCounts.get(point);
+        if (count == null) {
+            count = new int[1];
+            for (TransmitterTower transmitterTower : island.getTransmitterTowerIndex().findWithinDistance(point, maxPower)) {
+                if (transmitterTower.getPoint().distance(point) <= transmitterTower.getPower()) {
+                    count[0]++;
+                }
+            }
+            coveringCounts.put(point, count);
+            if (count[0] > 0) {
+                nbrOfReceiverTowersWithCoverage++;
+            }
+        }
+        island.addReceiverTower(receiverTower);
+        listener.changed(receiverTower, count[0] > 0);
+    }
+
+    private void checkLocation(Point point) {
+        if (!island.getBounds().contains(point)) {
+            throw new IllegalArgumentException(String.format("(%d, %d) is outside the island of size %d x %d",
+                    point.getX(), point.getY(), island.getBounds().getSizeX(), island.getBounds().getSizeY()));
+        }
+    }
+
+    private static void checkPower(int power) {
+        if (power < 0) {
+            throw new IllegalArgumentException(String.format("Power must be a non-negative integer, got %d", power));
+        }
+    }
+
+    /**
+     * Add or remove the coverage of a transmitter tower
+     */
+    private void cover(TransmitterTower transmitterTower, int delta, ChangeListener listener) {
+        for (ReceiverTower receiverTower : island.getReceiverTowerIndex().findWithinDistance(transmitterTower.getPoint(), transmitterTower.getPower())) {
+            count(receiverTower, delta, listener);
+        }
+        maxPower = Math.max(maxPower, transmitterTower.getPower());
+    }
+
+    private void count(ReceiverTower receiverTower, int delta, ChangeListener listener) {
+        int[] count = coveringCounts.get(receiverTower.getPoint());
+        boolean hadSignal = count[0] > 0;
+        count[0] += delta;
+        boolean hasSignal = count[0] > 0;
+        if (hadSignal != hasSignal) {
+            nbrOfReceiverTowersWithCoverage += hasSignal ? 1 : -1;
+            listener.changed(receiverTower, hasSignal);
+        }
+    }
+
+}
@@ -0,0 +1,277 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A coverage raster stored in a memory-mapped file, for islands whose raster does not fit on the heap.
+ *
+ * The raster is split into square tiles of TILE_SIZE x TILE_SIZE points which are stored one after
+ * the other, so that points that are close on the island are also close in the file. Residency is
+ * left to the page cache of the operating system.
+ *
+ * The file starts with a small header holding the dimensions of the raster and a fingerprint of the
+ * transmitter towers it was computed for, which allows a raster to be reused across runs.
+ *
+ * Only absolute buffer accessors are used, so different threads may update disjoint parts of the
+ * raster concurrently.
+ */
+public class MappedCoverageRaster implements CoverageRaster, Closeable {
+
+    public static final int TILE_SIZE = 64;
+
+    private static final int MAGIC = 0x52544352; // "RTCR"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int FINGERPRINT_OFFSET = 20;
+
+    private static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int CELL_SIZE = Integer.BYTES;
+    private static final int TILE_BYTES = TILE_SIZE * TILE_SIZE * CELL_SIZE;
+
+    /**
+     * A single mapping is limited to 2 GB, so the tiles are mapped in segments of 256 MB.
+     */
+    private static final int TILES_PER_SEGMENT = 16384;
+    private static final long SEGMENT_BYTES = (long) TILES_PER_SEGMENT * TILE_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int tilesX;
+
+    /**
+     * Whether {@link #openOrCreate} computed this raster rather than reusing the file.
+     */
+    private boolean recomputed;
+
+    private MappedCoverageRaster(FileChannel channel, int sizeX, int sizeY) throws IOException {
+        this.channel = channel;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.tilesX = (sizeX + TILE_MASK) >>> TILE_SHIFT;
+        long nbrOfTiles = (long) tilesX * ((sizeY + TILE_MASK) >>> TILE_SHIFT);
+        int nbrOfSegments = (int) ((nbrOfTiles + TILES_PER_SEGMENT - 1) / TILES_PER_SEGMENT);
+
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        segments = new MappedByteBuffer[nbrOfSegments];
+        for (int segment = 0; segment < nbrOfSegments; segment++) {
+            long start = HEADER_SIZE + segment * SEGMENT_BYTES;
+            long length = Math.min(SEGMENT_BYTES, nbrOfTiles * TILE_BYTES - segment * SEGMENT_BYTES);
+            segments[segment] = channel.map(FileChannel.MapMode.READ_WRITE, start, length);
+            segments[segment].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Create a new, empty raster file, replacing any existing file.
+     *
+     * @param path The path of the raster file
+     * @param sizeX The X size of the raster
+     * @param sizeY The Y size of the raster
+     * @return The raster
+     */
+    public static MappedCoverageRaster create(Path path, int sizeX, int sizeY) {
+        if (sizeX < 0 || sizeY < 0) {
+            throw new IllegalArgumentException(String.format("Raster size must be positive, got %d x %d", sizeX, sizeY));
+        }
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long nbrOfTiles = (long) ((sizeX + TILE_MASK) >>> TILE_SHIFT) * ((sizeY + TILE_MASK) >>> TILE_SHIFT);
+            // Extending the file leaves it sparse and zero-filled
+            channel.write(ByteBuffer.allocate(1), HEADER_SIZE + nbrOfTiles * TILE_BYTES - 1);
+            MappedCoverageRaster raster = new MappedCoverageRaster(channel, sizeX, sizeY);
+            raster.header.putInt(0, MAGIC);
+            raster.header.putInt(4, VERSION);
+            raster.header.putInt(8, sizeX);
+            raster.header.putInt(12, sizeY);
+            raster.header.putInt(16, TILE_SIZE);
+            return raster;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not create coverage raster '%s'", path), exception);
+        }
+    }
+
+    /**
+     * Open an existing raster file.
+     *
+     * @param path The path of the raster file
+     * @return The raster
+     */
+    public static MappedCoverageRaster open(Path path) {
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(buffer, 0);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(16) != TILE_SIZE) {
+                channel.close();
+                throw new IllegalArgumentException(String.format("'%s' is not a coverage raster file", path));
+            }
+            return new MappedCoverageRaster(channel, buffer.getInt(8), buffer.getInt(12));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not open coverage raster '%s'", path), exception);
+        }
+    }
+
+    /**
+     * Open the raster file for an island if it was computed for the same transmitter towers,
+     * otherwise compute it from scratch. A file that can not be read as a raster is replaced as well;
+     * {@link #isRecomputed()} tells whether that happened.
+     *
+     * @param path The path of the raster file
+     * @param island The island
+     * @return The raster holding the coverage of the island
+     */
+    public static MappedCoverageRaster openOrCreate(Path path, Island island) {
+        long fingerprint = fingerprint(island);
+        if (Files.exists(path)) {
+            try {
+                MappedCoverageRaster raster = open(path);
+                if (raster.getSizeX() == island.getBounds().getSizeX()
+                        && raster.getSizeY() == island.getBounds().getSizeY()
+                        && raster.getFingerprint() == fingerprint) {
+                    return raster;
+                }
+                raster.close();
+            } catch (IllegalArgumentException | UncheckedIOException exception) {
+                // The file is not a raster or can not be read, so it is computed again below
+            }
+        }
+        MappedCoverageRaster raster = create(path, island.getBounds().getSizeX(), island.getBounds().getSizeY());
+        raster.fill(island.getTransmitterTowerList());
+        raster.setFingerprint(fingerprint);
+        raster.flush();
+        raster.recomputed = true;
+        return raster;
+    }
+
+    /**
+     * Check whether {@link #openOrCreate} computed this raster from scratch, because the file was missing,
+     * was computed for other transmitter towers or could not be read, rather than reusing the file
+     *
+     * @return Whether the raster was computed from scratch
+     */
+    public boolean isRecomputed() {
+        return recomputed;
+    }
+
+    /**
+     * Calculate a fingerprint of the transmitter towers of an island that does not depend on the
+     * order in which they were added.
+     *
+     * @param island The island
+     * @return The fingerprint
+     */
+    public static long fingerprint(Island island) {
+        long fingerprint = ((long) island.getBounds().getSizeX() << 32) ^ island.getBounds().getSizeY();
+        for (TransmitterTower transmitterTower : island.getTransmitterTowerList()) {
+            long hash = ((long) transmitterTower.getPoint().getX() << 32) ^ transmitterTower.getPoint().getY();
+            hash = hash * 0x9E3779B97F4A7C15L + transmitterTower.getPower();
+            hash ^= hash >>> 31;
+            hash *= 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 29;
+            fingerprint += hash;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Get the fingerprint of the transmitter towers this raster was computed for
+     *
+     * @return The fingerprint, or zero if none was recorded
+     */
+    public long getFingerprint() {
+        return header.getLong(FINGERPRINT_OFFSET);
+    }
+
+    /**
+     * Record the fingerprint of the transmitter towers this raster was computed for
+     *
+     * @param fingerprint The fingerprint
+     */
+    public void setFingerprint(long fingerprint) {
+        header.putLong(FINGERPRINT_OFFSET, fingerprint);
+    }
+
+    @Override
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    @Override
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    @Override
+    public int getCount(int x, int y) {
+        long offset = offsetOf(x, y);
+        return segments[(int) (offset / SEGMENT_BYTES)].getInt((int) (offset % SEGMENT_BYTES));
+    }
+
+    @Override
+    public void setCount(int x, int y, int count) {
+        long offset = offsetOf(x, y);
+        segments[(int) (offset / SEGMENT_BYTES)].putInt((int) (offset % SEGMENT_BYTES), count);
+    }
+
+    @Override
+    public void addRectangle(int x0, int y0, int x1, int y1) {
+        for (int y = y0; y <= y1; y++) {
+            int x = x0;
+            while (x <= x1) {
+                // Update the part of the row that falls within a single tile
+                int lastInTile = Math.min(x1, x | TILE_MASK);
+                long offset = offsetOf(x, y);
+                MappedByteBuffer segment = segments[(int) (offset / SEGMENT_BYTES)];
+                int position = (int) (offset % SEGMENT_BYTES);
+                for (; x <= lastInTile; x++, position += CELL_SIZE) {
+                    segment.putInt(position, segment.getInt(position) + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Write any changes back to the file.
+     */
+    public void flush() {
+        header.force();
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            flush();
+            channel.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not close coverage raster", exception);
+        }
+    }
+
+    private long offsetOf(int x, int y) {
+        long tile = (long) (y >>> TILE_SHIFT) * tilesX + (x >>> TILE_SHIFT);
+        return tile * TILE_BYTES + (((y & TILE_MASK) << TILE_SHIFT) + (x & TILE_MASK)) * CELL_SIZE;
+    }
+
+}
@@ -0,0 +1,175 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.SpaceFillingCurve;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds a coverage raster using several threads.
+ *
+ * The rows of the raster are partitioned into bands of BAND_HEIGHT rows, which are handed out to
+ * a pool of worker threads. The transmitter towers are first bucketed by the bands their signal
+ * reaches, so each worker only visits the towers it has to, and adds the part of their signal that
+ * falls within its band. Every point in the raster is written by exactly one thread and no merging
+ * or locking is needed. Since the counts are sums, the result is identical to a serial build.
+ *
+ * The towers can optionally be ordered along a space-filling curve first, so that consecutive
+ * towers write to nearby parts of the raster.
+ */
+public class ParallelCoverageBuilder {
+
+    /**
+     * The height of each band, aligned with the tiles of MappedCoverageRaster.
+     */
+    public static final int BAND_HEIGHT = MappedCoverageRaster.TILE_SIZE;
+
+    private final int nbrOfThreads;
+    private final SpaceFillingCurve ordering;
+
+    /**
+     * Create a builder using one thread per available processor.
+     */
+    public ParallelCoverageBuilder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a builder using a given number of threads
+     *
+     * @param nbrOfThreads The number of worker threads
+     */
+    public ParallelCoverageBuilder(int nbrOfThreads) {
+        this(nbrOfThreads, SpaceFillingCurve.NONE);
+    }
+
+    /**
+     * Create a builder using a given number of threads, visiting the towers along a space-filling curve
+     *
+     * @param nbrOfThreads The number of worker threads
+     * @param ordering The order in which the towers are added
+     */
+    public ParallelCoverageBuilder(int nbrOfThreads, SpaceFillingCurve ordering) {
+        if (nbrOfThreads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be a positive integer, got %d", nbrOfThreads));
+        }
+        this.nbrOfThreads = nbrOfThreads;
+        this.ordering = ordering;
+    }
+
+    /**
+     * Build an on-heap coverage raster for an island
+     *
+     * @param island The island
+     * @return The coverage raster
+     */
+    public HeapCoverageRaster build(Island island) {
+        HeapCoverageRaster raster = new HeapCoverageRaster(island.getBounds().getSizeX(), island.getBounds().getSizeY());
+        build(island, raster);
+        return raster;
+    }
+
+    /**
+     * Add the coverage of the transmitter towers of an island to an existing (empty) raster
+     *
+     * @param island The island
+     * @param raster The coverage raster
+     */
+    public void build(Island island, CoverageRaster raster) {
+        List<TransmitterTower> transmitterTowers = ordering.sort(island.getTransmitterTowerList());
+        int sizeY = raster.getSizeY();
+
+        if (nbrOfThreads == 1) {
+            raster.fill(transmitterTowers);
+            return;
+        }
+
+        int nbrOfBands = (int) ((sizeY + (long) BAND_HEIGHT - 1) / BAND_HEIGHT);
+        int[] offsets = new int[nbrOfBands + 1];
+        int[] towers = bucketByBand(transmitterTowers, sizeY, nbrOfBands, offsets);
+
+        ExecutorService executor = Executors.newFixedThreadPool(nbrOfThreads);
+        try {
+            List<Future<?>> bands = new ArrayList<>();
+            for (int band = 0; band < nbrOfBands; band++) {
+                int bandFromY = band * BAND_HEIGHT;
+                int bandToY = Math.min(sizeY, bandFromY + BAND_HEIGHT);
+                int from = offsets[band];
+                int to = offsets[band + 1];
+                bands.add(executor.submit(() -> {
+                    for (int i = from; i < to; i++) {
+                        raster.addTransmitterTower(transmitterTowers.get(towers[i]), bandFromY, bandToY);
+                    }
+                }));
+            }
+            for (Future<?> band : bands) {
+                band.get();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building coverage", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Could not build coverage", exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the indices of the transmitter towers reaching each band, in compressed sparse row form: the
+     * towers of band b are found between offsets[b] and offsets[b + 1], in the order of the list.
+     *
+     * @param transmitterTowers The transmitter towers
+     * @param sizeY The Y size of the raster
+     * @param nbrOfBands The number of bands
+     * @param offsets The offsets to fill in, one more than the number of bands
+     * @return The indices of the transmitter towers, band by band
+     */
+    private static int[] bucketByBand(List<TransmitterTower> transmitterTowers, int sizeY, int nbrOfBands, int[] offsets) {
+        int nbrOfTransmitterTowers = transmitterTowers.size();
+        int[] firstBand = new int[nbrOfTransmitterTowers];
+        int[] lastBand = new int[nbrOfTransmitterTowers];
+        long total = 0;
+        for (int i = 0; i < nbrOfTransmitterTowers; i++) {
+            TransmitterTower transmitterTower = transmitterTowers.get(i);
+            long y = transmitterTower.getPoint().getY();
+            long power = transmitterTower.getPower();
+            long y0 = Math.max(0L, y - power);
+            long y1 = Math.min(sizeY - 1L, y + power);
+            if (y0 > y1) {
+                firstBand[i] = 0;
+                lastBand[i] = -1;
+                continue;
+            }
+            firstBand[i] = (int) (y0 / BAND_HEIGHT);
+            lastBand[i] = (int) (y1 / BAND_HEIGHT);
+            for (int band = firstBand[i]; band <= lastBand[i]; band++) {
+                offsets[band + 1]++;
+            }
+            total += lastBand[i] - firstBand[i] + 1;
+        }
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many transmitter towers reaching the bands of the raster");
+        }
+        for (int band = 0; band < nbrOfBands; band++) {
+            offsets[band + 1] += offsets[band];
+        }
+
+        int[] towers = new int[(int) total];
+        int[] next = new int[nbrOfBands];
+        System.arraycopy(offsets, 0, next, 0, nbrOfBands);
+        for (int i = 0; i < nbrOfTransmitterTowers; i++) {
+            for (int band = firstBand[i]; band <= lastBand[i]; band++) {
+                towers[next[band]++] = i;
+            }
+        }
+        return towers;
+    }
+
+}
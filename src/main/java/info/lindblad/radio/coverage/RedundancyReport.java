@@ -0,0 +1,209 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.ReceiverTower;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * How many transmitter towers cover every receiver tower, and by how much.
+ *
+ * The multiplicity of a receiver tower is the number of transmitter towers covering it, so a receiver
+ * tower with multiplicity k keeps its signal if any k - 1 of them fail. Its margin is the amount the
+ * power of the nearest covering transmitter tower exceeds its distance to the receiver tower, that is
+ * how far that tower's power can drop before the receiver tower is out of its reach. If several
+ * covering transmitter towers are equally near, the smallest of their margins is taken.
+ *
+ * The receiver towers are looked up in a SquareUnionCoverage, so building the report takes
+ * O(T log T) for the index plus O(log T) and the multiplicity per receiver tower. No Set of transmitter
+ * towers is created for any point. The results are kept in arrays ordered by receiver tower id.
+ */
+public class RedundancyReport {
+
+    /**
+     * The margin of a receiver tower without coverage
+     */
+    public static final int NO_MARGIN = -1;
+
+    private final int[] receiverIds;
+    private final int[] receiverX;
+    private final int[] receiverY;
+    private final int[] multiplicities;
+    private final int[] margins;
+    private final int[] histogram;
+
+    /**
+     * Build the report for an island
+     *
+     * @param island The island
+     */
+    public RedundancyReport(Island island) {
+        this(new SquareUnionCoverage(island), island.getReceiverTowerList());
+    }
+
+    /**
+     * Build the report for a set of receiver towers
+     *
+     * @param coverage The coverage of the transmitter towers
+     * @param receiverTowers The receiver towers
+     */
+    public RedundancyReport(SquareUnionCoverage coverage, List<ReceiverTower> receiverTowers) {
+        List<ReceiverTower> sorted = new ArrayList<>(receiverTowers);
+        sorted.sort(Comparator.comparingInt(ReceiverTower::getId));
+        int nbrOfReceiverTowers = sorted.size();
+        receiverIds = new int[nbrOfReceiverTowers];
+        receiverX = new int[nbrOfReceiverTowers];
+        receiverY = new int[nbrOfReceiverTowers];
+        multiplicities = new int[nbrOfReceiverTowers];
+        margins = new int[nbrOfReceiverTowers];
+
+        int maxMultiplicity = 0;
+        int[] nearest = new int[1];
+        int[] margin = new int[1];
+        int[] count = new int[1];
+        for (int receiver = 0; receiver < nbrOfReceiverTowers; receiver++) {
+            ReceiverTower receiverTower = sorted.get(receiver);
+            int x = receiverTower.getPoint().getX();
+            int y = receiverTower.getPoint().getY();
+            receiverIds[receiver] = receiverTower.getId();
+            receiverX[receiver] = x;
+            receiverY[receiver] = y;
+
+            nearest[0] = Integer.MAX_VALUE;
+            margin[0] = NO_MARGIN;
+            count[0] = 0;
+            coverage.forEachCovering(x, y, square -> {
+                int distance = Math.max(Math.abs(coverage.getTowerX(square) - x), Math.abs(coverage.getTowerY(square) - y));
+                int squareMargin = coverage.getTowerPower(square) - distance;
+                if (distance < nearest[0] || (distance == nearest[0] && squareMargin < margin[0])) {
+                    nearest[0] = distance;
+                    margin[0] = squareMargin;
+                }
+                count[0]++;
+            });
+            multiplicities[receiver] = count[0];
+            margins[receiver] = margin[0];
+            maxMultiplicity = Math.max(maxMultiplicity, count[0]);
+        }
+
+        histogram = new int[maxMultiplicity + 1];
+        for (int multiplicity : multiplicities) {
+            histogram[multiplicity]++;
+        }
+    }
+
+    public int getNbrOfReceiverTowers() {
+        return receiverIds.length;
+    }
+
+    /**
+     * Get the ids of the receiver towers, in increasing order. The other arrays are in the same order.
+     *
+     * @return The ids. The array is not copied.
+     */
+    public int[] getReceiverIds() {
+        return receiverIds;
+    }
+
+    /**
+     * Get the number of transmitter towers covering every receiver tower
+     *
+     * @return The multiplicities, in the order of {@link #getReceiverIds()}. The array is not copied.
+     */
+    public int[] getMultiplicities() {
+        return multiplicities;
+    }
+
+    /**
+     * Get the margin of every receiver tower, or NO_MARGIN for receiver towers without coverage
+     *
+     * @return The margins, in the order of {@link #getReceiverIds()}. The array is not copied.
+     */
+    public int[] getMargins() {
+        return margins;
+    }
+
+    /**
+     * Get the number of receiver towers by multiplicity
+     *
+     * @return The histogram, where index k holds the number of receiver towers covered by exactly k
+     *         transmitter towers. The array is not copied.
+     */
+    public int[] getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Get the number of receiver towers covered by at least k transmitter towers
+     *
+     * @param k The multiplicity
+     * @return The number of receiver towers
+     */
+    public int getNbrOfReceiverTowersWithCoverage(int k) {
+        int nbrOfReceiverTowers = 0;
+        for (int multiplicity = Math.max(0, k); multiplicity < histogram.length; multiplicity++) {
+            nbrOfReceiverTowers += histogram[multiplicity];
+        }
+        return nbrOfReceiverTowers;
+    }
+
+    /**
+     * Get the smallest margin of the receiver towers with coverage
+     *
+     * @return The smallest margin, or NO_MARGIN if no receiver tower has coverage
+     */
+    public int getMinimumMargin() {
+        return Arrays.stream(margins).filter(margin -> margin != NO_MARGIN).min().orElse(NO_MARGIN);
+    }
+
+    /**
+     * Write the report as comma-separated values, one line per receiver tower with its id, location,
+     * multiplicity and margin, where the margin is empty for receiver towers without coverage.
+     *
+     * @param path The path of the file, which is replaced if it exists
+     */
+    public void writeCsv(Path path) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("id,x,y,multiplicity,margin\n");
+            StringBuilder line = new StringBuilder();
+            for (int receiver = 0; receiver < receiverIds.length; receiver++) {
+                line.setLength(0);
+                line.append(receiverIds[receiver]).append(',')
+                        .append(receiverX[receiver]).append(',')
+                        .append(receiverY[receiver]).append(',')
+                        .append(multiplicities[receiver]).append(',');
+                if (margins[receiver] != NO_MARGIN) {
+                    line.append(margins[receiver]);
+                }
+                writer.write(line.append('\n').toString());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not write report '%s'", path), exception);
+        }
+    }
+
+    /**
+     * Get the histogram, one line per multiplicity with the number of receiver towers
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int multiplicity = 0; multiplicity < histogram.length; multiplicity++) {
+            if (multiplicity > 0) {
+                sb.append('\n');
+            }
+            sb.append(multiplicity).append('\t').append(histogram[multiplicity]);
+        }
+        return sb.toString();
+    }
+
+}
@@ -0,0 +1,425 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Bounds;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A sparse coverage engine that represents signal coverage as the union of the squares
+ * covered by each transmitter tower, clipped to the bounds of the island.
+ *
+ * Unlike Coverage, which stores every covered point, the memory used is proportional to the
+ * number of transmitter towers and not to the area of the island. This makes it possible to
+ * reason about islands sized around 10^6 x 10^6.
+ *
+ * Two structures are used:
+ *
+ *  - An interval index, where the squares are sorted by their smallest X coordinate and
+ *    arranged in an implicit binary tree. Each tree node keeps the largest X coordinate and the
+ *    Y extent of the squares below it, so that point and rectangle queries only descend into
+ *    nodes that can possibly intersect.
+ *
+ *  - A sweep line over the X axis combined with a segment tree over the compressed Y
+ *    coordinates, which calculates the covered area of the union in O(n log n).
+ */
+public class SquareUnionCoverage {
+
+    private final Bounds bounds;
+
+    private final int nbrOfSquares;
+
+    /**
+     * The clipped squares (inclusive coordinates) sorted by their smallest X coordinate.
+     */
+    private final int[] minX;
+    private final int[] minY;
+    private final int[] maxX;
+    private final int[] maxY;
+
+    /**
+     * The transmitter tower each square belongs to.
+     */
+    private final int[] towerIds;
+    private final int[] towerX;
+    private final int[] towerY;
+    private final int[] towerPower;
+
+    /**
+     * Implicit binary tree over the sorted squares, where node 1 is the root and the children
+     * of node i are 2i and 2i + 1.
+     */
+    private final int leafOffset;
+    private final int[] nodeMaxX;
+    private final int[] nodeMinY;
+    private final int[] nodeMaxY;
+
+    private long coveredArea = -1;
+
+    public SquareUnionCoverage(Island island) {
+        this(island.getBounds(), island.getTransmitterTowerList());
+    }
+
+    public SquareUnionCoverage(Bounds bounds, Collection<TransmitterTower> transmitterTowers) {
+        this.bounds = bounds;
+        int size = transmitterTowers.size();
+        int[] ids = new int[size];
+        int[] xs = new int[size];
+        int[] ys = new int[size];
+        int[] powers = new int[size];
+        int i = 0;
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            ids[i] = transmitterTower.getId();
+            xs[i] = transmitterTower.getPoint().getX();
+            ys[i] = transmitterTower.getPoint().getY();
+            powers[i] = transmitterTower.getPower();
+            i++;
+        }
+
+        /*
+            Clip each square to the island and sort the non-empty ones by their smallest X coordinate.
+         */
+        long[] order = new long[size];
+        int nbrOfNonEmpty = 0;
+        for (i = 0; i < size; i++) {
+            long clippedMinX = Math.max(0L, (long) xs[i] - powers[i]);
+            long clippedMaxX = Math.min(bounds.getSizeX() - 1L, (long) xs[i] + powers[i]);
+            long clippedMinY = Math.max(0L, (long) ys[i] - powers[i]);
+            long clippedMaxY = Math.min(bounds.getSizeY() - 1L, (long) ys[i] + powers[i]);
+            if (clippedMinX <= clippedMaxX && clippedMinY <= clippedMaxY) {
+                order[nbrOfNonEmpty++] = (clippedMinX << 32) | i;
+            }
+        }
+        order = Arrays.copyOf(order, nbrOfNonEmpty);
+        Arrays.sort(order);
+
+        nbrOfSquares = nbrOfNonEmpty;
+        minX = new int[nbrOfSquares];
+        minY = new int[nbrOfSquares];
+        maxX = new int[nbrOfSquares];
+        maxY = new int[nbrOfSquares];
+        towerIds = new int[nbrOfSquares];
+        towerX = new int[nbrOfSquares];
+        towerY = new int[nbrOfSquares];
+        towerPower = new int[nbrOfSquares];
+        for (int square = 0; square < nbrOfSquares; square++) {
+            int original = (int) order[square];
+            minX[square] = (int) Math.max(0L, (long) xs[original] - powers[original]);
+            maxX[square] = (int) Math.min(bounds.getSizeX() - 1L, (long) xs[original] + powers[original]);
+            minY[square] = (int) Math.max(0L, (long) ys[original] - powers[original]);
+            maxY[square] = (int) Math.min(bounds.getSizeY() - 1L, (long) ys[original] + powers[original]);
+            towerIds[square] = ids[original];
+            towerX[square] = xs[original];
+            towerY[square] = ys[original];
+            towerPower[square] = powers[original];
+        }
+
+        int leaves = 1;
+        while (leaves < Math.max(1, nbrOfSquares)) {
+            leaves <<= 1;
+        }
+        leafOffset = leaves;
+        nodeMaxX = new int[2 * leaves];
+        nodeMinY = new int[2 * leaves];
+        nodeMaxY = new int[2 * leaves];
+        Arrays.fill(nodeMaxX, -1);
+        Arrays.fill(nodeMinY, Integer.MAX_VALUE);
+        Arrays.fill(nodeMaxY, -1);
+        for (int square = 0; square < nbrOfSquares; square++) {
+            nodeMaxX[leaves + square] = maxX[square];
+            nodeMinY[leaves + square] = minY[square];
+            nodeMaxY[leaves + square] = maxY[square];
+        }
+        for (int node = leaves - 1; node >= 1; node--) {
+            nodeMaxX[node] = Math.max(nodeMaxX[2 * node], nodeMaxX[2 * node + 1]);
+            nodeMinY[node] = Math.min(nodeMinY[2 * node], nodeMinY[2 * node + 1]);
+            nodeMaxY[node] = Math.max(nodeMaxY[2 * node], nodeMaxY[2 * node + 1]);
+        }
+    }
+
+    /**
+     * Get the bounds of the island
+     *
+     * @return The bounds of the island
+     */
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Get the number of (non-empty) squares in the union
+     *
+     * @return The number of squares
+     */
+    public int getNbrOfSquares() {
+        return nbrOfSquares;
+    }
+
+    /**
+     * Get the id of the transmitter tower a square belongs to
+     *
+     * @param square The square index
+     * @return The transmitter tower id
+     */
+    public int getTowerId(int square) {
+        return towerIds[square];
+    }
+
+    /**
+     * Get the X coordinate of the transmitter tower a square belongs to
+     *
+     * @param square The square index
+     * @return The X coordinate
+     */
+    public int getTowerX(int square) {
+        return towerX[square];
+    }
+
+    /**
+     * Get the Y coordinate of the transmitter tower a square belongs to
+     *
+     * @param square The square index
+     * @return The Y coordinate
+     */
+    public int getTowerY(int square) {
+        return towerY[square];
+    }
+
+    /**
+     * Get the power of the transmitter tower a square belongs to
+     *
+     * @param square The square index
+     * @return The power level
+     */
+    public int getTowerPower(int square) {
+        return towerPower[square];
+    }
+
+    /**
+     * Check whether a specific point has signal or not
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return Whether the point has signal or not
+     */
+    public boolean hasSignal(int x, int y) {
+        return hasSignalAnywhere(x, y, x, y);
+    }
+
+    /**
+     * Check whether a specific point has signal or not
+     *
+     * @param point The point
+     * @return Whether the point has signal or not
+     */
+    public boolean hasSignal(Point point) {
+        return hasSignal(point.getX(), point.getY());
+    }
+
+    /**
+     * Count the number of transmitter towers covering a specific point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The number of transmitter towers whose signal covers the point
+     */
+    public int countCovering(int x, int y) {
+        int[] count = new int[1];
+        forEachCovering(x, y, square -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * Visit every square covering a specific point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param consumer Consumer receiving the index of each covering square
+     */
+    public void forEachCovering(int x, int y, IntConsumer consumer) {
+        search(1, 0, leafOffset, x, y, x, y, square -> {
+            consumer.accept(square);
+            return true;
+        });
+    }
+
+    /**
+     * Visit every square intersecting a rectangle (inclusive coordinates)
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @param consumer Consumer receiving the index of each intersecting square
+     */
+    public void forEachIntersecting(int x0, int y0, int x1, int y1, IntConsumer consumer) {
+        search(1, 0, leafOffset, x0, y0, x1, y1, square -> {
+            consumer.accept(square);
+            return true;
+        });
+    }
+
+    /**
+     * Check whether any point within a rectangle (inclusive coordinates) has signal
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return Whether any point within the rectangle has signal
+     */
+    public boolean hasSignalAnywhere(int x0, int y0, int x1, int y1) {
+        return !search(1, 0, leafOffset, x0, y0, x1, y1, square -> false);
+    }
+
+    /**
+     * Check whether every point within a rectangle (inclusive coordinates) has signal
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return Whether every point within the rectangle has signal
+     */
+    public boolean isFullyCovered(int x0, int y0, int x1, int y1) {
+        return getCoveredArea(x0, y0, x1, y1) == ((long) x1 - x0 + 1) * ((long) y1 - y0 + 1);
+    }
+
+    /**
+     * Get the number of points on the island that have signal
+     *
+     * @return The number of points with signal
+     */
+    public long getCoveredArea() {
+        if (coveredArea < 0) {
+            int[] all = new int[nbrOfSquares];
+            for (int square = 0; square < nbrOfSquares; square++) {
+                all[square] = square;
+            }
+            coveredArea = sweep(all, nbrOfSquares, 0, 0, Integer.MAX_VALUE - 1, Integer.MAX_VALUE - 1);
+        }
+        return coveredArea;
+    }
+
+    /**
+     * Get the number of points with signal within a rectangle (inclusive coordinates)
+     *
+     * @param x0 The smallest X coordinate
+     * @param y0 The smallest Y coordinate
+     * @param x1 The largest X coordinate
+     * @param y1 The largest Y coordinate
+     * @return The number of points with signal within the rectangle
+     */
+    public long getCoveredArea(int x0, int y0, int x1, int y1) {
+        int[] intersecting = new int[Math.max(1, nbrOfSquares)];
+        int[] count = new int[1];
+        forEachIntersecting(x0, y0, x1, y1, square -> intersecting[count[0]++] = square);
+        return sweep(intersecting, count[0], x0, y0, x1, y1);
+    }
+
+    /**
+     * Walk the interval index, visiting each square intersecting the rectangle.
+     *
+     * @return False if the visitor asked to stop early, otherwise true
+     */
+    private boolean search(int node, int lo, int hi, int x0, int y0, int x1, int y1, IntPredicate visitor) {
+        if (lo >= nbrOfSquares || minX[lo] > x1) {
+            // The squares are sorted by smallest X coordinate, so nothing from here on can intersect
+            return true;
+        }
+        if (nodeMaxX[node] < x0 || nodeMinY[node] > y1 || nodeMaxY[node] < y0) {
+            return true;
+        }
+        if (hi - lo == 1) {
+            return visitor.test(lo);
+        }
+        int mid = (lo + hi) >>> 1;
+        return search(2 * node, lo, mid, x0, y0, x1, y1, visitor)
+                && search(2 * node + 1, mid, hi, x0, y0, x1, y1, visitor);
+    }
+
+    /**
+     * Calculate the area of the union of a subset of the squares, clipped to a rectangle, by
+     * sweeping a line along the X axis and keeping track of the covered length along the Y axis
+     * in a segment tree.
+     */
+    private long sweep(int[] squares, int nbrOfSquares, int x0, int y0, int x1, int y1) {
+        if (nbrOfSquares == 0) {
+            return 0;
+        }
+
+        // Compress the Y coordinates of the half-open clipped squares
+        long[] ys = new long[2 * nbrOfSquares];
+        for (int i = 0; i < nbrOfSquares; i++) {
+            int square = squares[i];
+            ys[2 * i] = Math.max(minY[square], y0);
+            ys[2 * i + 1] = Math.min(maxY[square], (long) y1) + 1;
+        }
+        Arrays.sort(ys);
+        int nbrOfYs = 0;
+        for (int i = 0; i < ys.length; i++) {
+            if (nbrOfYs == 0 || ys[nbrOfYs - 1] != ys[i]) {
+                ys[nbrOfYs++] = ys[i];
+            }
+        }
+
+        // Each event is encoded as (x << 32) | (square index << 1) | (1 for closing, 0 for opening)
+        long[] events = new long[2 * nbrOfSquares];
+        for (int i = 0; i < nbrOfSquares; i++) {
+            int square = squares[i];
+            long openX = Math.max(minX[square], x0);
+            long closeX = Math.min(maxX[square], (long) x1) + 1;
+            events[2 * i] = (openX << 32) | ((long) i << 1);
+            events[2 * i + 1] = (closeX << 32) | ((long) i << 1) | 1;
+        }
+        Arrays.sort(events);
+
+        int nbrOfSegments = Math.max(1, nbrOfYs - 1);
+        int[] counts = new int[4 * nbrOfSegments];
+        long[] lengths = new long[4 * nbrOfSegments];
+
+        long area = 0;
+        long previousX = events[0] >>> 32;
+        for (long event : events) {
+            long x = event >>> 32;
+            area += lengths[1] * (x - previousX);
+            previousX = x;
+
+            int square = squares[(int) ((event & 0xFFFFFFFFL) >>> 1)];
+            int from = Arrays.binarySearch(ys, 0, nbrOfYs, Math.max(minY[square], y0));
+            int to = Arrays.binarySearch(ys, 0, nbrOfYs, Math.min(maxY[square], (long) y1) + 1);
+            int delta = (event & 1) == 0 ? 1 : -1;
+            update(counts, lengths, ys, 1, 0, nbrOfSegments, from, to, delta);
+        }
+        return area;
+    }
+
+    /**
+     * Add delta to the cover count of the elementary Y segments [from, to) and update the covered lengths.
+     */
+    private static void update(int[] counts, long[] lengths, long[] ys, int node, int lo, int hi, int from, int to, int delta) {
+        if (to <= lo || hi <= from) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            counts[node] += delta;
+        } else {
+            int mid = (lo + hi) >>> 1;
+            update(counts, lengths, ys, 2 * node, lo, mid, from, to, delta);
+            update(counts, lengths, ys, 2 * node + 1, mid, hi, from, to, delta);
+        }
+        if (counts[node] > 0) {
+            lengths[node] = ys[hi] - ys[lo];
+        } else if (hi - lo == 1) {
+            lengths[node] = 0;
+        } else {
+            lengths[node] = lengths[2 * node] + lengths[2 * node + 1];
+        }
+    }
+
+}
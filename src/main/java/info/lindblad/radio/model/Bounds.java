@@ -38,8 +38,13 @@ public class Bounds {
     @Override
     public boolean equals(Object o) {
         return (o instanceof Bounds) && (((Bounds) o).getSizeX() == getSizeX()
-                && ((Bounds) o).getSizeX() == getSizeY()
+                && ((Bounds) o).getSizeY() == getSizeY()
         );
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * getSizeX() + getSizeY();
+    }
+
 }
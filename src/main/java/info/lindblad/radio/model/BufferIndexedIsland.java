@@ -0,0 +1,84 @@
+package info.lindblad.radio.model;
+
+import java.nio.IntBuffer;
+
+/**
+ * An indexed view of an island whose fields are read from int buffers, e.g. slices of a memory-mapped
+ * island file, rather than copied into heap arrays. Only the pages of the buffers that are used are
+ * ever read from disk. See {@link IndexedIsland#wrap}.
+ */
+class BufferIndexedIsland extends IndexedIsland {
+
+    private final IntBuffer transmitterIds;
+    private final IntBuffer transmitterX;
+    private final IntBuffer transmitterY;
+    private final IntBuffer transmitterPower;
+
+    private final IntBuffer receiverIds;
+    private final IntBuffer receiverX;
+    private final IntBuffer receiverY;
+
+    BufferIndexedIsland(Bounds bounds, SpaceFillingCurve ordering,
+                        IntBuffer transmitterIds, IntBuffer transmitterX, IntBuffer transmitterY, IntBuffer transmitterPower,
+                        IntBuffer receiverIds, IntBuffer receiverX, IntBuffer receiverY) {
+        super(bounds, ordering);
+        if (transmitterX.limit() != transmitterIds.limit() || transmitterY.limit() != transmitterIds.limit()
+                || transmitterPower.limit() != transmitterIds.limit()
+                || receiverX.limit() != receiverIds.limit() || receiverY.limit() != receiverIds.limit()) {
+            throw new IllegalArgumentException("The tower buffers must have the same length");
+        }
+        this.transmitterIds = transmitterIds;
+        this.transmitterX = transmitterX;
+        this.transmitterY = transmitterY;
+        this.transmitterPower = transmitterPower;
+        this.receiverIds = receiverIds;
+        this.receiverX = receiverX;
+        this.receiverY = receiverY;
+    }
+
+    @Override
+    public int getNbrOfTransmitterTowers() {
+        return transmitterIds.limit();
+    }
+
+    @Override
+    public int getNbrOfReceiverTowers() {
+        return receiverIds.limit();
+    }
+
+    @Override
+    public int getTransmitterId(int ordinal) {
+        return transmitterIds.get(ordinal);
+    }
+
+    @Override
+    public int getTransmitterX(int ordinal) {
+        return transmitterX.get(ordinal);
+    }
+
+    @Override
+    public int getTransmitterY(int ordinal) {
+        return transmitterY.get(ordinal);
+    }
+
+    @Override
+    public int getTransmitterPower(int ordinal) {
+        return transmitterPower.get(ordinal);
+    }
+
+    @Override
+    public int getReceiverId(int ordinal) {
+        return receiverIds.get(ordinal);
+    }
+
+    @Override
+    public int getReceiverX(int ordinal) {
+        return receiverX.get(ordinal);
+    }
+
+    @Override
+    public int getReceiverY(int ordinal) {
+        return receiverY.get(ordinal);
+    }
+
+}
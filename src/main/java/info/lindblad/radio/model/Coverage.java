@@ -1,7 +1,18 @@
 package info.lindblad.radio.model;
 
-import java.util.HashMap;
+import info.lindblad.radio.coverage.CoverageRaster;
+import info.lindblad.radio.coverage.DistanceTransform;
+import info.lindblad.radio.util.PointMap;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 
@@ -12,16 +23,55 @@ public class Coverage {
      * point and the value is a set of transmitter towers
      * whose signal covers that point.
      */
-    private HashMap<Point, Set<TransmitterTower>> coverage;
+    private PointMap<Set<TransmitterTower>> coverage;
+
+    /**
+     * Alternatively the coverage is backed by a raster holding the number of
+     * covering transmitter towers for each point, in which case the covering
+     * transmitter towers are looked up on demand.
+     */
+    private CoverageRaster raster;
+    private SpatialIndex<TransmitterTower> transmitterTowerIndex;
+    private List<TransmitterTower> transmitterTowers;
+    private int maxPower;
+
+    private Bounds bounds;
+
+    /**
+     * Lazily computed distance transform used for nearest signal lookups. It is
+     * discarded whenever the coverage changes.
+     */
+    private DistanceTransform distanceTransform;
 
-    public Coverage(Bounds bounds, HashMap<Point, TransmitterTower> transmitterTowers) {
-        coverage = new HashMap<>();
-        calculateCoverage(bounds, transmitterTowers);
+    public Coverage(Bounds bounds, Map<Point, TransmitterTower> transmitterTowers) {
+        coverage = new PointMap<>();
+        this.bounds = bounds;
+        calculateCoverage(bounds, transmitterTowers.values());
     }
 
     public Coverage(Island island) {
-        coverage = new HashMap<>();
-        calculateCoverage(island.getBounds(), island.getTransmitterTowers());
+        coverage = new PointMap<>();
+        this.bounds = island.getBounds();
+        calculateCoverage(island.getBounds(), island.getTransmitterTowerList());
+    }
+
+    /**
+     * Create a coverage on top of a raster that already holds the coverage of the
+     * transmitter towers of the island, e.g. one computed in an earlier run.
+     *
+     * @param island The island
+     * @param raster The coverage raster
+     */
+    public Coverage(Island island, CoverageRaster raster) {
+        if (raster.getSizeX() != island.getBounds().getSizeX() || raster.getSizeY() != island.getBounds().getSizeY()) {
+            throw new IllegalArgumentException(String.format("Raster of size %d x %d does not match island of size %d x %d",
+                    raster.getSizeX(), raster.getSizeY(), island.getBounds().getSizeX(), island.getBounds().getSizeY()));
+        }
+        this.raster = raster;
+        this.transmitterTowerIndex = island.getTransmitterTowerIndex();
+        this.transmitterTowers = island.getTransmitterTowerList();
+        this.maxPower = transmitterTowers.stream().mapToInt(TransmitterTower::getPower).max().orElse(0);
+        this.bounds = island.getBounds();
     }
 
     /**
@@ -32,36 +82,74 @@ public class Coverage {
      * @param bounds The bounds of the grid
      * @param transmitterTowers The set of transmitter towers
      */
-    private void calculateCoverage(Bounds bounds, HashMap<Point, TransmitterTower> transmitterTowers) {
-        transmitterTowers.forEach((point, transmitterTower) -> transmitterTower.reaches().stream()
-                        .filter(bounds::contains)
-                        .forEach(pointReached -> coveredBy(pointReached, transmitterTower))
-        );
+    private void calculateCoverage(Bounds bounds, Collection<TransmitterTower> transmitterTowers) {
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            long x = transmitterTower.getPoint().getX();
+            long y = transmitterTower.getPoint().getY();
+            long power = transmitterTower.getPower();
+            int minX = (int) Math.max(0L, x - power);
+            int maxX = (int) Math.min(bounds.getSizeX() - 1L, x + power);
+            int minY = (int) Math.max(0L, y - power);
+            int maxY = (int) Math.min(bounds.getSizeY() - 1L, y + power);
+            for (int coveredY = minY; coveredY <= maxY; coveredY++) {
+                for (int coveredX = minX; coveredX <= maxX; coveredX++) {
+                    coveredBy(coveredX, coveredY, transmitterTower);
+                }
+            }
+        }
     }
 
     /**
      * Get the transmitter towers covering a specific point, if any.
      *
-     * Returns an empty set in case there is no signal at the specific point.
+     * Returns a shared, unmodifiable empty set in case there is no signal at the specific point, so misses do not allocate.
+     * Use BulkCoverageQuery to look up many points at once.
      *
      * @param point The point
      * @return Set of transmitter towers providing coverage for the point
      */
     public Set<TransmitterTower> getTransmitterTowersCovering(Point point) {
-        return coverage.containsKey(point) ? coverage.get(point) : new HashSet<>();
+        if (raster != null) {
+            if (!hasSignal(point)) {
+                return Collections.emptySet();
+            }
+            Set<TransmitterTower> covering = new HashSet<>();
+            for (TransmitterTower transmitterTower : transmitterTowerIndex.findWithinDistance(point, maxPower)) {
+                if (transmitterTower.getPoint().distance(point) <= transmitterTower.getPower()) {
+                    covering.add(transmitterTower);
+                }
+            }
+            return covering;
+        }
+        Set<TransmitterTower> covering = coverage.get(point);
+        return covering != null ? covering : Collections.emptySet();
     }
 
     /**
      * Mark a point as covered by a specific transmitter tower.
      *
+     * A coverage backed by a raster looks up the covering transmitter towers among those of the island
+     * it was created for, so it can not take coverage from other transmitter towers.
+     *
      * @param point The point
      * @param transmitterTower The transmitter tower covering the point
+     * @throws IllegalStateException If the coverage is backed by a raster
      */
     public void coveredBy(Point point, TransmitterTower transmitterTower) {
-        if (!coverage.containsKey(point)) {
-            coverage.put(point, new HashSet<>());
+        if (raster != null) {
+            throw new IllegalStateException("A coverage backed by a raster can not be changed");
+        }
+        coveredBy(point.getX(), point.getY(), transmitterTower);
+    }
+
+    private void coveredBy(int x, int y, TransmitterTower transmitterTower) {
+        distanceTransform = null;
+        Set<TransmitterTower> covering = coverage.get(x, y);
+        if (covering == null) {
+            covering = new HashSet<>();
+            coverage.put(x, y, covering);
         }
-        coverage.get(point).add(transmitterTower);
+        covering.add(transmitterTower);
     }
 
     /**
@@ -71,27 +159,190 @@ public class Coverage {
      * @return Whether the point has signal or not
      */
     public boolean hasSignal(Point point) {
-        return coverage.containsKey(point);
+        return hasSignal(point.getX(), point.getY());
+    }
+
+    /**
+     * Check whether a specific point has signal or not
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return Whether the point has signal or not
+     */
+    public boolean hasSignal(int x, int y) {
+        if (raster != null) {
+            return x >= 0 && x < raster.getSizeX() && y >= 0 && y < raster.getSizeY() && raster.hasSignal(x, y);
+        }
+        return coverage.containsKey(x, y);
     }
 
 
     /**
      * Find closest points with signal with respect to a specified point
      *
+     * Points on the island are looked up in the distance transform, which only visits the
+     * ring of cells at the closest distance. Points outside of the island, and islands too large
+     * for a distance transform, fall back to scanning all points with signal.
+     *
+     * A coverage backed by a raster, which may be memory-mapped and larger than the heap, is never
+     * turned into a distance transform. The closest points are instead found from the squares covered
+     * by the transmitter towers, see {@link #findClosestPointsOfSquares(Point)}.
+     *
      * @param point The point
      * @return A set of nearby points with signal
      */
     public Set<Point> findClosestPointsWithSignal(Point point) {
+        if (raster != null) {
+            return findClosestPointsOfSquares(point);
+        }
+        if (bounds.contains(point) && (long) bounds.getSizeX() * bounds.getSizeY() <= Integer.MAX_VALUE) {
+            return getDistanceTransform().getNearestPointsWithSignal(point);
+        }
         return Point.closestNeighbours(point, getAllPointsWithSignal());
     }
 
+    /**
+     * Find the closest points with signal by the distance from the point to the square covered by
+     * every transmitter tower, clipped to the island. The closest points of a square at distance d
+     * are where it overlaps the square of side 2d + 1 around the point, so this takes O(T) time and
+     * no memory beyond the result, relying on the raster to hold the coverage of the transmitter towers.
+     */
+    private Set<Point> findClosestPointsOfSquares(Point point) {
+        long closestDistance = Long.MAX_VALUE;
+        List<long[]> closestSquares = new ArrayList<>();
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            long x = transmitterTower.getPoint().getX();
+            long y = transmitterTower.getPoint().getY();
+            long power = transmitterTower.getPower();
+            long[] square = {Math.max(0L, x - power), Math.max(0L, y - power),
+                    Math.min(bounds.getSizeX() - 1L, x + power), Math.min(bounds.getSizeY() - 1L, y + power)};
+            if (square[0] > square[2] || square[1] > square[3]) {
+                continue;
+            }
+            long distance = Math.max(gap(point.getX(), square[0], square[2]), gap(point.getY(), square[1], square[3]));
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closestSquares.clear();
+            }
+            if (distance == closestDistance) {
+                closestSquares.add(square);
+            }
+        }
+        Set<Point> closest = new HashSet<>();
+        for (long[] square : closestSquares) {
+            long minX = Math.max(square[0], point.getX() - closestDistance);
+            long minY = Math.max(square[1], point.getY() - closestDistance);
+            long maxX = Math.min(square[2], point.getX() + closestDistance);
+            long maxY = Math.min(square[3], point.getY() + closestDistance);
+            for (long y = minY; y <= maxY; y++) {
+                for (long x = minX; x <= maxX; x++) {
+                    closest.add(new Point((int) x, (int) y));
+                }
+            }
+        }
+        return closest;
+    }
+
+    private static long gap(long value, long min, long max) {
+        return value < min ? min - value : Math.max(0L, value - max);
+    }
+
+    /**
+     * Get the Chebyshev distance transform for this coverage, computing it on first use.
+     *
+     * The transform holds two ints per point of the island on the heap, so it is not available
+     * for a coverage backed by a raster.
+     *
+     * @return The distance transform
+     * @throws IllegalStateException If the coverage is backed by a raster
+     */
+    public DistanceTransform getDistanceTransform() {
+        if (raster != null) {
+            throw new IllegalStateException("A coverage backed by a raster has no distance transform");
+        }
+        if (distanceTransform == null) {
+            distanceTransform = new DistanceTransform(bounds, this);
+        }
+        return distanceTransform;
+    }
+
     /**
      * Get all points that have signal.
      *
+     * The set is a read-only view of the coverage rather than a copy. For a coverage backed by a raster,
+     * it does not take memory in proportion to the covered area, but its size and iterator scan the raster.
+     *
      * @return A set of points
      */
     public Set<Point> getAllPointsWithSignal() {
+        if (raster != null) {
+            return new RasterPoints();
+        }
         return coverage.keySet();
     }
 
+    /**
+     * The points with signal in the raster, visited row by row
+     */
+    private class RasterPoints extends AbstractSet<Point> {
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Point && hasSignal((Point) o);
+        }
+
+        @Override
+        public int size() {
+            long size = 0;
+            for (int y = 0; y < raster.getSizeY(); y++) {
+                for (int x = 0; x < raster.getSizeX(); x++) {
+                    if (raster.hasSignal(x, y)) {
+                        size++;
+                    }
+                }
+            }
+            return (int) Math.min(size, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Iterator<Point> iterator() {
+            return new Iterator<Point>() {
+                private int x = -1;
+                private int y = 0;
+                private boolean advanced = false;
+
+                private void advance() {
+                    if (advanced) {
+                        return;
+                    }
+                    advanced = true;
+                    while (y < raster.getSizeY()) {
+                        x++;
+                        if (x >= raster.getSizeX()) {
+                            x = -1;
+                            y++;
+                        } else if (raster.hasSignal(x, y)) {
+                            return;
+                        }
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    advance();
+                    return y < raster.getSizeY();
+                }
+
+                @Override
+                public Point next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    advanced = false;
+                    return new Point(x, y);
+                }
+            };
+        }
+    }
+
 }
@@ -0,0 +1,393 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.coverage.SquareUnionCoverage;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An immutable, indexed view of an island.
+ *
+ * Every transmitter and receiver tower is given a dense ordinal, 0 to n - 1, and its coordinates,
+ * power and id are stored in parallel int arrays at that ordinal. Loops over the towers then read
+ * consecutive memory rather than following a reference per tower, and per-tower state can be kept
+ * in plain arrays indexed by ordinal instead of maps keyed by tower.
+ *
+ * A view built from towers keeps the fields in heap arrays. A view can also wrap int buffers, e.g.
+ * slices of a memory-mapped island file, without copying them, see {@link #wrap}; it then reads every
+ * field through the buffers behind the same accessors.
+ *
+ * The ordinal of a tower is its position in the list the view was built from, and everything in
+ * the view is indexed by ordinal. Tower ids are only needed to look up ordinals by id, which is done
+ * with a sorted copy of the ids built on first use. Ids do not have to be unique; if several towers
+ * share an id, the lookup answers the one with the lowest ordinal.
+ */
+public class IndexedIsland {
+
+    private final Bounds bounds;
+    private final SpaceFillingCurve ordering;
+
+    private final int[] transmitterIds;
+    private final int[] transmitterX;
+    private final int[] transmitterY;
+    private final int[] transmitterPower;
+
+    private final int[] receiverIds;
+    private final int[] receiverX;
+    private final int[] receiverY;
+
+    /**
+     * Ids and ordinals packed as (id << 32 | ordinal) and sorted, for looking up ordinals by id.
+     * Built on first use.
+     */
+    private volatile long[] transmitterOrdinals;
+    private volatile long[] receiverOrdinals;
+
+    /**
+     * The ordinals of the receiver towers without signal coverage, in increasing order. Built on first use.
+     */
+    private volatile int[] receiverOrdinalsWithoutCoverage;
+
+    /**
+     * Create an indexed view of an island, with the towers in the order of
+     * {@link Island#getTransmitterTowerList()} and {@link Island#getReceiverTowerList()}.
+     *
+     * @param island The island
+     */
+    public IndexedIsland(Island island) {
+        this(island.getBounds(), island.getTransmitterTowerList(), island.getReceiverTowerList());
+    }
+
+    /**
+     * Create an indexed view of an island, with the ordinals of the towers following a space-filling curve
+     * so that towers with neighbouring ordinals are also close on the island.
+     *
+     * @param island The island
+     * @param ordering The curve to order the towers along
+     */
+    public IndexedIsland(Island island, SpaceFillingCurve ordering) {
+        this(island.getBounds(), ordering, ordering.sort(island.getTransmitterTowerList()), ordering.sort(island.getReceiverTowerList()));
+    }
+
+    /**
+     * Create an indexed view of a set of towers, where the ordinal of each tower is its position in the list.
+     *
+     * @param bounds The bounds of the island
+     * @param transmitterTowers The transmitter towers
+     * @param receiverTowers The receiver towers
+     */
+    public IndexedIsland(Bounds bounds, List<TransmitterTower> transmitterTowers, List<ReceiverTower> receiverTowers) {
+        this(bounds, SpaceFillingCurve.NONE, transmitterTowers, receiverTowers);
+    }
+
+    IndexedIsland(Bounds bounds, SpaceFillingCurve ordering, List<TransmitterTower> transmitterTowers, List<ReceiverTower> receiverTowers) {
+        this.bounds = bounds;
+        this.ordering = ordering;
+
+        int nbrOfTransmitterTowers = transmitterTowers.size();
+        transmitterIds = new int[nbrOfTransmitterTowers];
+        transmitterX = new int[nbrOfTransmitterTowers];
+        transmitterY = new int[nbrOfTransmitterTowers];
+        transmitterPower = new int[nbrOfTransmitterTowers];
+        for (int ordinal = 0; ordinal < nbrOfTransmitterTowers; ordinal++) {
+            TransmitterTower transmitterTower = transmitterTowers.get(ordinal);
+            transmitterIds[ordinal] = transmitterTower.getId();
+            transmitterX[ordinal] = transmitterTower.getPoint().getX();
+            transmitterY[ordinal] = transmitterTower.getPoint().getY();
+            transmitterPower[ordinal] = transmitterTower.getPower();
+        }
+
+        int nbrOfReceiverTowers = receiverTowers.size();
+        receiverIds = new int[nbrOfReceiverTowers];
+        receiverX = new int[nbrOfReceiverTowers];
+        receiverY = new int[nbrOfReceiverTowers];
+        for (int ordinal = 0; ordinal < nbrOfReceiverTowers; ordinal++) {
+            ReceiverTower receiverTower = receiverTowers.get(ordinal);
+            receiverIds[ordinal] = receiverTower.getId();
+            receiverX[ordinal] = receiverTower.getPoint().getX();
+            receiverY[ordinal] = receiverTower.getPoint().getY();
+        }
+    }
+
+    /**
+     * Create an empty view, for subclasses that keep the towers elsewhere and override the accessors
+     */
+    IndexedIsland(Bounds bounds, SpaceFillingCurve ordering) {
+        this.bounds = bounds;
+        this.ordering = ordering;
+        this.transmitterIds = new int[0];
+        this.transmitterX = new int[0];
+        this.transmitterY = new int[0];
+        this.transmitterPower = new int[0];
+        this.receiverIds = new int[0];
+        this.receiverX = new int[0];
+        this.receiverY = new int[0];
+    }
+
+    /**
+     * Create an indexed view over existing buffers, e.g. slices of a memory-mapped file, without copying them.
+     *
+     * The buffers are read from index 0 and must not be changed while the view is in use.
+     *
+     * @param bounds The bounds of the island
+     * @param ordering The order the towers are in
+     * @param transmitterIds The ids of the transmitter towers
+     * @param transmitterX The X coordinates of the transmitter towers
+     * @param transmitterY The Y coordinates of the transmitter towers
+     * @param transmitterPower The power of the transmitter towers
+     * @param receiverIds The ids of the receiver towers
+     * @param receiverX The X coordinates of the receiver towers
+     * @param receiverY The Y coordinates of the receiver towers
+     * @return A view backed by the buffers
+     */
+    public static IndexedIsland wrap(Bounds bounds, SpaceFillingCurve ordering,
+                                     IntBuffer transmitterIds, IntBuffer transmitterX, IntBuffer transmitterY, IntBuffer transmitterPower,
+                                     IntBuffer receiverIds, IntBuffer receiverX, IntBuffer receiverY) {
+        return new BufferIndexedIsland(bounds, ordering, transmitterIds, transmitterX, transmitterY, transmitterPower,
+                receiverIds, receiverX, receiverY);
+    }
+
+    private static long[] sortedOrdinals(int nbrOfTowers, IntUnaryOperator ids) {
+        long[] ordinals = new long[nbrOfTowers];
+        for (int ordinal = 0; ordinal < ordinals.length; ordinal++) {
+            ordinals[ordinal] = ((long) ids.applyAsInt(ordinal) << 32) | ordinal;
+        }
+        Arrays.sort(ordinals);
+        return ordinals;
+    }
+
+    /**
+     * Find the lowest ordinal with an id, as the first packed value not below (id << 32)
+     */
+    private static int ordinalOf(long[] ordinals, int id) {
+        long key = (long) id << 32;
+        int low = 0;
+        int high = ordinals.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ordinals[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low < ordinals.length && (int) (ordinals[low] >> 32) == id ? (int) ordinals[low] : -1;
+    }
+
+    /**
+     * Get the bounds of the island
+     *
+     * @return The bounds of the island
+     */
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Get the space-filling curve the towers are ordered along
+     *
+     * @return The ordering of the towers
+     */
+    public SpaceFillingCurve getOrdering() {
+        return ordering;
+    }
+
+    /**
+     * Get the number of transmitter towers
+     *
+     * @return The number of transmitter towers
+     */
+    public int getNbrOfTransmitterTowers() {
+        return transmitterIds.length;
+    }
+
+    /**
+     * Get the number of receiver towers
+     *
+     * @return The number of receiver towers
+     */
+    public int getNbrOfReceiverTowers() {
+        return receiverIds.length;
+    }
+
+    /**
+     * Get the ordinal of a transmitter tower
+     *
+     * @param id The id of the transmitter tower
+     * @return The lowest ordinal of a transmitter tower with that id, or -1 if there is none
+     */
+    public int getTransmitterOrdinal(int id) {
+        long[] ordinals = transmitterOrdinals;
+        if (ordinals == null) {
+            ordinals = sortedOrdinals(getNbrOfTransmitterTowers(), this::getTransmitterId);
+            transmitterOrdinals = ordinals;
+        }
+        return ordinalOf(ordinals, id);
+    }
+
+    /**
+     * Get the ordinal of a receiver tower
+     *
+     * @param id The id of the receiver tower
+     * @return The lowest ordinal of a receiver tower with that id, or -1 if there is none
+     */
+    public int getReceiverOrdinal(int id) {
+        long[] ordinals = receiverOrdinals;
+        if (ordinals == null) {
+            ordinals = sortedOrdinals(getNbrOfReceiverTowers(), this::getReceiverId);
+            receiverOrdinals = ordinals;
+        }
+        return ordinalOf(ordinals, id);
+    }
+
+    public int getTransmitterId(int ordinal) {
+        return transmitterIds[ordinal];
+    }
+
+    public int getTransmitterX(int ordinal) {
+        return transmitterX[ordinal];
+    }
+
+    public int getTransmitterY(int ordinal) {
+        return transmitterY[ordinal];
+    }
+
+    public int getTransmitterPower(int ordinal) {
+        return transmitterPower[ordinal];
+    }
+
+    public int getReceiverId(int ordinal) {
+        return receiverIds[ordinal];
+    }
+
+    public int getReceiverX(int ordinal) {
+        return receiverX[ordinal];
+    }
+
+    public int getReceiverY(int ordinal) {
+        return receiverY[ordinal];
+    }
+
+    /**
+     * Get the distance between a transmitter tower and a receiver tower
+     *
+     * @param transmitter The ordinal of the transmitter tower
+     * @param receiver The ordinal of the receiver tower
+     * @return The distance, see {@link Point#distance(Point)}
+     */
+    public int distance(int transmitter, int receiver) {
+        return Math.max(Math.abs(getTransmitterX(transmitter) - getReceiverX(receiver)),
+                Math.abs(getTransmitterY(transmitter) - getReceiverY(receiver)));
+    }
+
+    /**
+     * Get the increase in power a transmitter tower needs to give signal coverage to a receiver tower.
+     *
+     * The value is zero or negative if the receiver tower is already within range.
+     *
+     * @param transmitter The ordinal of the transmitter tower
+     * @param receiver The ordinal of the receiver tower
+     * @return The required power increase
+     */
+    public int getRequiredPowerIncrease(int transmitter, int receiver) {
+        return distance(transmitter, receiver) - getTransmitterPower(transmitter);
+    }
+
+    /**
+     * Check whether a receiver tower has signal coverage from any transmitter tower
+     *
+     * Every call checks all transmitter towers, so use {@link #getReceiverOrdinalsWithoutCoverage()}
+     * rather than calling this for many receiver towers.
+     *
+     * @param receiver The ordinal of the receiver tower
+     * @return Whether the receiver tower has signal coverage
+     */
+    public boolean hasSignal(int receiver) {
+        int x = getReceiverX(receiver);
+        int y = getReceiverY(receiver);
+        for (int transmitter = 0; transmitter < getNbrOfTransmitterTowers(); transmitter++) {
+            int power = getTransmitterPower(transmitter);
+            if (Math.abs(getTransmitterX(transmitter) - x) <= power && Math.abs(getTransmitterY(transmitter) - y) <= power) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the ordinals of all receiver towers without signal coverage, in increasing order
+     *
+     * They are found once, on first use, and the result is a copy. A view wrapping buffers that change
+     * afterwards keeps answering the receiver towers that were without coverage at that point.
+     *
+     * @return The ordinals of the receiver towers without signal coverage
+     */
+    public int[] getReceiverOrdinalsWithoutCoverage() {
+        int[] ordinals = receiverOrdinalsWithoutCoverage;
+        if (ordinals == null) {
+            ordinals = findReceiverOrdinalsWithoutCoverage();
+            receiverOrdinalsWithoutCoverage = ordinals;
+        }
+        return ordinals.clone();
+    }
+
+    /**
+     * Look up every receiver tower in the union of the coverage squares of the transmitter towers,
+     * which only visits the squares near each receiver tower rather than all transmitter towers.
+     */
+    private int[] findReceiverOrdinalsWithoutCoverage() {
+        List<TransmitterTower> transmitterTowers = new ArrayList<>(getNbrOfTransmitterTowers());
+        for (int transmitter = 0; transmitter < getNbrOfTransmitterTowers(); transmitter++) {
+            transmitterTowers.add(toTransmitterTower(transmitter));
+        }
+        SquareUnionCoverage coverage = new SquareUnionCoverage(bounds, transmitterTowers);
+        int[] ordinals = new int[getNbrOfReceiverTowers()];
+        int nbrOfOrdinals = 0;
+        for (int receiver = 0; receiver < getNbrOfReceiverTowers(); receiver++) {
+            if (!coverage.hasSignal(getReceiverX(receiver), getReceiverY(receiver))) {
+                ordinals[nbrOfOrdinals++] = receiver;
+            }
+        }
+        return Arrays.copyOf(ordinals, nbrOfOrdinals);
+    }
+
+    /**
+     * Create a transmitter tower object for an ordinal
+     *
+     * @param ordinal The ordinal of the transmitter tower
+     * @return A new transmitter tower with the same id, location and power
+     */
+    public TransmitterTower toTransmitterTower(int ordinal) {
+        return new TransmitterTower(getTransmitterId(ordinal), new Point(getTransmitterX(ordinal), getTransmitterY(ordinal)), getTransmitterPower(ordinal));
+    }
+
+    /**
+     * Create a receiver tower object for an ordinal
+     *
+     * @param ordinal The ordinal of the receiver tower
+     * @return A new receiver tower with the same id and location
+     */
+    public ReceiverTower toReceiverTower(int ordinal) {
+        return new ReceiverTower(getReceiverId(ordinal), new Point(getReceiverX(ordinal), getReceiverY(ordinal)));
+    }
+
+    /**
+     * Create a new island with the same towers
+     *
+     * @return A new island
+     */
+    public Island toIsland() {
+        Island island = new Island(bounds.getSizeX(), bounds.getSizeY());
+        for (int ordinal = 0; ordinal < getNbrOfTransmitterTowers(); ordinal++) {
+            island.addTransmitterTower(toTransmitterTower(ordinal));
+        }
+        for (int ordinal = 0; ordinal < getNbrOfReceiverTowers(); ordinal++) {
+            island.addReceiverTower(toReceiverTower(ordinal));
+        }
+        return island;
+    }
+
+}
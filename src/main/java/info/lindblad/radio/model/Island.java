@@ -1,6 +1,9 @@
 package info.lindblad.radio.model;
 
-import java.util.HashMap;
+import info.lindblad.radio.util.PointMap;
+
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class Island {
@@ -14,15 +17,29 @@ public class Island {
     /**
      * Instead of storing a 2D grid with (potentially) a lot of wasted space,
      * the transmitters and receivers are sparsely stored using two different
-     * maps where the key is a given Point.
+     * maps keyed by the coordinates of each tower.
+     */
+    private PointMap<TransmitterTower> transmitterTowers;
+    private PointMap<ReceiverTower> receiverTowers;
+
+    /**
+     * Spatial indices over the same towers, for finding the towers near a point.
      */
-    private HashMap<Point, TransmitterTower> transmitterTowers;
-    private HashMap<Point, ReceiverTower> receiverTowers;
+    private SpatialIndex<TransmitterTower> transmitterTowerIndex;
+    private SpatialIndex<ReceiverTower> receiverTowerIndex;
+
+    /**
+     * Increased by every change to the towers, so that results derived from the island can tell
+     * whether they are still current.
+     */
+    private long version = 0;
 
     public Island(int sizeX, int sizeY) {
         bounds = new Bounds(sizeX, sizeY);
-        transmitterTowers = new HashMap<>();
-        receiverTowers = new HashMap<>();
+        transmitterTowers = new PointMap<>();
+        receiverTowers = new PointMap<>();
+        transmitterTowerIndex = new SpatialIndex<>();
+        receiverTowerIndex = new SpatialIndex<>();
     }
 
     /**
@@ -37,19 +54,65 @@ public class Island {
     /**
      * Get a map of all transmitter towers on the island
      *
+     * The map is a read-only view backed by the island, so it reflects later changes to the island.
+     * Add and remove towers through the island instead; the towers themselves may still be changed.
+     *
      * @return Map of transmitter towers
      */
-    public HashMap<Point, TransmitterTower> getTransmitterTowers() {
-        return transmitterTowers;
+    public Map<Point, TransmitterTower> getTransmitterTowers() {
+        return transmitterTowers.asMap();
     }
 
     /**
      * Get a map of all receiver towers on the island
      *
+     * The map is a read-only view backed by the island, so it reflects later changes to the island.
+     * Add and remove towers through the island instead; the towers themselves may still be changed.
+     *
      * @return Map of receiver towers
      */
-    public HashMap<Point, ReceiverTower> getReceiverTowers() {
-        return receiverTowers;
+    public Map<Point, ReceiverTower> getReceiverTowers() {
+        return receiverTowers.asMap();
+    }
+
+    /**
+     * Get a list of all transmitter towers on the island
+     *
+     * @return List of transmitter towers
+     */
+    public List<TransmitterTower> getTransmitterTowerList() {
+        return transmitterTowers.values();
+    }
+
+    /**
+     * Get a list of all receiver towers on the island
+     *
+     * @return List of receiver towers
+     */
+    public List<ReceiverTower> getReceiverTowerList() {
+        return receiverTowers.values();
+    }
+
+    /**
+     * Get the transmitter tower at a specific location, if any
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The transmitter tower, or null if there is none
+     */
+    public TransmitterTower getTransmitterTower(int x, int y) {
+        return transmitterTowers.get(x, y);
+    }
+
+    /**
+     * Get the receiver tower at a specific location, if any
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The receiver tower, or null if there is none
+     */
+    public ReceiverTower getReceiverTower(int x, int y) {
+        return receiverTowers.get(x, y);
     }
 
     /**
@@ -58,7 +121,12 @@ public class Island {
      * @param transmitterTower The transmitter tower
      */
     public void addTransmitterTower(TransmitterTower transmitterTower) {
-        transmitterTowers.put(transmitterTower.getPoint(), transmitterTower);
+        TransmitterTower replaced = transmitterTowers.put(transmitterTower.getPoint(), transmitterTower);
+        if (replaced != null) {
+            transmitterTowerIndex.remove(replaced);
+        }
+        transmitterTowerIndex.add(transmitterTower);
+        version++;
     }
 
     /**
@@ -67,7 +135,58 @@ public class Island {
      * @param receiverTower The receiver tower
      */
     public void addReceiverTower(ReceiverTower receiverTower) {
-        receiverTowers.put(receiverTower.getPoint(), receiverTower);
+        ReceiverTower replaced = receiverTowers.put(receiverTower.getPoint(), receiverTower);
+        if (replaced != null) {
+            receiverTowerIndex.remove(replaced);
+        }
+        receiverTowerIndex.add(receiverTower);
+        version++;
+    }
+
+    /**
+     * Remove the transmitter tower at a specific location, if any
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The removed transmitter tower, or null if there was none
+     */
+    public TransmitterTower removeTransmitterTower(int x, int y) {
+        TransmitterTower removed = transmitterTowers.remove(x, y);
+        if (removed != null) {
+            transmitterTowerIndex.remove(removed);
+            version++;
+        }
+        return removed;
+    }
+
+    /**
+     * Get the version of the island, which is increased every time a tower is added, replaced or removed.
+     *
+     * Changing the power of a transmitter tower with {@link TransmitterTower#setPower(int)} does not
+     * change the version, so replace the tower instead when derived results have to notice.
+     *
+     * @return The version of the island
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Get the spatial index over the transmitter towers on the island
+     *
+     * @return The spatial index over the transmitter towers
+     */
+    public SpatialIndex<TransmitterTower> getTransmitterTowerIndex() {
+        return transmitterTowerIndex;
+    }
+
+    /**
+     * Get the spatial index over the receiver towers on the island
+     *
+     * @return The spatial index over the receiver towers
+     */
+    public SpatialIndex<ReceiverTower> getReceiverTowerIndex() {
+        return receiverTowerIndex;
     }
 
     /**
@@ -76,7 +195,7 @@ public class Island {
      * @return The number of transmitter towers on the island
      */
     public int getNbrOfTransmitterTowers() {
-        return receiverTowers.size();
+        return transmitterTowers.size();
     }
 
     /**
@@ -90,21 +209,17 @@ public class Island {
 
     public String serialise() {
         StringBuilder sb = new StringBuilder();
-        sb.append(String.format("%d %d\n", bounds.getSizeX(), bounds.getSizeY()));
-        for (TransmitterTower transmitterTower : getTransmitterTowers().values()) {
-            sb.append(String.format(
-                    "%d %d %d %d\n",
-                    transmitterTower.getId(),
-                    transmitterTower.getPoint().getX(),
-                    transmitterTower.getPoint().getY(),
-                    transmitterTower.getPower()));
+        sb.append(bounds.getSizeX()).append(' ').append(bounds.getSizeY()).append('\n');
+        for (TransmitterTower transmitterTower : getTransmitterTowerList()) {
+            sb.append(transmitterTower.getId()).append(' ')
+                    .append(transmitterTower.getPoint().getX()).append(' ')
+                    .append(transmitterTower.getPoint().getY()).append(' ')
+                    .append(transmitterTower.getPower()).append('\n');
         }
-        for (ReceiverTower receiverTower : getReceiverTowers().values()) {
-            sb.append(String.format(
-                    "%d %d %d\n",
-                    receiverTower.getId(),
-                    receiverTower.getPoint().getX(),
-                    receiverTower.getPoint().getY()));
+        for (ReceiverTower receiverTower : getReceiverTowerList()) {
+            sb.append(receiverTower.getId()).append(' ')
+                    .append(receiverTower.getPoint().getX()).append(' ')
+                    .append(receiverTower.getPoint().getY()).append('\n');
         }
         return sb.toString();
     }
@@ -118,12 +233,24 @@ public class Island {
     @Override
     public boolean equals(Object o) {
         return (o instanceof Island)
-                && (((Island) o).getReceiverTowers().equals(getReceiverTowers())
-                && ((Island) o).getTransmitterTowers().equals(getTransmitterTowers())
+                && (sameTowers(((Island) o).receiverTowers, receiverTowers)
+                && sameTowers(((Island) o).transmitterTowers, transmitterTowers)
                 && ((Island) o).getBounds().equals(getBounds())
         );
     }
 
+    /**
+     * Check whether two maps hold equal towers at the same points, without copying them
+     */
+    private static <T extends Tower> boolean sameTowers(PointMap<T> towers, PointMap<T> otherTowers) {
+        if (towers.size() != otherTowers.size()) {
+            return false;
+        }
+        boolean[] same = {true};
+        towers.forEach((x, y, tower) -> same[0] &= tower.equals(otherTowers.get(x, y)));
+        return same[0];
+    }
+
     /**
      * Return a string representation of the island as an ASCII grid with signal coverage marked
      *
@@ -133,14 +260,15 @@ public class Island {
     public String toString(Coverage coverage) {
         Optional<Coverage> optionalCoverage = Optional.ofNullable(coverage);
         StringBuilder sb = new StringBuilder();
-        for (int y = this.bounds.getSizeX() - 1; y >= 0; y--) {
+        for (int y = this.bounds.getSizeY() - 1; y >= 0; y--) {
             for (int x = 0; x < this.bounds.getSizeX(); x++) {
-                Point point = new Point(x, y);
-                if (receiverTowers.containsKey(point)) {
-                    sb.append(String.format("  R%d", receiverTowers.get(point).getId()));
-                } else if (transmitterTowers.containsKey(point)) {
-                    sb.append(String.format("  T%d", transmitterTowers.get(point).getId()));
-                } else if (optionalCoverage.isPresent() && optionalCoverage.get().hasSignal(point)) {
+                ReceiverTower receiverTower = receiverTowers.get(x, y);
+                TransmitterTower transmitterTower = transmitterTowers.get(x, y);
+                if (receiverTower != null) {
+                    sb.append(String.format("  R%d", receiverTower.getId()));
+                } else if (transmitterTower != null) {
+                    sb.append(String.format("  T%d", transmitterTower.getId()));
+                } else if (optionalCoverage.isPresent() && optionalCoverage.get().hasSignal(x, y)) {
                     sb.append("  * ");
                 } else {
                     sb.append("  x ");
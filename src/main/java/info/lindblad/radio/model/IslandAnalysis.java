@@ -0,0 +1,156 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.coverage.SquareUnionCoverage;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results derived from an island that are shared between the application, the solvers and the
+ * visualisation, so each is computed at most once rather than by every reader.
+ *
+ * The full coverage, the receiver towers without coverage and the indexed islands holding the distance
+ * table for each ordering are computed when first asked for, and kept until the version of the island
+ * changes, i.e. until a tower is added or replaced. Changing the power of a transmitter tower with
+ * {@link TransmitterTower#setPower(int)} is not noticed, so a new analysis has to be created after that.
+ */
+public class IslandAnalysis {
+
+    /**
+     * The towers of the island sorted along an ordering, and the indexed island built from them.
+     */
+    private static class Ordered {
+
+        private final List<TransmitterTower> transmitterTowers;
+        private final List<ReceiverTower> receiverTowers;
+        private final IndexedIsland indexedIsland;
+
+        Ordered(Island island, SpaceFillingCurve ordering) {
+            this.transmitterTowers = Collections.unmodifiableList(ordering.sort(island.getTransmitterTowerList()));
+            this.receiverTowers = Collections.unmodifiableList(ordering.sort(island.getReceiverTowerList()));
+            this.indexedIsland = new IndexedIsland(island.getBounds(), ordering, transmitterTowers, receiverTowers);
+        }
+    }
+
+    private final Island island;
+
+    private long version;
+    private Coverage coverage;
+    private Set<ReceiverTower> receiverTowersWithoutCoverage;
+    private final Map<SpaceFillingCurve, Ordered> ordered = new EnumMap<>(SpaceFillingCurve.class);
+
+    public IslandAnalysis(Island island) {
+        this.island = island;
+        this.version = island.getVersion();
+    }
+
+    public Island getIsland() {
+        return island;
+    }
+
+    /**
+     * Drop everything computed for an earlier version of the island
+     */
+    private void refresh() {
+        if (version != island.getVersion()) {
+            version = island.getVersion();
+            coverage = null;
+            receiverTowersWithoutCoverage = null;
+            ordered.clear();
+        }
+    }
+
+    /**
+     * Get the signal coverage of every point on the island
+     *
+     * @return The coverage
+     */
+    public synchronized Coverage getCoverage() {
+        refresh();
+        if (coverage == null) {
+            coverage = new Coverage(island);
+        }
+        return coverage;
+    }
+
+    /**
+     * Get the receiver towers without signal coverage.
+     *
+     * The full coverage is used if it has already been computed, and the sparse coverage otherwise,
+     * since only the receiver tower locations are of interest.
+     *
+     * @return An unmodifiable set of the receiver towers without signal coverage
+     */
+    public synchronized Set<ReceiverTower> getReceiverTowersWithoutCoverage() {
+        refresh();
+        if (receiverTowersWithoutCoverage == null) {
+            Set<ReceiverTower> withoutCoverage = new HashSet<>();
+            if (coverage != null) {
+                for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+                    if (!coverage.hasSignal(receiverTower.getPoint())) {
+                        withoutCoverage.add(receiverTower);
+                    }
+                }
+            } else {
+                SquareUnionCoverage squareUnionCoverage = new SquareUnionCoverage(island);
+                for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+                    if (!squareUnionCoverage.hasSignal(receiverTower.getPoint())) {
+                        withoutCoverage.add(receiverTower);
+                    }
+                }
+            }
+            receiverTowersWithoutCoverage = Collections.unmodifiableSet(withoutCoverage);
+        }
+        return receiverTowersWithoutCoverage;
+    }
+
+    /**
+     * Get the number of receiver towers without signal coverage
+     *
+     * @return The number of receiver towers without signal coverage
+     */
+    public int getNbrOfReceiverTowersWithoutCoverage() {
+        return getReceiverTowersWithoutCoverage().size();
+    }
+
+    private synchronized Ordered getOrdered(SpaceFillingCurve ordering) {
+        refresh();
+        return ordered.computeIfAbsent(ordering, key -> new Ordered(island, key));
+    }
+
+    /**
+     * Get the transmitter towers sorted along an ordering
+     *
+     * @param ordering The ordering
+     * @return An unmodifiable list of the transmitter towers, in the order of their ordinals in {@link #getIndexedIsland(SpaceFillingCurve)}
+     */
+    public List<TransmitterTower> getTransmitterTowers(SpaceFillingCurve ordering) {
+        return getOrdered(ordering).transmitterTowers;
+    }
+
+    /**
+     * Get the receiver towers sorted along an ordering
+     *
+     * @param ordering The ordering
+     * @return An unmodifiable list of the receiver towers, in the order of their ordinals in {@link #getIndexedIsland(SpaceFillingCurve)}
+     */
+    public List<ReceiverTower> getReceiverTowers(SpaceFillingCurve ordering) {
+        return getOrdered(ordering).receiverTowers;
+    }
+
+    /**
+     * Get the indexed island, which answers the distances between transmitter and receiver towers,
+     * with the towers sorted along an ordering
+     *
+     * @param ordering The ordering
+     * @return The indexed island
+     */
+    public IndexedIsland getIndexedIsland(SpaceFillingCurve ordering) {
+        return getOrdered(ordering).indexedIsland;
+    }
+
+}
@@ -0,0 +1,253 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.util.PersistentPointMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable version of an island.
+ *
+ * Unlike {@link Island}, a snapshot never changes once created. Each edit returns a new snapshot that
+ * shares all unchanged towers with the previous one, so a writer can publish new versions while any
+ * number of solvers and coverage queries keep reading older versions without locks. Towers are stored
+ * as plain ids and power levels rather than tower objects, since those can be changed with
+ * {@link TransmitterTower#setPower(int)}; the tower objects handed out are fresh copies.
+ */
+public final class IslandSnapshot {
+
+    private static final class Transmitter {
+        final int id;
+        final int power;
+
+        Transmitter(int id, int power) {
+            this.id = id;
+            this.power = power;
+        }
+    }
+
+    private final Bounds bounds;
+    private final long version;
+    private final PersistentPointMap<Transmitter> transmitterTowers;
+    private final PersistentPointMap<Integer> receiverTowers;
+
+    private IslandSnapshot(Bounds bounds, long version, PersistentPointMap<Transmitter> transmitterTowers, PersistentPointMap<Integer> receiverTowers) {
+        this.bounds = bounds;
+        this.version = version;
+        this.transmitterTowers = transmitterTowers;
+        this.receiverTowers = receiverTowers;
+    }
+
+    /**
+     * Create an empty snapshot
+     *
+     * @param sizeX The size of the island along the X axis
+     * @param sizeY The size of the island along the Y axis
+     * @return An empty snapshot
+     */
+    public static IslandSnapshot empty(int sizeX, int sizeY) {
+        return new IslandSnapshot(new Bounds(sizeX, sizeY), 0, PersistentPointMap.empty(), PersistentPointMap.empty());
+    }
+
+    /**
+     * Create a snapshot of the current state of an island
+     *
+     * @param island The island
+     * @return A snapshot of the island
+     */
+    public static IslandSnapshot of(Island island) {
+        PersistentPointMap<Transmitter> transmitterTowers = PersistentPointMap.empty();
+        for (TransmitterTower transmitterTower : island.getTransmitterTowerList()) {
+            transmitterTowers = transmitterTowers.put(transmitterTower.getPoint(), new Transmitter(transmitterTower.getId(), transmitterTower.getPower()));
+        }
+        PersistentPointMap<Integer> receiverTowers = PersistentPointMap.empty();
+        for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+            receiverTowers = receiverTowers.put(receiverTower.getPoint(), receiverTower.getId());
+        }
+        return new IslandSnapshot(island.getBounds(), 0, transmitterTowers, receiverTowers);
+    }
+
+    private IslandSnapshot withTransmitterTowers(PersistentPointMap<Transmitter> transmitterTowers) {
+        return new IslandSnapshot(bounds, version + 1, transmitterTowers, receiverTowers);
+    }
+
+    private IslandSnapshot withReceiverTowers(PersistentPointMap<Integer> receiverTowers) {
+        return new IslandSnapshot(bounds, version + 1, transmitterTowers, receiverTowers);
+    }
+
+    private void checkLocation(int x, int y) {
+        if (x < 0 || x >= bounds.getSizeX() || y < 0 || y >= bounds.getSizeY()) {
+            throw new IllegalArgumentException(String.format("(%d, %d) is outside the island of size %d x %d", x, y, bounds.getSizeX(), bounds.getSizeY()));
+        }
+    }
+
+    private static void checkPower(int power) {
+        if (power < 0) {
+            throw new IllegalArgumentException(String.format("Power must be a positive integer, got %d", power));
+        }
+    }
+
+    /**
+     * Get a snapshot with a transmitter tower added, replacing any transmitter tower at the same location
+     *
+     * @param id The id of the transmitter tower
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param power The power of the transmitter tower
+     * @return The new snapshot
+     * @throws IllegalArgumentException If the location is outside the island or the power is negative
+     */
+    public IslandSnapshot withTransmitterTower(int id, int x, int y, int power) {
+        checkLocation(x, y);
+        checkPower(power);
+        return withTransmitterTowers(transmitterTowers.put(x, y, new Transmitter(id, power)));
+    }
+
+    /**
+     * Get a snapshot where the transmitter tower at a location has a new power level
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param power The new power level
+     * @return The new snapshot
+     * @throws IllegalArgumentException If there is no transmitter tower at the location or the power is negative
+     */
+    public IslandSnapshot withTransmitterPower(int x, int y, int power) {
+        checkPower(power);
+        Transmitter transmitter = transmitterTowers.get(x, y);
+        if (transmitter == null) {
+            throw new IllegalArgumentException(String.format("There is no transmitter tower at (%d, %d)", x, y));
+        }
+        return withTransmitterTowers(transmitterTowers.put(x, y, new Transmitter(transmitter.id, power)));
+    }
+
+    /**
+     * Get a snapshot without the transmitter tower at a location
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The new snapshot
+     */
+    public IslandSnapshot withoutTransmitterTower(int x, int y) {
+        return withTransmitterTowers(transmitterTowers.remove(x, y));
+    }
+
+    /**
+     * Get a snapshot with a receiver tower added, replacing any receiver tower at the same location
+     *
+     * @param id The id of the receiver tower
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The new snapshot
+     * @throws IllegalArgumentException If the location is outside the island
+     */
+    public IslandSnapshot withReceiverTower(int id, int x, int y) {
+        checkLocation(x, y);
+        return withReceiverTowers(receiverTowers.put(x, y, id));
+    }
+
+    /**
+     * Get a snapshot without the receiver tower at a location
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The new snapshot
+     */
+    public IslandSnapshot withoutReceiverTower(int x, int y) {
+        return withReceiverTowers(receiverTowers.remove(x, y));
+    }
+
+    /**
+     * Get the bounds of the island
+     *
+     * @return The bounds of the island
+     */
+    public Bounds getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Get the version of the snapshot, which is incremented by every edit
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public int getNbrOfTransmitterTowers() {
+        return transmitterTowers.size();
+    }
+
+    public int getNbrOfReceiverTowers() {
+        return receiverTowers.size();
+    }
+
+    /**
+     * Get a copy of the transmitter tower at a location, if any
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return A new transmitter tower, or null if there is none
+     */
+    public TransmitterTower getTransmitterTower(int x, int y) {
+        Transmitter transmitter = transmitterTowers.get(x, y);
+        return transmitter != null ? new TransmitterTower(transmitter.id, new Point(x, y), transmitter.power) : null;
+    }
+
+    /**
+     * Get a copy of the receiver tower at a location, if any
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return A new receiver tower, or null if there is none
+     */
+    public ReceiverTower getReceiverTower(int x, int y) {
+        Integer id = receiverTowers.get(x, y);
+        return id != null ? new ReceiverTower(id, new Point(x, y)) : null;
+    }
+
+    /**
+     * Get copies of all transmitter towers, in no particular order
+     *
+     * @return List of new transmitter towers
+     */
+    public List<TransmitterTower> getTransmitterTowerList() {
+        List<TransmitterTower> list = new ArrayList<>(transmitterTowers.size());
+        transmitterTowers.forEach((x, y, transmitter) -> list.add(new TransmitterTower(transmitter.id, new Point(x, y), transmitter.power)));
+        return list;
+    }
+
+    /**
+     * Get copies of all receiver towers, in no particular order
+     *
+     * @return List of new receiver towers
+     */
+    public List<ReceiverTower> getReceiverTowerList() {
+        List<ReceiverTower> list = new ArrayList<>(receiverTowers.size());
+        receiverTowers.forEach((x, y, id) -> list.add(new ReceiverTower(id, new Point(x, y))));
+        return list;
+    }
+
+    /**
+     * Create a new mutable island with the towers of this snapshot, e.g. for use with the solvers
+     *
+     * @return A new island
+     */
+    public Island toIsland() {
+        Island island = new Island(bounds.getSizeX(), bounds.getSizeY());
+        getTransmitterTowerList().forEach(island::addTransmitterTower);
+        getReceiverTowerList().forEach(island::addReceiverTower);
+        return island;
+    }
+
+    /**
+     * Create an indexed view of this snapshot
+     *
+     * @return An indexed view of the snapshot
+     */
+    public IndexedIsland toIndexedIsland() {
+        return new IndexedIsland(bounds, getTransmitterTowerList(), getReceiverTowerList());
+    }
+
+}
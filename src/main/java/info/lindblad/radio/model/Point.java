@@ -1,7 +1,11 @@
 package info.lindblad.radio.model;
 
+import info.lindblad.radio.util.IntRadixHeap;
 import info.lindblad.radio.util.SimplePriorityQueue;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static java.lang.Math.abs;
@@ -41,6 +45,37 @@ public class Point {
         return this.y;
     }
 
+    /**
+     * Pack a pair of coordinates into a single long, with X in the upper half and Y in the lower half
+     *
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @return The packed coordinates
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get the X coordinate from packed coordinates
+     *
+     * @param packed The packed coordinates
+     * @return X coordinate
+     */
+    public static int unpackX(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    /**
+     * Get the Y coordinate from packed coordinates
+     *
+     * @param packed The packed coordinates
+     * @return Y coordinate
+     */
+    public static int unpackY(long packed) {
+        return (int) packed;
+    }
+
     /**
      * Calculate the Chebyshev distance between two points
      *
@@ -59,16 +94,21 @@ public class Point {
      * @return The closest points from the list of nearby point
      */
     public static Set<Point> closestNeighbours(Point startingPoint, Set<Point> nearbyPoints) {
-        SimplePriorityQueue<Point> closestPoints = new SimplePriorityQueue<Point>();
+        List<Point> candidatePoints = new ArrayList<>(nearbyPoints);
+        IntRadixHeap closestPoints = new IntRadixHeap();
         int closestDistanceSoFar = Integer.MAX_VALUE;
-        for (Point candidatePoint : nearbyPoints) {
-            int distance = candidatePoint.distance(startingPoint);
+        for (int i = 0; i < candidatePoints.size(); i++) {
+            int distance = candidatePoints.get(i).distance(startingPoint);
             if (distance <= closestDistanceSoFar) {
                 closestDistanceSoFar = distance;
-                closestPoints.put(distance, candidatePoint);
+                closestPoints.add(distance, i);
             }
         }
-        return closestPoints.pollSmallest().getValue();
+        Set<Point> closest = new HashSet<>();
+        if (!closestPoints.isEmpty()) {
+            closestPoints.pollSmallest(i -> closest.add(candidatePoints.get(i)));
+        }
+        return closest;
     }
 
     /**
@@ -23,4 +23,9 @@ public class ReceiverTower extends Tower {
         );
     }
 
+    @Override
+    public int hashCode() {
+        return 31 * getId() + getPoint().hashCode();
+    }
+
 }
\ No newline at end of file
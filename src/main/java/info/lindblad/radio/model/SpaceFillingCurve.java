@@ -0,0 +1,175 @@
+package info.lindblad.radio.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Orderings of towers along a space-filling curve.
+ *
+ * Towers stored in map iteration order are effectively scattered at random over the island, so
+ * loops over them jump around the coverage raster and the distance tables. Sorting the towers along
+ * a curve that visits the island cell by cell keeps towers that are next to each other in the list
+ * close on the island too, so consecutive towers touch the same rows and tiles.
+ *
+ * The Hilbert curve keeps neighbours closer than the Morton (Z-order) curve, which is cheaper to compute.
+ */
+public enum SpaceFillingCurve {
+
+    /**
+     * Keep the towers in the order they were given.
+     */
+    NONE(0) {
+        @Override
+        public long index(int x, int y) {
+            return 0;
+        }
+    },
+
+    /**
+     * Order the towers along the Morton curve by interleaving the bits of their coordinates.
+     */
+    MORTON(1) {
+        @Override
+        public long index(int x, int y) {
+            return spread(x) | (spread(y) << 1);
+        }
+    },
+
+    /**
+     * Order the towers along the Hilbert curve.
+     */
+    HILBERT(2) {
+        @Override
+        public long index(int x, int y) {
+            long n = 1L << BITS;
+            long curveX = x;
+            long curveY = y;
+            long index = 0;
+            for (long s = n >>> 1; s > 0; s >>>= 1) {
+                int rx = (curveX & s) != 0 ? 1 : 0;
+                int ry = (curveY & s) != 0 ? 1 : 0;
+                index += s * s * ((3 * rx) ^ ry);
+                // Rotate the quadrant so the curve continues where the previous one ended
+                if (ry == 0) {
+                    if (rx == 1) {
+                        curveX = n - 1 - curveX;
+                        curveY = n - 1 - curveY;
+                    }
+                    long swap = curveX;
+                    curveX = curveY;
+                    curveY = swap;
+                }
+            }
+            return index;
+        }
+    };
+
+    /**
+     * Coordinates are non-negative integers, so 31 bits per coordinate cover every point.
+     */
+    private static final int BITS = 31;
+
+    private final int code;
+
+    SpaceFillingCurve(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Get the code of the curve, which is stored in files and stays the same if curves are added or reordered
+     *
+     * @return The code of the curve
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Get the curve with a code
+     *
+     * @param code The code of the curve, see {@link #getCode()}
+     * @return The curve
+     * @throws IllegalArgumentException If no curve has the code
+     */
+    public static SpaceFillingCurve fromCode(int code) {
+        for (SpaceFillingCurve curve : values()) {
+            if (curve.code == code) {
+                return curve;
+            }
+        }
+        throw new IllegalArgumentException(String.format("There is no space-filling curve with code %d", code));
+    }
+
+    /**
+     * Get the position of a point along the curve
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The position along the curve
+     */
+    public abstract long index(int x, int y);
+
+    /**
+     * Get a copy of a list of towers sorted along the curve
+     *
+     * @param towers The towers
+     * @param <T> The type of tower
+     * @return A new, sorted list of the towers
+     */
+    public <T extends Tower> List<T> sort(List<T> towers) {
+        if (this == NONE) {
+            return new ArrayList<>(towers);
+        }
+        int nbrOfTowers = towers.size();
+        long[] indices = new long[nbrOfTowers];
+        int maxCoordinate = 0;
+        for (int i = 0; i < nbrOfTowers; i++) {
+            Point point = towers.get(i).getPoint();
+            indices[i] = index(point.getX(), point.getY());
+            maxCoordinate = Math.max(maxCoordinate, Math.max(point.getX(), point.getY()));
+        }
+
+        // Points within the square of side 2^k at the origin are at positions below 4^k along either
+        // curve, so for all but huge islands the position and the list index fit in a single long and
+        // the towers can be sorted as primitives.
+        int indexBits = 2 * (32 - Integer.numberOfLeadingZeros(maxCoordinate));
+        int ordinalBits = 32 - Integer.numberOfLeadingZeros(Math.max(1, nbrOfTowers - 1));
+        List<T> sorted = new ArrayList<>(nbrOfTowers);
+        if (indexBits + ordinalBits <= 63) {
+            long[] keys = new long[nbrOfTowers];
+            for (int i = 0; i < nbrOfTowers; i++) {
+                keys[i] = (indices[i] << ordinalBits) | i;
+            }
+            Arrays.sort(keys);
+            long ordinalMask = (1L << ordinalBits) - 1;
+            for (long key : keys) {
+                sorted.add(towers.get((int) (key & ordinalMask)));
+            }
+        } else {
+            Integer[] order = new Integer[nbrOfTowers];
+            for (int i = 0; i < nbrOfTowers; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (first, second) -> Long.compare(indices[first], indices[second]));
+            for (int i : order) {
+                sorted.add(towers.get(i));
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Spread the bits of a coordinate out so there is a zero bit between each of them.
+     */
+    private static long spread(int coordinate) {
+        long bits = coordinate & 0x7FFFFFFFL;
+        bits = (bits | (bits << 16)) & 0x0000FFFF0000FFFFL;
+        bits = (bits | (bits << 8)) & 0x00FF00FF00FF00FFL;
+        bits = (bits | (bits << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        bits = (bits | (bits << 2)) & 0x3333333333333333L;
+        bits = (bits | (bits << 1)) & 0x5555555555555555L;
+        return bits;
+    }
+
+}
@@ -0,0 +1,246 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.util.PointMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A spatial index over towers, for finding the towers within a rectangle, within a distance of a
+ * point or closest to a point without looking at every tower.
+ *
+ * The island is divided into square cells of a fixed size and every tower is kept in a bucket for
+ * the cell it is located in. Only the buckets of occupied cells are stored, so the memory used is
+ * proportional to the number of towers regardless of the size of the island. A query visits the cells
+ * overlapping the area of interest, or the occupied buckets if that is fewer.
+ *
+ * Distances are Chebyshev distances, see {@link Point#distance(Point)}.
+ *
+ * @param <T> The type of tower
+ */
+public class SpatialIndex<T extends Tower> {
+
+    public static final int DEFAULT_CELL_SIZE = 16;
+
+    private final int cellSize;
+    private final PointMap<List<T>> buckets;
+    private int size = 0;
+
+    /**
+     * The range of cells that have been occupied, which bounds how far a nearest neighbour search has to look.
+     */
+    private int minCellX = Integer.MAX_VALUE;
+    private int minCellY = Integer.MAX_VALUE;
+    private int maxCellX = Integer.MIN_VALUE;
+    private int maxCellY = Integer.MIN_VALUE;
+
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialIndex(int cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException(String.format("Cell size must be a positive integer, got %d", cellSize));
+        }
+        this.cellSize = cellSize;
+        this.buckets = new PointMap<>();
+    }
+
+    /**
+     * Add a tower to the index
+     *
+     * @param tower The tower
+     */
+    public void add(T tower) {
+        int cellX = tower.getPoint().getX() / cellSize;
+        int cellY = tower.getPoint().getY() / cellSize;
+        List<T> bucket = buckets.get(cellX, cellY);
+        if (bucket == null) {
+            bucket = new ArrayList<>(4);
+            buckets.put(cellX, cellY, bucket);
+        }
+        bucket.add(tower);
+        size++;
+        minCellX = Math.min(minCellX, cellX);
+        minCellY = Math.min(minCellY, cellY);
+        maxCellX = Math.max(maxCellX, cellX);
+        maxCellY = Math.max(maxCellY, cellY);
+    }
+
+    /**
+     * Remove a tower from the index
+     *
+     * @param tower The tower
+     * @return Whether the tower was in the index
+     */
+    public boolean remove(T tower) {
+        int cellX = tower.getPoint().getX() / cellSize;
+        int cellY = tower.getPoint().getY() / cellSize;
+        List<T> bucket = buckets.get(cellX, cellY);
+        if (bucket == null) {
+            return false;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == tower) {
+                bucket.set(i, bucket.get(bucket.size() - 1));
+                bucket.remove(bucket.size() - 1);
+                if (bucket.isEmpty()) {
+                    buckets.remove(cellX, cellY);
+                }
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the number of towers in the index
+     *
+     * @return The number of towers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find all towers within a rectangle, in no particular order
+     *
+     * @param minX The smallest X coordinate, inclusive
+     * @param minY The smallest Y coordinate, inclusive
+     * @param maxX The largest X coordinate, inclusive
+     * @param maxY The largest Y coordinate, inclusive
+     * @return The towers within the rectangle
+     */
+    public List<T> findInRectangle(int minX, int minY, int maxX, int maxY) {
+        List<T> found = new ArrayList<>();
+        if (minX > maxX || minY > maxY || maxX < 0 || maxY < 0) {
+            return found;
+        }
+        minX = Math.max(0, minX);
+        minY = Math.max(0, minY);
+        int firstCellX = minX / cellSize;
+        int firstCellY = minY / cellSize;
+        int lastCellX = maxX / cellSize;
+        int lastCellY = maxY / cellSize;
+        final int fromX = minX;
+        final int fromY = minY;
+        final int toX = maxX;
+        final int toY = maxY;
+
+        long nbrOfCells = (long) (lastCellX - firstCellX + 1) * (lastCellY - firstCellY + 1);
+        if (nbrOfCells > buckets.size()) {
+            buckets.forEach((cellX, cellY, bucket) -> {
+                if (cellX >= firstCellX && cellX <= lastCellX && cellY >= firstCellY && cellY <= lastCellY) {
+                    addWithin(bucket, fromX, fromY, toX, toY, found);
+                }
+            });
+        } else {
+            for (int cellY = firstCellY; cellY <= lastCellY; cellY++) {
+                for (int cellX = firstCellX; cellX <= lastCellX; cellX++) {
+                    List<T> bucket = buckets.get(cellX, cellY);
+                    if (bucket != null) {
+                        addWithin(bucket, fromX, fromY, toX, toY, found);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private void addWithin(List<T> bucket, int minX, int minY, int maxX, int maxY, List<T> found) {
+        for (T tower : bucket) {
+            int x = tower.getPoint().getX();
+            int y = tower.getPoint().getY();
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                found.add(tower);
+            }
+        }
+    }
+
+    /**
+     * Find all towers within a distance of a point, in no particular order
+     *
+     * @param point The point
+     * @param distance The largest distance, inclusive
+     * @return The towers within the distance
+     */
+    public List<T> findWithinDistance(Point point, int distance) {
+        long minX = (long) point.getX() - distance;
+        long minY = (long) point.getY() - distance;
+        long maxX = (long) point.getX() + distance;
+        long maxY = (long) point.getY() + distance;
+        return findInRectangle((int) Math.max(Integer.MIN_VALUE, minX), (int) Math.max(Integer.MIN_VALUE, minY),
+                (int) Math.min(Integer.MAX_VALUE, maxX), (int) Math.min(Integer.MAX_VALUE, maxY));
+    }
+
+    /**
+     * Find the towers closest to a point, closest first. Towers at the same distance are in no particular order.
+     *
+     * The cells are visited in rings of increasing distance around the cell of the point, and the search
+     * stops once no tower in the remaining rings can be closer than the towers already found. Only the
+     * towers of each new ring are sorted, and they are merged into the closest towers found so far.
+     *
+     * @param point The point
+     * @param count The number of towers to find
+     * @return The closest towers, at most count of them
+     */
+    public List<T> findNearest(Point point, int count) {
+        List<T> nearest = new ArrayList<>();
+        if (count <= 0 || size == 0) {
+            return nearest;
+        }
+        int centreX = point.getX() / cellSize;
+        int centreY = point.getY() / cellSize;
+
+        // No occupied cell is further away than this many rings
+        int extent = Math.max(Math.max(centreX - minCellX, maxCellX - centreX), Math.max(centreY - minCellY, maxCellY - centreY));
+
+        Comparator<T> byDistance = Comparator.comparingInt(tower -> tower.getPoint().distance(point));
+        List<T> candidates = new ArrayList<>();
+        for (int ring = 0; ring <= extent; ring++) {
+            candidates.clear();
+            for (int cellY = centreY - ring; cellY <= centreY + ring; cellY++) {
+                boolean edgeRow = cellY == centreY - ring || cellY == centreY + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int cellX = centreX - ring; cellX <= centreX + ring; cellX += Math.max(1, step)) {
+                    if (cellX < 0 || cellY < 0) {
+                        continue;
+                    }
+                    List<T> bucket = buckets.get(cellX, cellY);
+                    if (bucket != null) {
+                        candidates.addAll(bucket);
+                    }
+                }
+            }
+            if (!candidates.isEmpty()) {
+                candidates.sort(byDistance);
+                nearest = merge(nearest, candidates, byDistance, count);
+            }
+            // Towers in the following rings are more than ring * cellSize away
+            if (nearest.size() == count && nearest.get(count - 1).getPoint().distance(point) <= (long) ring * cellSize) {
+                break;
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Merge two sorted lists, keeping at most count elements
+     */
+    private static <T> List<T> merge(List<T> first, List<T> second, Comparator<T> comparator, int count) {
+        List<T> merged = new ArrayList<>(Math.min(count, first.size() + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < count && (i < first.size() || j < second.size())) {
+            if (j == second.size() || (i < first.size() && comparator.compare(first.get(i), second.get(j)) <= 0)) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+}
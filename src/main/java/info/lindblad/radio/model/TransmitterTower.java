@@ -73,6 +73,16 @@ public class TransmitterTower extends Tower {
         );
     }
 
+    /**
+     * Calculate the hash code for the transmitter tower. The power level can be changed, so it is left out.
+     *
+     * @return Hash code for the transmitter tower
+     */
+    @Override
+    public int hashCode() {
+        return 31 * getId() + getPoint().hashCode();
+    }
+
     /**
      * Get a set of points this transmitter can cover with signal for a given power level
      *
@@ -0,0 +1,59 @@
+package info.lindblad.radio.model;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds the current snapshot of an island that is shared between threads.
+ *
+ * Readers take the current snapshot with {@link #get()} and can use it for as long as they like
+ * without locking. Writers publish new snapshots with {@link #update(UnaryOperator)}, which retries
+ * the edit if another writer published a version in the meantime.
+ */
+public class VersionedIsland {
+
+    private final AtomicReference<IslandSnapshot> current;
+
+    public VersionedIsland(IslandSnapshot snapshot) {
+        current = new AtomicReference<>(snapshot);
+    }
+
+    /**
+     * Get the current snapshot
+     *
+     * @return The current snapshot
+     */
+    public IslandSnapshot get() {
+        return current.get();
+    }
+
+    /**
+     * Apply an edit to the current snapshot and publish the result.
+     *
+     * The edit may be applied more than once if several writers race, so it should not have side effects.
+     *
+     * @param edit The edit, e.g. {@code snapshot -> snapshot.withTransmitterPower(1, 2, 3)}
+     * @return The published snapshot
+     */
+    public IslandSnapshot update(UnaryOperator<IslandSnapshot> edit) {
+        while (true) {
+            IslandSnapshot snapshot = current.get();
+            IslandSnapshot edited = edit.apply(snapshot);
+            if (current.compareAndSet(snapshot, edited)) {
+                return edited;
+            }
+        }
+    }
+
+    /**
+     * Publish a snapshot, provided the current snapshot is still the expected one
+     *
+     * @param expected The snapshot the new one was derived from
+     * @param snapshot The new snapshot
+     * @return Whether the new snapshot was published
+     */
+    public boolean compareAndSet(IslandSnapshot expected, IslandSnapshot snapshot) {
+        return current.compareAndSet(expected, snapshot);
+    }
+
+}
@@ -0,0 +1,352 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A solver remembering the solutions of the islands it has seen, in front of another solver.
+ *
+ * Islands are identified by a SHA-256 hash of a canonical form of the island: its dimensions followed
+ * by its transmitter and receiver towers sorted by location, so the order of the towers in the input
+ * does not matter. Solutions are stored as the coverage and the new power levels by location, and are
+ * mapped back onto the towers of the island they are looked up for.
+ *
+ * At most maxEntries solutions are kept, evicting the least recently used. The cache can optionally be
+ * loaded from and saved to a file, so solutions survive restarts. Islands that are solved concurrently
+ * while not yet cached may be solved more than once.
+ */
+public class CachingSolver implements Solver {
+
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    /**
+     * A cached solution, with the changes as transmitter tower id, X, Y and new power level.
+     */
+    private static class CachedSolution {
+
+        private final int nbrOfReceiverTowers;
+        private final int nbrOfReceiverTowersWithCoverage;
+        private final int[] changes;
+
+        CachedSolution(int nbrOfReceiverTowers, int nbrOfReceiverTowersWithCoverage, int[] changes) {
+            this.nbrOfReceiverTowers = nbrOfReceiverTowers;
+            this.nbrOfReceiverTowersWithCoverage = nbrOfReceiverTowersWithCoverage;
+            this.changes = changes;
+        }
+    }
+
+    private final Solver solver;
+    private final int maxEntries;
+    private final Path file;
+    private final LinkedHashMap<String, CachedSolution> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create an in-memory cache in front of a MatrixSolver, holding the default number of solutions.
+     */
+    public CachingSolver() {
+        this(new MatrixSolver(), DEFAULT_MAX_ENTRIES, null);
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param solver The solver solving the islands that are not cached
+     * @param maxEntries The largest number of solutions kept
+     * @param file The file the cache is loaded from, if it exists, and saved to by {@link #save()}, or null
+     */
+    public CachingSolver(Solver solver, int maxEntries, Path file) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException(String.format("Maximum number of entries must be a positive integer, got %d", maxEntries));
+        }
+        this.solver = solver;
+        this.maxEntries = maxEntries;
+        this.file = file;
+        this.entries = new LinkedHashMap<String, CachedSolution>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedSolution> eldest) {
+                if (size() > CachingSolver.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        if (file != null && Files.exists(file)) {
+            load();
+        }
+    }
+
+    /**
+     * Get the canonical hash of an island, which is the same for islands with the same dimensions and
+     * towers regardless of the order the towers were added in.
+     *
+     * @param island The island
+     * @return The hash as a hexadecimal string
+     */
+    public static String key(Island island) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        List<ReceiverTower> receiverTowers = island.getReceiverTowerList();
+        transmitterTowers.sort((first, second) -> Long.compare(pack(first), pack(second)));
+        receiverTowers.sort((first, second) -> Long.compare(pack(first), pack(second)));
+
+        ByteBuffer buffer = ByteBuffer.allocate(4 * Integer.BYTES);
+        buffer.putInt(island.getBounds().getSizeX()).putInt(island.getBounds().getSizeY())
+                .putInt(transmitterTowers.size()).putInt(receiverTowers.size());
+        digest.update(buffer.array(), 0, buffer.position());
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            buffer.clear();
+            buffer.putInt(transmitterTower.getId()).putInt(transmitterTower.getPoint().getX())
+                    .putInt(transmitterTower.getPoint().getY()).putInt(transmitterTower.getPower());
+            digest.update(buffer.array(), 0, buffer.position());
+        }
+        for (ReceiverTower receiverTower : receiverTowers) {
+            buffer.clear();
+            buffer.putInt(receiverTower.getId()).putInt(receiverTower.getPoint().getX()).putInt(receiverTower.getPoint().getY());
+            digest.update(buffer.array(), 0, buffer.position());
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static long pack(TransmitterTower transmitterTower) {
+        return Point.pack(transmitterTower.getPoint().getX(), transmitterTower.getPoint().getY());
+    }
+
+    private static long pack(ReceiverTower receiverTower) {
+        return Point.pack(receiverTower.getPoint().getX(), receiverTower.getPoint().getY());
+    }
+
+    /**
+     * Solve an island, or look up its solution if it has been solved before
+     *
+     * @param island The island
+     * @return The solution
+     */
+    public Solution solve(Island island) {
+        Optional<Solution> cached = get(island);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        Solution solution = Solution.solve(island, solver);
+        put(island, solution);
+        return solution;
+    }
+
+    /**
+     * Look up the solution of an island, counting a hit or a miss
+     *
+     * @param island The island
+     * @return The cached solution, with the towers of the island, if there is one
+     */
+    public Optional<Solution> get(Island island) {
+        CachedSolution entry;
+        synchronized (entries) {
+            entry = entries.get(key(island));
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+
+        // Hand out the towers of the island being solved, not those of the island that was cached
+        Map<TransmitterTower, Integer> changes = new HashMap<>();
+        for (int i = 0; i < entry.changes.length; i += 4) {
+            changes.put(island.getTransmitterTower(entry.changes[i + 1], entry.changes[i + 2]), entry.changes[i + 3]);
+        }
+        return Optional.of(new Solution(entry.nbrOfReceiverTowers, entry.nbrOfReceiverTowersWithCoverage, changes));
+    }
+
+    /**
+     * Cache the solution of an island. Incomplete solutions are not cached, since a later search may do better.
+     *
+     * @param island The island
+     * @param solution The solution
+     */
+    public void put(Island island, Solution solution) {
+        if (!solution.isComplete()) {
+            return;
+        }
+        int[] changes = new int[4 * solution.getTransmitterTowerChanges().size()];
+        int i = 0;
+        for (Map.Entry<TransmitterTower, Integer> change : solution.getTransmitterTowerChanges().entrySet()) {
+            changes[i++] = change.getKey().getId();
+            changes[i++] = change.getKey().getPoint().getX();
+            changes[i++] = change.getKey().getPoint().getY();
+            changes[i++] = change.getValue();
+        }
+        CachedSolution entry = new CachedSolution(solution.getNbrOfReceiverTowers(), solution.getNbrOfReceiverTowersWithCoverage(), changes);
+        String key = key(island);
+        synchronized (entries) {
+            entries.put(key, entry);
+        }
+    }
+
+    @Override
+    public Map<TransmitterTower, Integer> getRequiredTransmitterTowerChanges(Island island) {
+        return new HashMap<>(solve(island).getTransmitterTowerChanges());
+    }
+
+    /**
+     * Get the number of cached solutions
+     *
+     * @return The number of cached solutions
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Get the number of islands whose solution was cached
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of islands that had to be solved
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of solutions evicted to make room for others
+     *
+     * @return The number of evictions
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Get the share of islands whose solution was cached
+     *
+     * @return The hit rate between 0 and 1, or 0 if no island has been solved
+     */
+    public double getHitRate() {
+        long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 0 : (double) hits.get() / lookups;
+    }
+
+    /**
+     * Remove all cached solutions and reset the statistics
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+        evictions.set(0);
+    }
+
+    /**
+     * Save the cached solutions to the file, least recently used first, replacing it atomically.
+     *
+     * Every line holds the key, the number of receiver towers, the number of them with coverage and the
+     * id, X, Y and new power level of every changed transmitter tower, separated by spaces.
+     */
+    public void save() {
+        if (file == null) {
+            throw new IllegalStateException("The cache has no file");
+        }
+        List<Map.Entry<String, CachedSolution>> snapshot;
+        synchronized (entries) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        try {
+            Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, CachedSolution> cached : snapshot) {
+                    StringBuilder line = new StringBuilder(cached.getKey());
+                    line.append(' ').append(cached.getValue().nbrOfReceiverTowers)
+                            .append(' ').append(cached.getValue().nbrOfReceiverTowersWithCoverage);
+                    for (int value : cached.getValue().changes) {
+                        line.append(' ').append(value);
+                    }
+                    writer.write(line.append('\n').toString());
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not save cache '%s'", file), exception);
+        }
+    }
+
+    private void load() {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.trim().split(" ");
+                if (values.length < 3 || (values.length - 3) % 4 != 0) {
+                    System.err.println(String.format("Skipping invalid line in cache '%s': '%s'", file, line));
+                    continue;
+                }
+                try {
+                    int[] changes = new int[values.length - 3];
+                    for (int i = 0; i < changes.length; i++) {
+                        changes[i] = Integer.parseInt(values[i + 3]);
+                    }
+                    CachedSolution entry = new CachedSolution(Integer.parseInt(values[1]), Integer.parseInt(values[2]), changes);
+                    synchronized (entries) {
+                        entries.put(values[0], entry);
+                    }
+                } catch (NumberFormatException exception) {
+                    System.err.println(String.format("Skipping invalid line in cache '%s': '%s'", file, line));
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not load cache '%s'", file), exception);
+        }
+        // Evictions while loading are not evictions of solutions found by this cache
+        evictions.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d solutions cached, %d hits, %d misses, %d evictions", size(), getHits(), getMisses(), getEvictions());
+    }
+
+}
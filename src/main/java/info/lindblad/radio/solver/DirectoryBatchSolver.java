@@ -0,0 +1,329 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.InputParser;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves many island files concurrently on a bounded pool of worker threads.
+ *
+ * The solver first estimates how hard every island is, as the number of starting matrices MatrixSolver
+ * has to evaluate: the number of permutations of the receiver towers without coverage times the number
+ * of transmitter towers. The islands are then handed to a work-stealing pool easiest first, so that
+ * cheap islands are not queued up behind expensive ones and the hardest islands run last, when any idle
+ * worker can take them on.
+ *
+ * Every island gets its own time budget, which starts when a worker starts solving it. Once the budget
+ * is used up the island gets the best power changes found so far, or is marked as timed out if none
+ * were found, so a single pathological island never holds up the batch.
+ */
+public class DirectoryBatchSolver {
+
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 10_000;
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    /**
+     * The outcome of solving an island.
+     */
+    public enum Status {
+        /**
+         * The search ran to completion.
+         */
+        SOLVED,
+        /**
+         * The time budget ran out, and the power changes are the best found so far.
+         */
+        BEST_SO_FAR,
+        /**
+         * The time budget ran out before any power changes were found.
+         */
+        TIMEOUT,
+        /**
+         * The file could not be parsed into an island.
+         */
+        INVALID
+    }
+
+    /**
+     * The result of solving an island file.
+     */
+    public static class Result {
+
+        private final Path path;
+        private final Status status;
+        private final long difficulty;
+        private final long millis;
+        private final Solution solution;
+
+        Result(Path path, Status status, long difficulty, long millis, Solution solution) {
+            this.path = path;
+            this.status = status;
+            this.difficulty = difficulty;
+            this.millis = millis;
+            this.solution = solution;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Get the estimated difficulty of the island
+         *
+         * @return The number of starting matrices to evaluate, capped at Long.MAX_VALUE, or -1 if the island is invalid
+         */
+        public long getDifficulty() {
+            return difficulty;
+        }
+
+        /**
+         * Get the time it took to read and solve the island
+         *
+         * @return The time in milliseconds
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Get the solution
+         *
+         * @return The solution, or null if the island is invalid
+         */
+        public Solution getSolution() {
+            return solution;
+        }
+    }
+
+    private final int nbrOfThreads;
+    private final long timeBudgetMillis;
+
+    /**
+     * Create a solver using one thread per available processor and the default time budget.
+     */
+    public DirectoryBatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_TIME_BUDGET_MILLIS);
+    }
+
+    /**
+     * Create a solver
+     *
+     * @param nbrOfThreads The number of worker threads
+     * @param timeBudgetMillis The time budget of every island in milliseconds
+     */
+    public DirectoryBatchSolver(int nbrOfThreads, long timeBudgetMillis) {
+        if (nbrOfThreads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be a positive integer, got %d", nbrOfThreads));
+        }
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Time budget must be a positive integer, got %d", timeBudgetMillis));
+        }
+        this.nbrOfThreads = nbrOfThreads;
+        this.timeBudgetMillis = timeBudgetMillis;
+    }
+
+    /**
+     * Find the island files given by a directory, in which case all regular files in it are used, or by
+     * a glob such as {@code islands/*.txt} or {@code islands/**}{@code /*.txt}.
+     *
+     * @param directoryOrGlob The directory or glob
+     * @return The island files, sorted by path
+     */
+    public static List<Path> findIslandFiles(String directoryOrGlob) {
+        try {
+            int firstGlobCharacter = directoryOrGlob.length();
+            for (char c : GLOB_CHARACTERS.toCharArray()) {
+                int index = directoryOrGlob.indexOf(c);
+                if (index >= 0) {
+                    firstGlobCharacter = Math.min(firstGlobCharacter, index);
+                }
+            }
+            if (firstGlobCharacter == directoryOrGlob.length()) {
+                Path path = Paths.get(directoryOrGlob);
+                if (!Files.isDirectory(path)) {
+                    return Files.isRegularFile(path) ? Collections.singletonList(path) : new ArrayList<>();
+                }
+                try (Stream<Path> files = Files.list(path)) {
+                    return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+            }
+
+            // Walk the directory before the first glob character and match the rest of the glob against the files in it
+            int lastSeparator = directoryOrGlob.lastIndexOf('/', firstGlobCharacter);
+            Path base = lastSeparator < 0 ? Paths.get(".") : Paths.get(directoryOrGlob.substring(0, lastSeparator + 1));
+            String pattern = directoryOrGlob.substring(lastSeparator + 1);
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+            int maxDepth = pattern.contains("**") ? Integer.MAX_VALUE : pattern.split("/").length;
+            if (!Files.isDirectory(base)) {
+                return new ArrayList<>();
+            }
+            try (Stream<Path> files = Files.walk(base, maxDepth)) {
+                return files.filter(Files::isRegularFile)
+                        .filter(file -> matcher.matches(base.relativize(file)))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not list island files '%s'", directoryOrGlob), exception);
+        }
+    }
+
+    /**
+     * Estimate the difficulty of an island as the number of starting matrices MatrixSolver evaluates
+     *
+     * @param island The island
+     * @return The estimated difficulty, capped at Long.MAX_VALUE
+     */
+    public static long estimateDifficulty(Island island) {
+        long difficulty = Math.max(1, island.getNbrOfTransmitterTowers());
+        int nbrOfReceiverTowersWithoutCoverage = Solver.nbrOfReceiverTowersWithoutCoverage(island);
+        for (int n = 2; n <= nbrOfReceiverTowersWithoutCoverage; n++) {
+            if (difficulty > Long.MAX_VALUE / n) {
+                return Long.MAX_VALUE;
+            }
+            difficulty *= n;
+        }
+        return difficulty;
+    }
+
+    /**
+     * Solve island files
+     *
+     * @param files The island files
+     * @return The results, in the order of the files
+     */
+    public List<Result> solve(List<Path> files) {
+        ExecutorService executor = Executors.newWorkStealingPool(nbrOfThreads);
+        try {
+            List<Future<Long>> estimates = new ArrayList<>();
+            for (Path file : files) {
+                estimates.add(executor.submit(() -> {
+                    // The island is read again when it is solved, rather than holding every island in memory
+                    Island island = read(file);
+                    return island == null ? -1L : estimateDifficulty(island);
+                }));
+            }
+            long[] difficulties = new long[files.size()];
+            for (int i = 0; i < files.size(); i++) {
+                difficulties[i] = estimates.get(i).get();
+            }
+
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                order.add(i);
+            }
+            order.sort(Comparator.comparingLong(i -> difficulties[i]));
+
+            List<Future<Result>> results = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                results.add(null);
+            }
+            for (int i : order) {
+                results.set(i, executor.submit(() -> solve(files.get(i), difficulties[i])));
+            }
+
+            List<Result> solved = new ArrayList<>(files.size());
+            for (Future<Result> result : results) {
+                solved.add(result.get());
+            }
+            return solved;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving islands", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Could not solve islands", exception.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Result solve(Path file, long difficulty) {
+        long start = System.nanoTime();
+        Island island = read(file);
+        if (island == null) {
+            return new Result(file, Status.INVALID, difficulty, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), null);
+        }
+        Solution solution = new MatrixSolver().solve(island, timeBudgetMillis);
+        Status status;
+        if (solution.isComplete()) {
+            status = Status.SOLVED;
+        } else if (!solution.getTransmitterTowerChanges().isEmpty()) {
+            status = Status.BEST_SO_FAR;
+        } else {
+            status = Status.TIMEOUT;
+        }
+        return new Result(file, status, difficulty, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), solution);
+    }
+
+    private static Island read(Path file) {
+        try {
+            return InputParser.islandFromFile(file.toString());
+        } catch (RuntimeException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Write the results to a tab-separated summary file, one line per island with the file, the status,
+     * the estimated difficulty, the time taken in milliseconds, the coverage before the changes and the
+     * changes as {@code id:power} pairs.
+     *
+     * @param results The results
+     * @param summary The path of the summary file, which is replaced if it exists
+     */
+    public static void writeSummary(List<Result> results, Path summary) {
+        try (BufferedWriter writer = Files.newBufferedWriter(summary, StandardCharsets.UTF_8)) {
+            writer.write("file\tstatus\tdifficulty\tmillis\tcoverage\tchanges\n");
+            for (Result result : results) {
+                StringBuilder line = new StringBuilder();
+                line.append(result.getPath()).append('\t')
+                        .append(result.getStatus()).append('\t')
+                        .append(result.getDifficulty()).append('\t')
+                        .append(result.getMillis()).append('\t');
+                Solution solution = result.getSolution();
+                if (solution != null) {
+                    line.append(solution.getNbrOfReceiverTowersWithCoverage()).append('/').append(solution.getNbrOfReceiverTowers());
+                    line.append('\t');
+                    String separator = "";
+                    for (Map.Entry<TransmitterTower, Integer> change : solution.getTransmitterTowerChanges().entrySet()) {
+                        line.append(separator).append(change.getKey().getId()).append(':').append(change.getValue());
+                        separator = " ";
+                    }
+                } else {
+                    line.append('\t');
+                }
+                writer.write(line.append('\n').toString());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(String.format("Could not write summary '%s'", summary), exception);
+        }
+    }
+
+}
@@ -3,10 +3,10 @@ package info.lindblad.radio.solver;
 
 import info.lindblad.radio.model.*;
 import info.lindblad.radio.util.Permutations;
-import info.lindblad.radio.util.SimplePriorityQueue;
 import info.lindblad.radio.solver.model.Matrix;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This solver finds the minimal overall power level increases required, specified by the new total power level for each
@@ -112,6 +112,21 @@ import java.util.*;
  */
 public class MatrixSolver implements Solver {
 
+    private final SpaceFillingCurve ordering;
+
+    public MatrixSolver() {
+        this(SpaceFillingCurve.NONE);
+    }
+
+    /**
+     * Create a solver that orders the rows and columns of its matrices along a space-filling curve
+     *
+     * @param ordering The order of the transmitter and receiver towers
+     */
+    public MatrixSolver(SpaceFillingCurve ordering) {
+        this.ordering = ordering;
+    }
+
     /**
      * Get the new adjusted power levels required for applicable transmitter towers in order to assure
      * full signal coverage.
@@ -120,20 +135,81 @@ public class MatrixSolver implements Solver {
      * @return A map of transmitter towers and their new required power level to assure full signal coverage
      */
     public Map<TransmitterTower, Integer> getRequiredTransmitterTowerChanges(Island island) {
+        return getRequiredTransmitterTowerChanges(new IslandAnalysis(island));
+    }
+
+    @Override
+    public Map<TransmitterTower, Integer> getRequiredTransmitterTowerChanges(IslandAnalysis analysis) {
+        return search(analysis, 0, false).getTransmitterTowerChanges();
+    }
+
+    /**
+     * Solve an island within a time budget.
+     *
+     * The search is stopped once the budget has been used up, in which case the solution holds the best
+     * power changes found so far, if any, and is marked as incomplete.
+     *
+     * @param island The island
+     * @param timeBudgetMillis The time budget in milliseconds
+     * @return The solution
+     */
+    public Solution solve(Island island, long timeBudgetMillis) {
+        return solve(new IslandAnalysis(island), timeBudgetMillis);
+    }
+
+    /**
+     * Solve an island within a time budget, reusing what has already been computed for the island
+     *
+     * @param analysis The analysis of the island
+     * @param timeBudgetMillis The time budget in milliseconds
+     * @return The solution
+     */
+    public Solution solve(IslandAnalysis analysis, long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException(String.format("Time budget must be a positive integer, got %d", timeBudgetMillis));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        return search(analysis, deadline, true);
+    }
+
+    private Solution search(IslandAnalysis analysis, long deadline, boolean hasDeadline) {
         int minimalTotalPowerIncrease = Integer.MAX_VALUE;
 
         Map<TransmitterTower, Integer> newTransmitterTowerPowerLevels = new HashMap<>();
 
-        List<TransmitterTower> transmitterTowers = new ArrayList<>(island.getTransmitterTowers().values());
+        List<TransmitterTower> transmitterTowers = analysis.getTransmitterTowers(ordering);
+        List<ReceiverTower> receiverTowers = analysis.getReceiverTowers(ordering);
+        IndexedIsland indexedIsland = analysis.getIndexedIsland(ordering);
 
-        List<ReceiverTower> receiverTowersWithoutCoverage = new ArrayList<>(Solver.getReceiverTowersWithoutCoverage(island));
-        List<List<ReceiverTower>> receiverTowersWithoutCoveragePermutations = new Permutations<>(receiverTowersWithoutCoverage).getPermutations();
+        // Keep the receiver towers in the order of the ordering, which decides between equally good changes.
+        // They are identified by ordinal, which is their position in the ordered list.
+        Set<ReceiverTower> withoutCoverage = analysis.getReceiverTowersWithoutCoverage();
+        List<Integer> receiverOrdinalsWithoutCoverage = new ArrayList<>();
+        for (int receiver = 0; receiver < receiverTowers.size(); receiver++) {
+            if (withoutCoverage.contains(receiverTowers.get(receiver))) {
+                receiverOrdinalsWithoutCoverage.add(receiver);
+            }
+        }
+        int nbrOfReceiverTowersWithCoverage = receiverTowers.size() - receiverOrdinalsWithoutCoverage.size();
+        if (receiverOrdinalsWithoutCoverage.isEmpty()) {
+            return new Solution(receiverTowers.size(), nbrOfReceiverTowersWithCoverage, newTransmitterTowerPowerLevels);
+        }
 
-        for (List<ReceiverTower> permutedReceiverTowersWithoutCoverage : receiverTowersWithoutCoveragePermutations) {
+        // The permutations are generated as they are needed, since there may not be time for all of them
+        for (List<Integer> permutedReceiverOrdinals : Permutations.lazily(receiverOrdinalsWithoutCoverage)) {
+            int[] receiverOrdinals = new int[permutedReceiverOrdinals.size()];
+            List<ReceiverTower> permutedReceiverTowersWithoutCoverage = new ArrayList<>(receiverOrdinals.length);
+            for (int i = 0; i < receiverOrdinals.length; i++) {
+                receiverOrdinals[i] = permutedReceiverOrdinals.get(i);
+                permutedReceiverTowersWithoutCoverage.add(receiverTowers.get(receiverOrdinals[i]));
+            }
             for (int startingRow = 0; startingRow < transmitterTowers.size(); startingRow++) {
+                if (hasDeadline && System.nanoTime() - deadline >= 0) {
+                    return new Solution(receiverTowers.size(), nbrOfReceiverTowersWithCoverage, newTransmitterTowerPowerLevels, false);
+                }
 
-                Matrix matrix = new Matrix(transmitterTowers, permutedReceiverTowersWithoutCoverage);
-                int totalPowerIncrease = getSmallestTotalPowerIncreaseForMatrix(matrix, startingRow, minimalTotalPowerIncrease);
+                Matrix matrix = new Matrix(indexedIsland, transmitterTowers, permutedReceiverTowersWithoutCoverage, receiverOrdinals);
+                int totalPowerIncrease = getSmallestTotalPowerIncreaseForMatrix(matrix, startingRow, minimalTotalPowerIncrease, deadline, hasDeadline);
 
                 if (totalPowerIncrease < minimalTotalPowerIncrease) {
                     minimalTotalPowerIncrease = totalPowerIncrease;
@@ -143,7 +219,7 @@ public class MatrixSolver implements Solver {
             }
         }
 
-        return newTransmitterTowerPowerLevels;
+        return new Solution(receiverTowers.size(), nbrOfReceiverTowersWithCoverage, newTransmitterTowerPowerLevels);
     }
 
     /**
@@ -153,9 +229,13 @@ public class MatrixSolver implements Solver {
      * @param matrix The matrix
      * @param startingRow The starting row
      * @param knownMinimalTotalPowerIncrease The current best-knowledge achievable total power increase
-     * @return The smallest achievable total power increase for this particular matrix
+     * @param deadline The value of System.nanoTime() at which to give up on the matrix
+     * @param hasDeadline Whether there is a deadline
+     * @return The smallest achievable total power increase for this particular matrix, or Integer.MAX_VALUE
+     *         if the deadline passed before every column had been evaluated
      */
-    private static int getSmallestTotalPowerIncreaseForMatrix(Matrix matrix, int startingRow, int knownMinimalTotalPowerIncrease) {
+    private static int getSmallestTotalPowerIncreaseForMatrix(Matrix matrix, int startingRow, int knownMinimalTotalPowerIncrease,
+                                                              long deadline, boolean hasDeadline) {
         final int startingColumn = 0;
 
         // Make the first choice
@@ -165,6 +245,10 @@ public class MatrixSolver implements Solver {
         resultingMatrices.add(matrix);
 
         for (int column = startingColumn + 1; column < matrix.getNbrOfColumns(); column++) {
+            // A large matrix takes a while to traverse, so the deadline is checked for every column
+            if (hasDeadline && System.nanoTime() - deadline >= 0) {
+                return Integer.MAX_VALUE;
+            }
             List<Matrix> newResultingMatrix = new ArrayList<>();
             for (Matrix resultingMatrix : resultingMatrices) {
                 newResultingMatrix = findResultingMatrices(resultingMatrix, column, knownMinimalTotalPowerIncrease);
@@ -172,15 +256,11 @@ public class MatrixSolver implements Solver {
             resultingMatrices = newResultingMatrix;
         }
 
-        SimplePriorityQueue<Matrix> optimalMatrices = new SimplePriorityQueue<>();
-        for (Matrix finalResultingMatrix : resultingMatrices) {
-            optimalMatrices.put(finalResultingMatrix.getTotalPowerIncrease(), finalResultingMatrix);
-        }
-
-        if (optimalMatrices.size() == 0) {
-            return Integer.MAX_VALUE;
+        int smallestTotalPowerIncrease = Integer.MAX_VALUE;
+        for (Matrix resultingMatrix : resultingMatrices) {
+            smallestTotalPowerIncrease = Math.min(smallestTotalPowerIncrease, resultingMatrix.getTotalPowerIncrease());
         }
-        return optimalMatrices.pollSmallest().getKey();
+        return smallestTotalPowerIncrease;
     }
 
     /**
@@ -0,0 +1,146 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.coverage.SquareUnionCoverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks whether a plan of new transmitter tower power levels gives every receiver tower signal
+ * coverage, without changing the island.
+ *
+ * The towers with their planned power levels are put in a SquareUnionCoverage, which is built in
+ * O(T log T), and every receiver tower is looked up in it in O(log T) plus the number of transmitter
+ * towers covering it. No coverage is computed for the points between the receiver towers.
+ */
+public class PlanVerifier {
+
+    /**
+     * The outcome of verifying a plan.
+     */
+    public static class Report {
+
+        private final int nbrOfReceiverTowers;
+        private final List<ReceiverTower> receiverTowersWithoutCoverage;
+        private final long totalPowerIncrease;
+
+        Report(int nbrOfReceiverTowers, List<ReceiverTower> receiverTowersWithoutCoverage, long totalPowerIncrease) {
+            this.nbrOfReceiverTowers = nbrOfReceiverTowers;
+            this.receiverTowersWithoutCoverage = Collections.unmodifiableList(receiverTowersWithoutCoverage);
+            this.totalPowerIncrease = totalPowerIncrease;
+        }
+
+        /**
+         * Check whether the plan gives every receiver tower signal coverage
+         *
+         * @return Whether the plan is valid
+         */
+        public boolean isValid() {
+            return receiverTowersWithoutCoverage.isEmpty();
+        }
+
+        public int getNbrOfReceiverTowers() {
+            return nbrOfReceiverTowers;
+        }
+
+        /**
+         * Get the receiver towers that are still without signal coverage with the plan
+         *
+         * @return An unmodifiable list of the receiver towers, ordered by id
+         */
+        public List<ReceiverTower> getReceiverTowersWithoutCoverage() {
+            return receiverTowersWithoutCoverage;
+        }
+
+        /**
+         * Get the sum of the power changes of the plan. Power decreases count negatively.
+         *
+         * @return The total power increase
+         */
+        public long getTotalPowerIncrease() {
+            return totalPowerIncrease;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(nbrOfReceiverTowers - receiverTowersWithoutCoverage.size()).append('/').append(nbrOfReceiverTowers)
+                    .append(" receiver towers with coverage, total power increase ").append(totalPowerIncrease);
+            for (ReceiverTower receiverTower : receiverTowersWithoutCoverage) {
+                sb.append('\n').append(receiverTower);
+            }
+            return sb.toString();
+        }
+    }
+
+    private PlanVerifier() {
+
+    }
+
+    /**
+     * Verify a plan
+     *
+     * @param island The island, which is not changed
+     * @param plan The new power level by transmitter tower id. Transmitter towers not in the plan keep their power.
+     * @return The report
+     */
+    public static Report verify(Island island, Map<Integer, Integer> plan) {
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        Map<Integer, TransmitterTower> transmitterTowersById = new HashMap<>();
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            transmitterTowersById.put(transmitterTower.getId(), transmitterTower);
+        }
+        long totalPowerIncrease = 0;
+        for (Map.Entry<Integer, Integer> change : plan.entrySet()) {
+            TransmitterTower transmitterTower = transmitterTowersById.get(change.getKey());
+            if (transmitterTower == null) {
+                throw new IllegalArgumentException(String.format("There is no transmitter tower %d", change.getKey()));
+            }
+            if (change.getValue() < 0) {
+                throw new IllegalArgumentException(String.format("Power must be a non-negative integer, got %d", change.getValue()));
+            }
+            totalPowerIncrease += change.getValue() - transmitterTower.getPower();
+        }
+
+        // Copies of the towers carry the planned power, so the towers of the island are left alone
+        List<TransmitterTower> planned = new ArrayList<>(transmitterTowers.size());
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            Integer power = plan.get(transmitterTower.getId());
+            planned.add(power == null ? transmitterTower : new TransmitterTower(transmitterTower.getId(), transmitterTower.getPoint(), power));
+        }
+        SquareUnionCoverage coverage = new SquareUnionCoverage(island.getBounds(), planned);
+
+        List<ReceiverTower> receiverTowers = island.getReceiverTowerList();
+        List<ReceiverTower> receiverTowersWithoutCoverage = new ArrayList<>();
+        for (ReceiverTower receiverTower : receiverTowers) {
+            if (!coverage.hasSignal(receiverTower.getPoint())) {
+                receiverTowersWithoutCoverage.add(receiverTower);
+            }
+        }
+        receiverTowersWithoutCoverage.sort(Comparator.comparingInt(ReceiverTower::getId));
+        return new Report(receiverTowers.size(), receiverTowersWithoutCoverage, totalPowerIncrease);
+    }
+
+    /**
+     * Verify the power changes of a solution
+     *
+     * @param island The island, which is not changed
+     * @param solution The solution
+     * @return The report
+     */
+    public static Report verify(Island island, Solution solution) {
+        Map<Integer, Integer> plan = new HashMap<>();
+        for (Map.Entry<TransmitterTower, Integer> change : solution.getTransmitterTowerChanges().entrySet()) {
+            plan.put(change.getKey().getId(), change.getValue());
+        }
+        return verify(island, plan);
+    }
+
+}
@@ -0,0 +1,309 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.coverage.SquareUnionCoverage;
+import info.lindblad.radio.model.IndexedIsland;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Scores many candidate plans of new transmitter tower power levels against one island, in parallel.
+ *
+ * The number of transmitter towers covering every receiver tower with the current power levels is
+ * counted once. A plan is then scored by the change it makes to those counts: raising a transmitter
+ * tower from power p to q adds one to the receiver towers at a distance in (p, q], and lowering it
+ * takes one away from them. To find those receiver towers, the receiver towers are bucketed once
+ * into a grid with about as many cells as receiver towers. A change then visits the cells within
+ * distance q of the transmitter tower, skipping the cells wholly within distance p, so scoring a plan
+ * costs about the number of receiver towers near the ring of each changed transmitter tower, plus
+ * the number of receiver towers without coverage to begin with, rather than rebuilding the coverage.
+ * The grid takes O(R) memory however many transmitter towers plans change.
+ *
+ * The indexed island is only read, so one evaluator can score plans from any number of threads, and
+ * every thread scoring a batch reuses its own O(R) scratch arrays for all its plans.
+ */
+public class ScenarioEvaluator {
+
+    private static final int CHUNK_SIZE = 64;
+
+    private final IndexedIsland indexedIsland;
+    private final int nbrOfThreads;
+
+    /**
+     * The number of transmitter towers covering each receiver tower, by receiver ordinal
+     */
+    private final int[] baselineCounts;
+
+    /**
+     * The ordinals of the receiver towers without coverage with the current power levels
+     */
+    private final int[] baselineWithoutCoverage;
+
+    /**
+     * The receiver ordinals bucketed by grid cell, row by row, where the receiver towers of cell c are
+     * receiversByCell[cellOffsets[c]] to receiversByCell[cellOffsets[c + 1] - 1]. Receiver towers
+     * outside the island are left out, since the coverage never reaches them.
+     */
+    private final long cellSize;
+    private final int nbrOfCellsX;
+    private final int nbrOfCellsY;
+    private final int[] cellOffsets;
+    private final int[] receiversByCell;
+
+    /**
+     * Create an evaluator using one thread per available processor
+     *
+     * @param indexedIsland The island, with the current power levels
+     */
+    public ScenarioEvaluator(IndexedIsland indexedIsland) {
+        this(indexedIsland, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create an evaluator
+     *
+     * @param indexedIsland The island, with the current power levels
+     * @param nbrOfThreads The number of threads scoring plans
+     */
+    public ScenarioEvaluator(IndexedIsland indexedIsland, int nbrOfThreads) {
+        if (nbrOfThreads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be a positive integer, got %d", nbrOfThreads));
+        }
+        this.indexedIsland = indexedIsland;
+        this.nbrOfThreads = nbrOfThreads;
+
+        List<TransmitterTower> transmitterTowers = new ArrayList<>(indexedIsland.getNbrOfTransmitterTowers());
+        for (int transmitter = 0; transmitter < indexedIsland.getNbrOfTransmitterTowers(); transmitter++) {
+            transmitterTowers.add(indexedIsland.toTransmitterTower(transmitter));
+        }
+        SquareUnionCoverage coverage = new SquareUnionCoverage(indexedIsland.getBounds(), transmitterTowers);
+        int nbrOfReceiverTowers = indexedIsland.getNbrOfReceiverTowers();
+        baselineCounts = new int[nbrOfReceiverTowers];
+        int[] withoutCoverage = new int[nbrOfReceiverTowers];
+        int nbrWithoutCoverage = 0;
+        for (int receiver = 0; receiver < nbrOfReceiverTowers; receiver++) {
+            baselineCounts[receiver] = coverage.countCovering(indexedIsland.getReceiverX(receiver), indexedIsland.getReceiverY(receiver));
+            if (baselineCounts[receiver] == 0) {
+                withoutCoverage[nbrWithoutCoverage++] = receiver;
+            }
+        }
+        baselineWithoutCoverage = Arrays.copyOf(withoutCoverage, nbrWithoutCoverage);
+
+        // Cells of about area / R points each, made larger for long, thin islands until there are at most 2R + 1 of them
+        long sizeX = Math.max(1, indexedIsland.getBounds().getSizeX());
+        long sizeY = Math.max(1, indexedIsland.getBounds().getSizeY());
+        long size = Math.max(1, (long) Math.ceil(Math.sqrt((double) sizeX * sizeY / Math.max(1, nbrOfReceiverTowers))));
+        while (ceilDiv(sizeX, size) * ceilDiv(sizeY, size) > 2L * nbrOfReceiverTowers + 1) {
+            size *= 2;
+        }
+        cellSize = size;
+        nbrOfCellsX = (int) ceilDiv(sizeX, size);
+        nbrOfCellsY = (int) ceilDiv(sizeY, size);
+
+        int[] cells = new int[nbrOfReceiverTowers];
+        cellOffsets = new int[nbrOfCellsX * nbrOfCellsY + 1];
+        for (int receiver = 0; receiver < nbrOfReceiverTowers; receiver++) {
+            int x = indexedIsland.getReceiverX(receiver);
+            int y = indexedIsland.getReceiverY(receiver);
+            if (indexedIsland.getBounds().contains(new Point(x, y))) {
+                cells[receiver] = cellY(y) * nbrOfCellsX + cellX(x);
+                cellOffsets[cells[receiver] + 1]++;
+            } else {
+                cells[receiver] = -1;
+            }
+        }
+        for (int cell = 0; cell < nbrOfCellsX * nbrOfCellsY; cell++) {
+            cellOffsets[cell + 1] += cellOffsets[cell];
+        }
+        receiversByCell = new int[cellOffsets[nbrOfCellsX * nbrOfCellsY]];
+        int[] next = Arrays.copyOf(cellOffsets, cellOffsets.length - 1);
+        for (int receiver = 0; receiver < nbrOfReceiverTowers; receiver++) {
+            if (cells[receiver] >= 0) {
+                receiversByCell[next[cells[receiver]]++] = receiver;
+            }
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return (dividend + divisor - 1) / divisor;
+    }
+
+    private int cellX(long x) {
+        return (int) Math.max(0, Math.min(nbrOfCellsX - 1, Math.floorDiv(x, cellSize)));
+    }
+
+    private int cellY(long y) {
+        return (int) Math.max(0, Math.min(nbrOfCellsY - 1, Math.floorDiv(y, cellSize)));
+    }
+
+    /**
+     * Score a single plan on the calling thread
+     *
+     * @param plan The new power level by transmitter tower id. Transmitter towers not in the plan keep their power.
+     * @return The report, as {@link PlanVerifier#verify(info.lindblad.radio.model.Island, Map)} would give
+     */
+    public PlanVerifier.Report evaluate(Map<Integer, Integer> plan) {
+        return new Scratch(indexedIsland.getNbrOfReceiverTowers()).evaluate(plan);
+    }
+
+    /**
+     * Score a batch of plans
+     *
+     * @param plans The plans, each a new power level by transmitter tower id
+     * @return The reports, in the order of the plans
+     */
+    public List<PlanVerifier.Report> evaluate(List<Map<Integer, Integer>> plans) {
+        PlanVerifier.Report[] reports = new PlanVerifier.Report[plans.size()];
+        if (nbrOfThreads == 1 || plans.size() <= CHUNK_SIZE) {
+            Scratch scratch = new Scratch(indexedIsland.getNbrOfReceiverTowers());
+            for (int i = 0; i < plans.size(); i++) {
+                reports[i] = scratch.evaluate(plans.get(i));
+            }
+        } else {
+            // Every worker takes chunks of plans until there are none left, reusing its scratch arrays
+            AtomicInteger nextChunk = new AtomicInteger();
+            Runnable worker = () -> {
+                Scratch scratch = new Scratch(indexedIsland.getNbrOfReceiverTowers());
+                int from;
+                while ((from = nextChunk.getAndAdd(CHUNK_SIZE)) < plans.size()) {
+                    for (int i = from; i < Math.min(plans.size(), from + CHUNK_SIZE); i++) {
+                        reports[i] = scratch.evaluate(plans.get(i));
+                    }
+                }
+            };
+            int nbrOfWorkers = Math.min(nbrOfThreads, (plans.size() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            ExecutorService executor = Executors.newFixedThreadPool(nbrOfWorkers);
+            try {
+                List<Future<?>> workers = new ArrayList<>();
+                for (int i = 0; i < nbrOfWorkers; i++) {
+                    workers.add(executor.submit(worker));
+                }
+                for (Future<?> future : workers) {
+                    future.get();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while scoring plans", exception);
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof IllegalArgumentException) {
+                    throw (IllegalArgumentException) exception.getCause();
+                }
+                throw new IllegalStateException("Could not score plans", exception.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return Arrays.asList(reports);
+    }
+
+    /**
+     * The per-thread state for scoring plans one after another. The changes in coverage count are only
+     * valid for the receiver towers stamped with the current plan, so nothing has to be cleared between plans.
+     */
+    private class Scratch {
+
+        private final int[] delta;
+        private final int[] stamp;
+        private final int[] touched;
+        private int nbrOfTouched;
+        private int current;
+
+        Scratch(int nbrOfReceiverTowers) {
+            delta = new int[nbrOfReceiverTowers];
+            stamp = new int[nbrOfReceiverTowers];
+            touched = new int[nbrOfReceiverTowers];
+        }
+
+        PlanVerifier.Report evaluate(Map<Integer, Integer> plan) {
+            current++;
+            nbrOfTouched = 0;
+            long totalPowerIncrease = 0;
+            for (Map.Entry<Integer, Integer> change : plan.entrySet()) {
+                int transmitter = indexedIsland.getTransmitterOrdinal(change.getKey());
+                if (transmitter < 0) {
+                    throw new IllegalArgumentException(String.format("There is no transmitter tower %d", change.getKey()));
+                }
+                int power = change.getValue();
+                if (power < 0) {
+                    throw new IllegalArgumentException(String.format("Power must be a positive integer, got %d", power));
+                }
+                int currentPower = indexedIsland.getTransmitterPower(transmitter);
+                totalPowerIncrease += power - currentPower;
+                if (power != currentPower) {
+                    addRing(transmitter, Math.min(power, currentPower), Math.max(power, currentPower), power > currentPower ? 1 : -1);
+                }
+            }
+
+            List<ReceiverTower> withoutCoverage = new ArrayList<>();
+            for (int receiver : baselineWithoutCoverage) {
+                if (stamp[receiver] != current || delta[receiver] == 0) {
+                    withoutCoverage.add(indexedIsland.toReceiverTower(receiver));
+                }
+            }
+            for (int i = 0; i < nbrOfTouched; i++) {
+                int receiver = touched[i];
+                if (baselineCounts[receiver] > 0 && baselineCounts[receiver] + delta[receiver] == 0) {
+                    withoutCoverage.add(indexedIsland.toReceiverTower(receiver));
+                }
+            }
+            withoutCoverage.sort(Comparator.comparingInt(ReceiverTower::getId));
+            return new PlanVerifier.Report(indexedIsland.getNbrOfReceiverTowers(), withoutCoverage, totalPowerIncrease);
+        }
+
+        /**
+         * Add sign to the receiver towers at a distance in (inner, outer] of a transmitter tower
+         */
+        private void addRing(int transmitter, int inner, int outer, int sign) {
+            long x = indexedIsland.getTransmitterX(transmitter);
+            long y = indexedIsland.getTransmitterY(transmitter);
+            int minCellX = cellX(x - outer);
+            int maxCellX = cellX(x + outer);
+            int minCellY = cellY(y - outer);
+            int maxCellY = cellY(y + outer);
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                    if (withinDistance(cellX, cellY, x, y, inner)) {
+                        continue;
+                    }
+                    int cell = cellY * nbrOfCellsX + cellX;
+                    for (int i = cellOffsets[cell]; i < cellOffsets[cell + 1]; i++) {
+                        int receiver = receiversByCell[i];
+                        int distance = indexedIsland.distance(transmitter, receiver);
+                        if (distance > inner && distance <= outer) {
+                            add(receiver, sign);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Check whether every point of a cell is within a distance of a point
+         */
+        private boolean withinDistance(int cellX, int cellY, long x, long y, int distance) {
+            return cellX * cellSize >= x - distance && (cellX + 1) * cellSize - 1 <= x + distance
+                    && cellY * cellSize >= y - distance && (cellY + 1) * cellSize - 1 <= y + distance;
+        }
+
+        private void add(int receiver, int sign) {
+            if (stamp[receiver] != current) {
+                stamp[receiver] = current;
+                delta[receiver] = 0;
+                touched[nbrOfTouched++] = receiver;
+            }
+            delta[receiver] += sign;
+        }
+    }
+
+}
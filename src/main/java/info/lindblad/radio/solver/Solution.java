@@ -0,0 +1,159 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.IslandAnalysis;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The answer for an island: how many receiver towers have signal coverage, and the new power levels
+ * of the transmitter towers that give every receiver tower signal coverage.
+ *
+ * The power changes are ordered by transmitter tower id, so the same island always prints the same way.
+ *
+ * A solution is incomplete if the solver ran out of time, in which case the power changes are the best
+ * found so far and may not give every receiver tower signal coverage, or may be empty.
+ */
+public class Solution {
+
+    private final int nbrOfReceiverTowers;
+    private final int nbrOfReceiverTowersWithCoverage;
+    private final Map<TransmitterTower, Integer> transmitterTowerChanges;
+    private final boolean complete;
+
+    public Solution(int nbrOfReceiverTowers, int nbrOfReceiverTowersWithCoverage, Map<TransmitterTower, Integer> transmitterTowerChanges) {
+        this(nbrOfReceiverTowers, nbrOfReceiverTowersWithCoverage, transmitterTowerChanges, true);
+    }
+
+    public Solution(int nbrOfReceiverTowers, int nbrOfReceiverTowersWithCoverage, Map<TransmitterTower, Integer> transmitterTowerChanges, boolean complete) {
+        this.complete = complete;
+        this.nbrOfReceiverTowers = nbrOfReceiverTowers;
+        this.nbrOfReceiverTowersWithCoverage = nbrOfReceiverTowersWithCoverage;
+        List<Map.Entry<TransmitterTower, Integer>> changes = new ArrayList<>(transmitterTowerChanges.entrySet());
+        changes.sort(Comparator.comparingInt(change -> change.getKey().getId()));
+        Map<TransmitterTower, Integer> sortedChanges = new LinkedHashMap<>();
+        for (Map.Entry<TransmitterTower, Integer> change : changes) {
+            sortedChanges.put(change.getKey(), change.getValue());
+        }
+        this.transmitterTowerChanges = Collections.unmodifiableMap(sortedChanges);
+    }
+
+    /**
+     * Solve an island
+     *
+     * @param island The island
+     * @param solver The solver finding the power changes
+     * @return The solution
+     */
+    public static Solution solve(Island island, Solver solver) {
+        return solve(new IslandAnalysis(island), solver);
+    }
+
+    /**
+     * Solve an island, sharing the coverage with the solver and anyone else using the analysis
+     *
+     * @param analysis The analysis of the island
+     * @param solver The solver finding the power changes
+     * @return The solution
+     */
+    public static Solution solve(IslandAnalysis analysis, Solver solver) {
+        int nbrOfReceiverTowers = analysis.getIsland().getNbrOfReceiverTowers();
+        int nbrOfReceiverTowersWithCoverage = nbrOfReceiverTowers - analysis.getNbrOfReceiverTowersWithoutCoverage();
+        return new Solution(nbrOfReceiverTowers, nbrOfReceiverTowersWithCoverage, solver.getRequiredTransmitterTowerChanges(analysis));
+    }
+
+    public int getNbrOfReceiverTowers() {
+        return nbrOfReceiverTowers;
+    }
+
+    public int getNbrOfReceiverTowersWithCoverage() {
+        return nbrOfReceiverTowersWithCoverage;
+    }
+
+    /**
+     * Check whether the search for the power changes ran to completion
+     *
+     * @return Whether the solution is complete
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Get the new power levels of the transmitter towers that have to change
+     *
+     * @return An unmodifiable map of transmitter towers and their new power level, ordered by transmitter tower id
+     */
+    public Map<TransmitterTower, Integer> getTransmitterTowerChanges() {
+        return transmitterTowerChanges;
+    }
+
+    /**
+     * Get the solution in the output format of the application: the number of receiver towers with
+     * coverage out of all receiver towers, followed by one line with the id and new power level of
+     * every transmitter tower that has to change.
+     *
+     * @return The lines of the solution, each ending with a line break
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(nbrOfReceiverTowersWithCoverage).append('/').append(nbrOfReceiverTowers).append('\n');
+        for (Map.Entry<TransmitterTower, Integer> change : transmitterTowerChanges.entrySet()) {
+            sb.append(change.getKey().getId()).append(' ').append(change.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Get the solution as JSON, e.g.
+     *
+     * <pre>
+     * {"coverage":"2/3","receiversWithCoverage":2,"receivers":3,"complete":true,"changes":[{"id":4,"power":5}]}
+     * </pre>
+     *
+     * @return The JSON document
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"coverage\":\"").append(nbrOfReceiverTowersWithCoverage).append('/').append(nbrOfReceiverTowers).append('"');
+        sb.append(",\"receiversWithCoverage\":").append(nbrOfReceiverTowersWithCoverage);
+        sb.append(",\"receivers\":").append(nbrOfReceiverTowers);
+        sb.append(",\"complete\":").append(complete);
+        sb.append(",\"changes\":[");
+        String separator = "";
+        for (Map.Entry<TransmitterTower, Integer> change : transmitterTowerChanges.entrySet()) {
+            sb.append(separator).append("{\"id\":").append(change.getKey().getId()).append(",\"power\":").append(change.getValue()).append('}');
+            separator = ",";
+        }
+        return sb.append("]}").toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Solution solution = (Solution) o;
+        return complete == solution.complete
+                && nbrOfReceiverTowers == solution.nbrOfReceiverTowers
+                && nbrOfReceiverTowersWithCoverage == solution.nbrOfReceiverTowersWithCoverage
+                && transmitterTowerChanges.equals(solution.transmitterTowerChanges);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = nbrOfReceiverTowers;
+        result = 31 * result + nbrOfReceiverTowersWithCoverage;
+        result = 31 * result + transmitterTowerChanges.hashCode();
+        result = 31 * result + (complete ? 1 : 0);
+        return result;
+    }
+
+}
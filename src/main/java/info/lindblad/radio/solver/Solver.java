@@ -1,9 +1,10 @@
 package info.lindblad.radio.solver;
 
 
+import info.lindblad.radio.coverage.SquareUnionCoverage;
 import info.lindblad.radio.model.*;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -17,21 +18,37 @@ public interface Solver {
      * @param receiverTowers The receiver towers
      * @return A set of receiver towers without signal coverage
      */
-     static Set<ReceiverTower> getReceiverTowersWithoutCoverage(Coverage coverage, HashMap<Point, ReceiverTower> receiverTowers) {
+     static Set<ReceiverTower> getReceiverTowersWithoutCoverage(Coverage coverage, Map<Point, ReceiverTower> receiverTowers) {
         return receiverTowers.values().stream()
                 .filter(receiverTower -> !coverage.hasSignal(receiverTower.getPoint()))
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Get a set of all receiver towers that are without signal coverage
+     *
+     * @param coverage The sparse coverage
+     * @param receiverTowers The receiver towers
+     * @return A set of receiver towers without signal coverage
+     */
+     static Set<ReceiverTower> getReceiverTowersWithoutCoverage(SquareUnionCoverage coverage, Collection<ReceiverTower> receiverTowers) {
+        return receiverTowers.stream()
+                .filter(receiverTower -> !coverage.hasSignal(receiverTower.getPoint()))
+                .collect(Collectors.toSet());
+    }
+
     /**
      * Get a set of all receiver towers that are without signal coverage for a given island
      *
+     * Only the receiver tower locations are of interest, so the sparse coverage is used rather
+     * than calculating the signal for every point on the island.
+     *
      * @param island The island
      * @return A set of receiver towers without signal coverage
      */
      static Set<ReceiverTower> getReceiverTowersWithoutCoverage(Island island) {
-        Coverage coverage = new Coverage(island);
-        return getReceiverTowersWithoutCoverage(coverage, island.getReceiverTowers());
+        SquareUnionCoverage coverage = new SquareUnionCoverage(island);
+        return getReceiverTowersWithoutCoverage(coverage, island.getReceiverTowerList());
     }
 
     /**
@@ -41,8 +58,7 @@ public interface Solver {
      * @return The number of receiver towers without coverage
      */
      static int nbrOfReceiverTowersWithoutCoverage(Island island) {
-        Coverage coverage = new Coverage(island.getBounds(), island.getTransmitterTowers());
-        return getReceiverTowersWithoutCoverage(coverage, island.getReceiverTowers()).size();
+        return getReceiverTowersWithoutCoverage(island).size();
     }
 
     /**
@@ -54,4 +70,15 @@ public interface Solver {
      */
      Map<TransmitterTower, Integer> getRequiredTransmitterTowerChanges(Island island);
 
+    /**
+     * Get the new adjusted power levels required for applicable transmitter towers in order to assure
+     * full signal coverage, reusing what has already been computed for the island.
+     *
+     * @param analysis The analysis of the island
+     * @return A map of transmitter towers and their new required power level to assure full signal coverage
+     */
+     default Map<TransmitterTower, Integer> getRequiredTransmitterTowerChanges(IslandAnalysis analysis) {
+        return getRequiredTransmitterTowerChanges(analysis.getIsland());
+    }
+
 }
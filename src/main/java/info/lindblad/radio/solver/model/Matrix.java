@@ -1,20 +1,23 @@
 package info.lindblad.radio.solver.model;
 
+import info.lindblad.radio.model.IndexedIsland;
 import info.lindblad.radio.model.ReceiverTower;
 import info.lindblad.radio.model.TransmitterTower;
-import info.lindblad.radio.util.SimplePriorityQueue;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
 
 public class Matrix {
 
     private Integer totalPowerIncrease;
 
-    private Map<TransmitterTower, AtomicInteger> newTransmitterTowerPowerLevels;
+    /**
+     * The power increase chosen so far for each row, i.e. each transmitter tower.
+     */
+    private int[] powerIncreases;
+    private boolean[] chosen;
 
     private List<TransmitterTower> transmitterTowers;
     private List<ReceiverTower> receiverTowers;
@@ -31,11 +34,33 @@ public class Matrix {
      * @param receiverTowersWithoutCoverage List of receiver towers that are without signal coverage
      */
     public Matrix(List<TransmitterTower> transmitterTowers, List<ReceiverTower> receiverTowersWithoutCoverage) {
-        newTransmitterTowerPowerLevels = new HashMap<>();
         this.transmitterTowers = transmitterTowers;
         this.receiverTowers = receiverTowersWithoutCoverage;
         this.totalPowerIncrease = 0;
         matrix = constructInitialMatrix();
+        powerIncreases = new int[nbrOfRows];
+        chosen = new boolean[nbrOfRows];
+    }
+
+    /**
+     * Construct a matrix representation of a given transmitter/receiver configuration, reading the tower
+     * coordinates and power levels from an indexed island.
+     *
+     * @param island The indexed island
+     * @param transmitterTowers List of transmitter towers, in the ordinal order of the indexed island
+     * @param receiverTowersWithoutCoverage List of receiver towers that are without signal coverage
+     * @param receiverOrdinals The ordinal in the indexed island of each of the receiver towers
+     */
+    public Matrix(IndexedIsland island, List<TransmitterTower> transmitterTowers, List<ReceiverTower> receiverTowersWithoutCoverage, int[] receiverOrdinals) {
+        if (receiverOrdinals.length != receiverTowersWithoutCoverage.size()) {
+            throw new IllegalArgumentException(String.format("Got %d receiver towers but %d ordinals", receiverTowersWithoutCoverage.size(), receiverOrdinals.length));
+        }
+        this.transmitterTowers = transmitterTowers;
+        this.receiverTowers = receiverTowersWithoutCoverage;
+        this.totalPowerIncrease = 0;
+        matrix = constructInitialMatrix(island, receiverOrdinals);
+        powerIncreases = new int[nbrOfRows];
+        chosen = new boolean[nbrOfRows];
     }
 
     /**
@@ -80,6 +105,31 @@ public class Matrix {
         return matrix;
     }
 
+    /**
+     * Construct the initial matrix from the primitive arrays of an indexed island.
+     *
+     * Each column is filled in turn, so the transmitter coordinates are read sequentially. The
+     * receiver towers are found by ordinal rather than by id, since ids need not be unique.
+     *
+     * @param island The indexed island
+     * @param receiverOrdinals The ordinal of the receiver tower of each column
+     * @return The initial matrix as a 2D array of integers
+     */
+    private int[][] constructInitialMatrix(IndexedIsland island, int[] receiverOrdinals) {
+        nbrOfRows = island.getNbrOfTransmitterTowers();
+        nbrOfColumns = receiverTowers.size();
+
+        int[][] matrix = new int[nbrOfRows][nbrOfColumns];
+
+        for (int j = 0; j < nbrOfColumns; j++) {
+            int receiver = receiverOrdinals[j];
+            for (int i = 0; i < nbrOfRows; i++) {
+                matrix[i][j] = island.getRequiredPowerIncrease(i, receiver);
+            }
+        }
+        return matrix;
+    }
+
     /**
      * Get the number of matrix rows
      *
@@ -123,8 +173,8 @@ public class Matrix {
     public int choose(int column, int row) {
         int chosenValue = matrix[row][column];
         totalPowerIncrease += chosenValue;
-        newTransmitterTowerPowerLevels.putIfAbsent(transmitterTowers.get(row), new AtomicInteger());
-        newTransmitterTowerPowerLevels.get(transmitterTowers.get(row)).addAndGet(chosenValue);
+        powerIncreases[row] += chosenValue;
+        chosen[row] = true;
         for (int c = 0; c < nbrOfColumns; c++) {
             matrix[row][c] = Math.max(0, matrix[row][c] - chosenValue);
         }
@@ -132,17 +182,28 @@ public class Matrix {
     }
 
     /**
-     * Get a list of row indices indicating the minimal value seen in the column
+     * Get a list of row indices indicating the minimal value seen in the column.
+     *
+     * The column is scanned once, since its values are negative for transmitter towers that already
+     * reach the receiver tower.
      *
      * @param column The column
-     * @return A list of the row indices containing the minimal value seen in the column
+     * @return A list of the row indices containing the minimal value seen in the column, in increasing order
      */
     public List<Integer> getMinimumRows(int column) {
-        SimplePriorityQueue<Integer> lowestValueIndices = new SimplePriorityQueue<>();
+        List<Integer> minimumRows = new ArrayList<>();
+        int minimum = Integer.MAX_VALUE;
         for (int row = 0; row < matrix.length; row++) {
-            lowestValueIndices.put(matrix[row][column], row);
+            int value = matrix[row][column];
+            if (value < minimum) {
+                minimum = value;
+                minimumRows.clear();
+            }
+            if (value == minimum) {
+                minimumRows.add(row);
+            }
         }
-        return new ArrayList<>(lowestValueIndices.pollSmallest().getValue());
+        return minimumRows;
     }
 
     /**
@@ -151,9 +212,12 @@ public class Matrix {
      * @return A map of transmitter towers and their required new power level
      */
     public Map<TransmitterTower, Integer> getNewTransmitterTowerPowerLevels() {
-        Map<TransmitterTower, Integer> newTransmitterTowerPowerLevels= new HashMap<>();
-        for (Map.Entry<TransmitterTower, AtomicInteger> entry : this.newTransmitterTowerPowerLevels.entrySet()) {
-            newTransmitterTowerPowerLevels.put(entry.getKey(), entry.getKey().getPower() + entry.getValue().intValue());
+        Map<TransmitterTower, Integer> newTransmitterTowerPowerLevels = new HashMap<>();
+        for (int row = 0; row < nbrOfRows; row++) {
+            if (chosen[row]) {
+                TransmitterTower transmitterTower = transmitterTowers.get(row);
+                newTransmitterTowerPowerLevels.put(transmitterTower, transmitterTower.getPower() + powerIncreases[row]);
+            }
         }
         return newTransmitterTowerPowerLevels;
     }
@@ -213,7 +277,8 @@ public class Matrix {
         matrixCopy.transmitterTowers = this.transmitterTowers;
         matrixCopy.receiverTowers = this.receiverTowers;
         matrixCopy.totalPowerIncrease = this.totalPowerIncrease;
-        matrixCopy.newTransmitterTowerPowerLevels = new HashMap<>(this.newTransmitterTowerPowerLevels);
+        matrixCopy.powerIncreases = this.powerIncreases.clone();
+        matrixCopy.chosen = this.chosen.clone();
         matrixCopy.matrix = copiedMatrix;
 
         return matrixCopy;
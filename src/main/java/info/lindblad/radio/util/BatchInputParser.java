@@ -0,0 +1,171 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * Parses a stream holding many islands, handing each island over as soon as it has been read.
+ *
+ * Islands are separated by delimiter lines starting with {@code #}. The rest of a delimiter line,
+ * without surrounding whitespace, is the id of the island that follows it. Islands without an id are
+ * given their position in the input, starting at 1. For example:
+ *
+ * <pre>
+ * # first
+ * 10 10
+ * 1 2 4 2
+ * 1 0 0
+ * # second
+ * 5 5
+ * ...
+ * </pre>
+ *
+ * Every island is parsed as by FastInputParser, except that blank lines before its dimensions are
+ * ignored. Lines before the first delimiter form an island too if there are any. Only one island is
+ * held at a time, so the handler can solve and drop each island before the next one is read.
+ */
+public class BatchInputParser implements IntegerLineDecoder.LineHandler {
+
+    /**
+     * Receives each island of the input in turn.
+     */
+    public interface IslandHandler {
+
+        /**
+         * Handle an island
+         *
+         * @param id The id of the island
+         * @param island An Optional<Island> whose value depends on successful parsing
+         */
+        void island(String id, Optional<Island> island);
+    }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final IslandHandler handler;
+
+    private int nbrOfIslands = 0;
+    private String id = null;
+    private FastInputParser parser = new FastInputParser();
+    private IntegerLineDecoder decoder = new IntegerLineDecoder(this);
+    private boolean hasContent = false;
+    private boolean hasDimensions = false;
+
+    private boolean atLineStart = true;
+    private boolean inDelimiter = false;
+    private boolean skipLineFeed = false;
+    private final ByteArrayOutputStream delimiter = new ByteArrayOutputStream();
+
+    private BatchInputParser(IslandHandler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void line(long lineNumber, int[] values, int nbrOfValues) {
+        if (nbrOfValues == 0 && !hasDimensions) {
+            return;
+        }
+        hasDimensions = true;
+        parser.line(lineNumber, values, nbrOfValues);
+    }
+
+    /**
+     * Parse the islands of an input stream, which is read until it ends but not closed
+     *
+     * @param inputStream The input stream to parse
+     * @param handler The handler receiving the islands
+     * @return The number of islands handed to the handler
+     */
+    public static int parse(InputStream inputStream, IslandHandler handler) {
+        BatchInputParser batchParser = new BatchInputParser(handler);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    batchParser.decode(buffer[i]);
+                }
+            }
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not read input: %s", exception));
+        }
+        batchParser.finish();
+        return batchParser.nbrOfIslands;
+    }
+
+    /**
+     * Parse the islands of a string
+     *
+     * @param input String to parse
+     * @param handler The handler receiving the islands
+     * @return The number of islands handed to the handler
+     */
+    public static int parse(String input, IslandHandler handler) {
+        BatchInputParser batchParser = new BatchInputParser(handler);
+        for (byte b : input.getBytes(StandardCharsets.UTF_8)) {
+            batchParser.decode(b);
+        }
+        batchParser.finish();
+        return batchParser.nbrOfIslands;
+    }
+
+    private void decode(byte b) {
+        if (skipLineFeed) {
+            skipLineFeed = false;
+            if (b == '\n') {
+                return;
+            }
+        }
+        if (inDelimiter) {
+            if (b == '\n' || b == '\r') {
+                inDelimiter = false;
+                atLineStart = true;
+                skipLineFeed = b == '\r';
+                String text = new String(delimiter.toByteArray(), StandardCharsets.UTF_8).trim();
+                id = text.isEmpty() ? null : text;
+                // The delimiter starts an island even if it is followed by nothing
+                hasContent = true;
+            } else {
+                delimiter.write(b);
+            }
+            return;
+        }
+        if (atLineStart && b == '#') {
+            endIsland();
+            inDelimiter = true;
+            delimiter.reset();
+            return;
+        }
+        decoder.decode(b);
+        atLineStart = b == '\n' || b == '\r';
+        hasContent |= b != ' ' && b != '\t' && !atLineStart;
+    }
+
+    private void finish() {
+        if (inDelimiter) {
+            decode((byte) '\n');
+        }
+        endIsland();
+    }
+
+    private void endIsland() {
+        decoder.finish();
+        Optional<Island> island = parser.getIsland();
+        // Drop the references to the island before handing it over, so it can be collected once handled
+        parser = new FastInputParser();
+        decoder = new IntegerLineDecoder(this);
+        if (hasContent) {
+            nbrOfIslands++;
+            handler.island(id != null ? id : String.valueOf(nbrOfIslands), island);
+        }
+        id = null;
+        hasContent = false;
+        hasDimensions = false;
+    }
+
+}
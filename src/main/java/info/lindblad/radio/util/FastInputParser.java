@@ -0,0 +1,127 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+/**
+ * A parser producing the same islands as InputParser, reading raw bytes instead of lines of text.
+ *
+ * The input is decoded by an IntegerLineDecoder and every tower is added to the island as soon as
+ * its line ends, so there are no intermediate strings, regular expression matches, boxed integers or
+ * lists of lines. Lines that do not have the number of values of a tower are ignored, and the island
+ * is only created if the first line holds its two dimensions, as with InputParser.
+ */
+public class FastInputParser implements IntegerLineDecoder.LineHandler {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int ISLAND_DIMENSIONS_PARAMETER_SIZE = 2;
+    private static final int TRANSMITTER_TOWER_PARAMETER_SIZE = 4;
+    private static final int RECEIVER_TOWER_PARAMETER_SIZE = 3;
+
+    private Island island;
+    private boolean firstLine = true;
+
+    FastInputParser() {
+
+    }
+
+    /**
+     * Get the island parsed so far
+     *
+     * @return An Optional<Island> which is empty unless the first line held the dimensions of an island
+     */
+    Optional<Island> getIsland() {
+        return Optional.ofNullable(island);
+    }
+
+    @Override
+    public void line(long lineNumber, int[] values, int nbrOfValues) {
+        if (firstLine) {
+            firstLine = false;
+            if (nbrOfValues == ISLAND_DIMENSIONS_PARAMETER_SIZE) {
+                island = new Island(values[0], values[1]);
+            }
+        } else if (island != null) {
+            if (nbrOfValues == TRANSMITTER_TOWER_PARAMETER_SIZE) {
+                island.addTransmitterTower(new TransmitterTower(values[0], new Point(values[1], values[2]), values[3]));
+            } else if (nbrOfValues == RECEIVER_TOWER_PARAMETER_SIZE) {
+                island.addReceiverTower(new ReceiverTower(values[0], new Point(values[1], values[2])));
+            }
+        }
+    }
+
+    /**
+     * Parse from an input stream, which is read until it ends but not closed
+     *
+     * @param inputStream The input stream to parse
+     * @return An Optional<Island> whose value depends on successful parsing
+     */
+    public static Optional<Island> parse(InputStream inputStream) {
+        FastInputParser parser = new FastInputParser();
+        IntegerLineDecoder decoder = new IntegerLineDecoder(parser);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                decoder.decode(buffer, 0, read);
+            }
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not read input: %s", exception));
+            return Optional.empty();
+        }
+        decoder.finish();
+        return Optional.ofNullable(parser.island);
+    }
+
+    /**
+     * Parse from bytes
+     *
+     * @param bytes The bytes to parse
+     * @return An Optional<Island> whose value depends on successful parsing
+     */
+    public static Optional<Island> parse(byte[] bytes) {
+        FastInputParser parser = new FastInputParser();
+        IntegerLineDecoder decoder = new IntegerLineDecoder(parser);
+        decoder.decode(bytes, 0, bytes.length);
+        decoder.finish();
+        return Optional.ofNullable(parser.island);
+    }
+
+    /**
+     * Parse from string
+     *
+     * @param input String to parse
+     * @return An Optional<Island> whose value depends on successful parsing
+     */
+    public static Optional<Island> parse(String input) {
+        return parse(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Read an island from a file on the file system
+     *
+     * @param filename The filename of the file
+     * @return An Optional<Island> whose value depends on the file being readable and successful parsing
+     */
+    public static Optional<Island> parseFile(String filename) {
+        try (InputStream inputStream = new FileInputStream(filename)) {
+            return parse(inputStream);
+        } catch (FileNotFoundException exception) {
+            System.err.println(String.format("No such file '%s': %s", filename, exception));
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not read file '%s': %s", filename, exception));
+        }
+        return Optional.empty();
+    }
+
+}
@@ -7,6 +7,7 @@ import info.lindblad.radio.model.ReceiverTower;
 import info.lindblad.radio.model.TransmitterTower;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.util.ArrayList;
@@ -27,6 +28,13 @@ public class InputParser {
     private static final int TRANSMITTER_TOWER_PARAMETER_SIZE = 4;
     private static final int RECEIVER_TOWER_PARAMETER_SIZE = 3;
 
+    /**
+     * Files of at least this many bytes are parsed in parallel chunks.
+     */
+    private static final long PARALLEL_PARSING_THRESHOLD = MappedInputParser.MAX_CHUNK_SIZE;
+
+    private static final Pattern INTEGER_PATTERN = Pattern.compile("\\d+");
+
     /**
      * Attempt to parse an input stream and return an optional island
      *
@@ -106,22 +114,6 @@ public class InputParser {
         return Optional.empty();
     }
 
-    /**
-     * Read a file from the file system
-     *
-     * @param filename The filename of the file
-     * @return An optional BufferedReader
-     */
-    private static Optional<BufferedReader> readFileFromFileSystem(String filename) {
-        try {
-            FileReader fileReader = new FileReader(filename);
-            return Optional.of(new BufferedReader(fileReader));
-        } catch (FileNotFoundException exception) {
-            System.err.println(String.format("No such file '%s': %s", filename, exception));
-        }
-        return Optional.empty();
-    }
-
     /**
      * Read an island from a file within the class resources
      *
@@ -137,16 +129,19 @@ public class InputParser {
     }
 
     /**
-     * Read an island from a file within the class resources
+     * Read an island from a file on the file system
      *
-     * Useful for tests
+     * The file is parsed with FastInputParser, which gives the same island without going through lines of text,
+     * or with MappedInputParser using several threads if the file is large.
      *
-     * @param filename The full filename of the file within resources
-     * @return
+     * @param filename The filename of the file
+     * @return The island
      */
     public static Island islandFromFile(String filename) {
-        Optional<BufferedReader> readerOptional = readFileFromFileSystem(filename);
-        Optional<Island> islandOptional = InputParser.parse(readerOptional.orElseThrow(() -> new RuntimeException("Cannot load required test resource")));
+        File file = new File(filename);
+        Optional<Island> islandOptional = file.length() >= PARALLEL_PARSING_THRESHOLD
+                ? MappedInputParser.parse(file.toPath())
+                : FastInputParser.parseFile(filename);
         return islandOptional.orElseThrow(() -> new RuntimeException("Cannot parse input file into island"));
     }
 
@@ -157,9 +152,8 @@ public class InputParser {
      * @return A list of integers extracted from the string
      */
     private static List<Integer> extractIntegerValues(String line) {
-        Pattern pattern = Pattern.compile("\\d+");
         List<Integer> values = new ArrayList<>();
-        Matcher matcher = pattern.matcher(line);
+        Matcher matcher = INTEGER_PATTERN.matcher(line);
         while (matcher.find()) {
             try {
                 values.add(Integer.parseInt(matcher.group()));
@@ -0,0 +1,172 @@
+package info.lindblad.radio.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A monotone priority queue of int values with non-negative int priorities.
+ *
+ * This is a radix heap: an element is kept in the bucket given by the highest bit in which its
+ * priority differs from the last smallest priority polled, so bucket 0 holds the elements at that
+ * priority and bucket b holds priorities that share all bits above bit b - 1 with it. Polling only
+ * has to redistribute the first non-empty bucket, and every element moves to a lower bucket each
+ * time it is moved, giving O(1) inserts and amortised O(log C) polls for priorities up to C.
+ *
+ * The queue is monotone: priorities added must not be smaller than the last priority polled, which
+ * holds when, as in the solvers, everything is added before polling or priorities only grow.
+ *
+ * Priorities and values are kept in primitive arrays per bucket that are allocated when the bucket is
+ * first used and reused once they have grown, so a new queue is cheap and, once warm, neither adding
+ * nor polling allocates objects.
+ */
+public class IntRadixHeap {
+
+    private static final int NBR_OF_BUCKETS = 33;
+    private static final int INITIAL_BUCKET_CAPACITY = 8;
+
+    private final int[][] priorities = new int[NBR_OF_BUCKETS][];
+    private final int[][] values = new int[NBR_OF_BUCKETS][];
+    private final int[] counts = new int[NBR_OF_BUCKETS];
+
+    private int last = 0;
+    private int size = 0;
+
+    public IntRadixHeap() {
+
+    }
+
+    private int bucketOf(int priority) {
+        return priority == last ? 0 : 32 - Integer.numberOfLeadingZeros(priority ^ last);
+    }
+
+    private void append(int bucket, int priority, int value) {
+        int count = counts[bucket];
+        if (priorities[bucket] == null) {
+            priorities[bucket] = new int[INITIAL_BUCKET_CAPACITY];
+            values[bucket] = new int[INITIAL_BUCKET_CAPACITY];
+        } else if (count == priorities[bucket].length) {
+            priorities[bucket] = Arrays.copyOf(priorities[bucket], count * 2);
+            values[bucket] = Arrays.copyOf(values[bucket], count * 2);
+        }
+        priorities[bucket][count] = priority;
+        values[bucket][count] = value;
+        counts[bucket] = count + 1;
+    }
+
+    /**
+     * Add a value to the queue
+     *
+     * @param priority The priority, which must be at least the last priority polled
+     * @param value The value
+     */
+    public void add(int priority, int value) {
+        if (priority < last) {
+            throw new IllegalArgumentException(String.format("Priority %d is smaller than the last polled priority %d", priority, last));
+        }
+        append(bucketOf(priority), priority, value);
+        size++;
+    }
+
+    /**
+     * Get the number of values in the queue
+     *
+     * @return The number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the queue is empty
+     *
+     * @return Whether the queue is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all values, keeping the allocated buckets for reuse
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        last = 0;
+        size = 0;
+    }
+
+    /**
+     * Make sure bucket 0 holds the values with the smallest priority.
+     */
+    private void settle() {
+        if (counts[0] > 0) {
+            return;
+        }
+        int bucket = 1;
+        while (counts[bucket] == 0) {
+            bucket++;
+        }
+        int[] bucketPriorities = priorities[bucket];
+        int[] bucketValues = values[bucket];
+        int count = counts[bucket];
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            smallest = Math.min(smallest, bucketPriorities[i]);
+        }
+        last = smallest;
+        counts[bucket] = 0;
+        for (int i = 0; i < count; i++) {
+            append(bucketOf(bucketPriorities[i]), bucketPriorities[i], bucketValues[i]);
+        }
+    }
+
+    /**
+     * Get the smallest priority in the queue
+     *
+     * @return The smallest priority
+     * @throws IllegalStateException If the queue is empty
+     */
+    public int peekPriority() {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty");
+        }
+        settle();
+        return last;
+    }
+
+    /**
+     * Remove one of the values with the smallest priority
+     *
+     * @return The value
+     * @throws IllegalStateException If the queue is empty
+     */
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty");
+        }
+        settle();
+        size--;
+        return values[0][--counts[0]];
+    }
+
+    /**
+     * Remove all values with the smallest priority
+     *
+     * @param consumer The consumer receiving each removed value
+     * @return The smallest priority
+     * @throws IllegalStateException If the queue is empty
+     */
+    public int pollSmallest(IntConsumer consumer) {
+        if (size == 0) {
+            throw new IllegalStateException("The queue is empty");
+        }
+        settle();
+        int count = counts[0];
+        counts[0] = 0;
+        size -= count;
+        for (int i = 0; i < count; i++) {
+            consumer.accept(values[0][i]);
+        }
+        return last;
+    }
+
+}
@@ -0,0 +1,159 @@
+package info.lindblad.radio.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decodes raw bytes into lines of non-negative integers without creating strings.
+ *
+ * The decoder is a small state machine fed with chunks of bytes. Like the regular expression
+ * {@code \d+} used by InputParser, every run of ASCII digits is an integer and every other byte
+ * separates integers. Lines end with {@code \n}, {@code \r} or {@code \r\n}. The integers of each line
+ * are handed to a LineHandler in a reused array once the line ends, so decoding does not allocate.
+ *
+ * A digit run that does not fit in an int is reported on standard error and skipped, as InputParser does.
+ */
+public final class IntegerLineDecoder {
+
+    /**
+     * Receives the integers of each decoded line.
+     */
+    public interface LineHandler {
+
+        /**
+         * Handle a line
+         *
+         * @param lineNumber The number of the line, starting at 1
+         * @param values The integers on the line. Only the first values.length are kept if there are more.
+         * @param nbrOfValues The number of integers on the line
+         */
+        void line(long lineNumber, int[] values, int nbrOfValues);
+    }
+
+    /**
+     * Lines with more integers than this are never towers, so only the count is kept beyond it.
+     */
+    private static final int MAX_VALUES_PER_LINE = 8;
+
+    private final LineHandler handler;
+    private final String source;
+    private final int[] values = new int[MAX_VALUES_PER_LINE];
+
+    private int nbrOfValues = 0;
+    private long lineNumber = 1;
+    private boolean inLine = false;
+    private boolean afterCarriageReturn = false;
+
+    private boolean inNumber = false;
+    private long number = 0;
+    private boolean overflow = false;
+
+    public IntegerLineDecoder(LineHandler handler) {
+        this(handler, "the input");
+    }
+
+    /**
+     * Create a decoder for part of the input, e.g. a chunk of a file
+     *
+     * @param handler The handler receiving the lines
+     * @param source A description of where the bytes come from, used when reporting values out of range
+     */
+    public IntegerLineDecoder(LineHandler handler, String source) {
+        this.handler = handler;
+        this.source = source;
+    }
+
+    /**
+     * Decode a chunk of bytes. Lines and integers may continue in the next chunk.
+     *
+     * @param bytes The bytes
+     * @param offset The index of the first byte to decode
+     * @param length The number of bytes to decode
+     */
+    public void decode(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            decode(bytes[i]);
+        }
+    }
+
+    /**
+     * Decode the remaining bytes of a buffer, e.g. a memory-mapped part of a file. The position of the
+     * buffer is not changed.
+     *
+     * @param buffer The buffer
+     */
+    public void decode(ByteBuffer buffer) {
+        int end = buffer.limit();
+        for (int i = buffer.position(); i < end; i++) {
+            decode(buffer.get(i));
+        }
+    }
+
+    /**
+     * Decode a single byte
+     *
+     * @param b The byte
+     */
+    public void decode(byte b) {
+        if (b >= '0' && b <= '9') {
+            afterCarriageReturn = false;
+            inLine = true;
+            if (!overflow) {
+                number = number * 10 + (b - '0');
+                overflow = number > Integer.MAX_VALUE;
+            }
+            inNumber = true;
+            return;
+        }
+        endNumber();
+        if (b == '\n') {
+            if (afterCarriageReturn) {
+                // The second half of a \r\n line ending
+                afterCarriageReturn = false;
+            } else {
+                endLine();
+            }
+        } else if (b == '\r') {
+            endLine();
+            afterCarriageReturn = true;
+        } else {
+            afterCarriageReturn = false;
+            inLine = true;
+        }
+    }
+
+    /**
+     * Finish decoding, handling the last line if it was not terminated by a line ending
+     */
+    public void finish() {
+        endNumber();
+        if (inLine) {
+            endLine();
+        }
+    }
+
+    private void endNumber() {
+        if (!inNumber) {
+            return;
+        }
+        if (overflow) {
+            System.err.println(String.format("Could not extract integer value on line %d of %s: the value does not fit in an integer", lineNumber, source));
+        } else {
+            if (nbrOfValues < MAX_VALUES_PER_LINE) {
+                values[nbrOfValues] = (int) number;
+            }
+            nbrOfValues++;
+        }
+        inNumber = false;
+        number = 0;
+        overflow = false;
+    }
+
+    private void endLine() {
+        handler.line(lineNumber, values, nbrOfValues);
+        lineNumber++;
+        nbrOfValues = 0;
+        inLine = false;
+    }
+
+}
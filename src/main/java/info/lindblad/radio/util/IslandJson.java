@@ -0,0 +1,254 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads islands from JSON, as an alternative to the text format.
+ *
+ * An island is an object holding its dimensions and its towers:
+ *
+ * <pre>
+ * {"sizeX": 10, "sizeY": 10,
+ *  "transmitters": [{"id": 1, "x": 2, "y": 4, "power": 2}],
+ *  "receivers": [{"id": 1, "x": 0, "y": 0}]}
+ * </pre>
+ *
+ * Only as much of JSON as islands need is supported: objects, arrays, strings without escapes
+ * other than the simple ones, integers, true, false and null.
+ */
+public class IslandJson {
+
+    /**
+     * Islands are nested three levels deep, so anything much deeper is rejected rather than risking the stack.
+     */
+    private static final int MAX_DEPTH = 32;
+
+    private final String input;
+    private int position = 0;
+    private int depth = 0;
+
+    private IslandJson(String input) {
+        this.input = input;
+    }
+
+    /**
+     * Parse an island
+     *
+     * @param input The JSON document
+     * @return An Optional<Island> whose value depends on successful parsing
+     */
+    public static Optional<Island> parse(String input) {
+        try {
+            IslandJson parser = new IslandJson(input);
+            Object document = parser.value();
+            parser.skipWhitespace();
+            if (parser.position != input.length()) {
+                throw parser.error("Unexpected content after the island");
+            }
+            return Optional.of(toIsland(document));
+        } catch (IllegalArgumentException exception) {
+            System.err.println(String.format("Could not parse island from JSON: %s", exception.getMessage()));
+            return Optional.empty();
+        }
+    }
+
+    private static Island toIsland(Object document) {
+        Map<?, ?> object = asObject(document, "island");
+        Island island = new Island(getInt(object, "sizeX"), getInt(object, "sizeY"));
+        for (Object transmitter : asArray(object.get("transmitters"), "transmitters")) {
+            Map<?, ?> tower = asObject(transmitter, "transmitter");
+            island.addTransmitterTower(new TransmitterTower(getInt(tower, "id"),
+                    new Point(getInt(tower, "x"), getInt(tower, "y")), getInt(tower, "power")));
+        }
+        for (Object receiver : asArray(object.get("receivers"), "receivers")) {
+            Map<?, ?> tower = asObject(receiver, "receiver");
+            island.addReceiverTower(new ReceiverTower(getInt(tower, "id"), new Point(getInt(tower, "x"), getInt(tower, "y"))));
+        }
+        return island;
+    }
+
+    private static Map<?, ?> asObject(Object value, String name) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException(String.format("Expected %s to be an object", name));
+        }
+        return (Map<?, ?>) value;
+    }
+
+    private static List<?> asArray(Object value, String name) {
+        if (value == null) {
+            return new ArrayList<>();
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException(String.format("Expected %s to be an array", name));
+        }
+        return (List<?>) value;
+    }
+
+    private static int getInt(Map<?, ?> object, String name) {
+        Object value = object.get(name);
+        if (!(value instanceof Long) || (Long) value < Integer.MIN_VALUE || (Long) value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("Expected %s to be an integer", name));
+        }
+        return ((Long) value).intValue();
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(String.format("%s at position %d", message, position));
+    }
+
+    private void skipWhitespace() {
+        while (position < input.length() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        skipWhitespace();
+        if (position >= input.length()) {
+            throw error("Unexpected end of input");
+        }
+        return input.charAt(position);
+    }
+
+    private void expect(char c) {
+        if (peek() != c) {
+            throw error(String.format("Expected '%c'", c));
+        }
+        position++;
+    }
+
+    private Object value() {
+        char c = peek();
+        if (c == '{' || c == '[') {
+            if (++depth > MAX_DEPTH) {
+                throw error("Too deeply nested");
+            }
+            Object value = c == '{' ? object() : array();
+            depth--;
+            return value;
+        } else if (c == '"') {
+            return string();
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            return number();
+        } else if (input.startsWith("true", position)) {
+            position += 4;
+            return Boolean.TRUE;
+        } else if (input.startsWith("false", position)) {
+            position += 5;
+            return Boolean.FALSE;
+        } else if (input.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        throw error("Unexpected character");
+    }
+
+    private Map<String, Object> object() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        expect('{');
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            if (peek() != '"') {
+                throw error("Expected a name");
+            }
+            String name = string();
+            expect(':');
+            object.put(name, value());
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect('}');
+                return object;
+            }
+        }
+    }
+
+    private List<Object> array() {
+        List<Object> array = new ArrayList<>();
+        expect('[');
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(value());
+            if (peek() == ',') {
+                position++;
+            } else {
+                expect(']');
+                return array;
+            }
+        }
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            if (position >= input.length()) {
+                throw error("Unterminated string");
+            }
+            char c = input.charAt(position++);
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c == '\\') {
+                if (position >= input.length()) {
+                    throw error("Unterminated string");
+                }
+                char escaped = input.charAt(position++);
+                switch (escaped) {
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        sb.append(escaped);
+                        break;
+                    default:
+                        throw error("Unsupported escape");
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+    }
+
+    private Long number() {
+        int start = position;
+        if (input.charAt(position) == '-') {
+            position++;
+        }
+        while (position < input.length() && Character.isDigit(input.charAt(position))) {
+            position++;
+        }
+        if (position < input.length() && ".eE".indexOf(input.charAt(position)) >= 0) {
+            throw error("Only integers are supported");
+        }
+        try {
+            return Long.parseLong(input.substring(start, position));
+        } catch (NumberFormatException exception) {
+            throw error("Invalid integer");
+        }
+    }
+
+}
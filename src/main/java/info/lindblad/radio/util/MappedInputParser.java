@@ -0,0 +1,217 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses very large island files using several threads.
+ *
+ * The file is memory-mapped and, after the dimensions line, split into chunks whose boundaries are
+ * moved forward to the next line ending so that no line is split. Each chunk is decoded on a worker
+ * thread by an IntegerLineDecoder into a buffer of plain ints, one for transmitter towers and one for
+ * receiver towers. The buffers are then added to the island in file order, so when several towers
+ * share a point the one that appears last in the file wins, exactly as when parsing the file line
+ * by line with FastInputParser.
+ */
+public class MappedInputParser {
+
+    /**
+     * The largest chunk mapped and decoded at once.
+     */
+    public static final long MAX_CHUNK_SIZE = 64L << 20;
+
+    private static final int ISLAND_DIMENSIONS_PARAMETER_SIZE = 2;
+    private static final int TRANSMITTER_TOWER_PARAMETER_SIZE = 4;
+    private static final int RECEIVER_TOWER_PARAMETER_SIZE = 3;
+
+    private static final int SCAN_BUFFER_SIZE = 4096;
+
+    /**
+     * The towers decoded from one chunk, kept as ints until they are added to the island.
+     */
+    private static class TowerBuffer implements IntegerLineDecoder.LineHandler {
+
+        private int[] transmitterTowers = new int[1024];
+        private int transmitterLength = 0;
+        private int[] receiverTowers = new int[1024];
+        private int receiverLength = 0;
+
+        @Override
+        public void line(long lineNumber, int[] values, int nbrOfValues) {
+            if (nbrOfValues == TRANSMITTER_TOWER_PARAMETER_SIZE) {
+                if (transmitterLength + TRANSMITTER_TOWER_PARAMETER_SIZE > transmitterTowers.length) {
+                    transmitterTowers = Arrays.copyOf(transmitterTowers, transmitterTowers.length * 2);
+                }
+                System.arraycopy(values, 0, transmitterTowers, transmitterLength, TRANSMITTER_TOWER_PARAMETER_SIZE);
+                transmitterLength += TRANSMITTER_TOWER_PARAMETER_SIZE;
+            } else if (nbrOfValues == RECEIVER_TOWER_PARAMETER_SIZE) {
+                if (receiverLength + RECEIVER_TOWER_PARAMETER_SIZE > receiverTowers.length) {
+                    receiverTowers = Arrays.copyOf(receiverTowers, receiverTowers.length * 2);
+                }
+                System.arraycopy(values, 0, receiverTowers, receiverLength, RECEIVER_TOWER_PARAMETER_SIZE);
+                receiverLength += RECEIVER_TOWER_PARAMETER_SIZE;
+            }
+        }
+
+        void addTo(Island island) {
+            for (int i = 0; i < transmitterLength; i += TRANSMITTER_TOWER_PARAMETER_SIZE) {
+                island.addTransmitterTower(new TransmitterTower(transmitterTowers[i],
+                        new Point(transmitterTowers[i + 1], transmitterTowers[i + 2]), transmitterTowers[i + 3]));
+            }
+            for (int i = 0; i < receiverLength; i += RECEIVER_TOWER_PARAMETER_SIZE) {
+                island.addReceiverTower(new ReceiverTower(receiverTowers[i],
+                        new Point(receiverTowers[i + 1], receiverTowers[i + 2])));
+            }
+        }
+    }
+
+    private MappedInputParser() {
+
+    }
+
+    /**
+     * Parse a file using one thread per available processor
+     *
+     * @param path The path of the file
+     * @return An Optional<Island> whose value depends on the file being readable and successful parsing
+     */
+    public static Optional<Island> parse(Path path) {
+        return parse(path, Runtime.getRuntime().availableProcessors(), MAX_CHUNK_SIZE);
+    }
+
+    /**
+     * Parse a file
+     *
+     * @param path The path of the file
+     * @param nbrOfThreads The number of threads decoding chunks
+     * @param maxChunkSize The largest number of bytes in a chunk, before moving its end to a line ending
+     * @return An Optional<Island> whose value depends on the file being readable and successful parsing
+     */
+    public static Optional<Island> parse(Path path, int nbrOfThreads, long maxChunkSize) {
+        if (nbrOfThreads <= 0) {
+            throw new IllegalArgumentException(String.format("Number of threads must be a positive integer, got %d", nbrOfThreads));
+        }
+        if (maxChunkSize <= 0 || maxChunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException(String.format("Chunk size must be between 1 and %d, got %d", MAX_CHUNK_SIZE, maxChunkSize));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            // The dimensions have to be on the first line
+            long firstChunkStart = nextLineStart(channel, 0, size);
+            int[] dimensions = new int[ISLAND_DIMENSIONS_PARAMETER_SIZE];
+            int[] nbrOfDimensions = {-1};
+            IntegerLineDecoder dimensionsDecoder = new IntegerLineDecoder((lineNumber, values, nbrOfValues) -> {
+                if (nbrOfDimensions[0] < 0) {
+                    nbrOfDimensions[0] = nbrOfValues;
+                    System.arraycopy(values, 0, dimensions, 0, Math.min(nbrOfValues, ISLAND_DIMENSIONS_PARAMETER_SIZE));
+                }
+            }, path.toString());
+            dimensionsDecoder.decode(map(channel, 0, firstChunkStart));
+            dimensionsDecoder.finish();
+            if (nbrOfDimensions[0] != ISLAND_DIMENSIONS_PARAMETER_SIZE) {
+                return Optional.empty();
+            }
+            Island island = new Island(dimensions[0], dimensions[1]);
+
+            List<Long> boundaries = new ArrayList<>();
+            boundaries.add(firstChunkStart);
+            while (boundaries.get(boundaries.size() - 1) < size) {
+                long previous = boundaries.get(boundaries.size() - 1);
+                boundaries.add(nextLineStart(channel, Math.min(size, previous + maxChunkSize), size));
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(nbrOfThreads);
+            try {
+                List<Future<TowerBuffer>> chunks = new ArrayList<>();
+                for (int chunk = 0; chunk + 1 < boundaries.size(); chunk++) {
+                    long from = boundaries.get(chunk);
+                    long to = boundaries.get(chunk + 1);
+                    chunks.add(executor.submit(() -> {
+                        TowerBuffer towers = new TowerBuffer();
+                        IntegerLineDecoder decoder = new IntegerLineDecoder(towers, String.format("%s from byte %d", path, from));
+                        decoder.decode(map(channel, from, to));
+                        decoder.finish();
+                        return towers;
+                    }));
+                }
+                for (Future<TowerBuffer> chunk : chunks) {
+                    chunk.get().addTo(island);
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while parsing " + path, exception);
+            } catch (ExecutionException exception) {
+                if (exception.getCause() instanceof IOException) {
+                    throw (IOException) exception.getCause();
+                }
+                throw new IllegalStateException("Could not parse " + path, exception.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+            return Optional.of(island);
+        } catch (IOException exception) {
+            System.err.println(String.format("Could not read file '%s': %s", path, exception));
+        }
+        return Optional.empty();
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    /**
+     * Find the start of the line following a position, treating \r\n as a single line ending.
+     *
+     * @return The position after the first line ending at or after the position, or the size of the file
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                if (b == '\r') {
+                    long next = position + i + 1;
+                    if (next < size && readByte(channel, next) == '\n') {
+                        return next + 1;
+                    }
+                    return next;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static byte readByte(FileChannel channel, long position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        channel.read(buffer, position);
+        return buffer.get(0);
+    }
+
+}
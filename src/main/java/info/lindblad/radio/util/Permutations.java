@@ -26,6 +26,54 @@ public class Permutations<T> {
         return permutations;
     }
 
+    /**
+     * Get the permuted versions of a list one at a time, in the same order as {@link #getPermutations()}.
+     *
+     * Only the permutation being returned is held in memory, so callers that may stop early, e.g. when
+     * running out of time, never pay for generating all n! permutations up front.
+     *
+     * @param originalList The list to create permutations of
+     * @param <T> The type of the elements
+     * @return The permuted versions of the list
+     */
+    public static <T> Iterable<List<T>> lazily(List<T> originalList) {
+        List<T> list = new ArrayList<>(originalList);
+        return () -> iterator(list, 0);
+    }
+
+    /**
+     * Iterate over the permutations of the elements of a list from an index onwards, by inserting the
+     * element at the index at every position of every permutation of the elements after it.
+     */
+    private static <T> Iterator<List<T>> iterator(List<T> list, int from) {
+        if (from == list.size()) {
+            return Collections.<List<T>>singletonList(new ArrayList<>()).iterator();
+        }
+        T first = list.get(from);
+        Iterator<List<T>> subLists = iterator(list, from + 1);
+        return new Iterator<List<T>>() {
+
+            private List<T> subList = null;
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return (subList != null && position <= subList.size()) || subLists.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (subList == null || position > subList.size()) {
+                    subList = subLists.next();
+                    position = 0;
+                }
+                List<T> permutedList = new ArrayList<>(subList);
+                permutedList.add(position++, first);
+                return permutedList;
+            }
+        };
+    }
+
     /**
      * Generate permutations of the provided list
      *
@@ -0,0 +1,317 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An immutable map keyed by point coordinates, where every change returns a new map.
+ *
+ * The map is a hash array mapped trie: each level of the trie consumes five bits of the hash of the
+ * packed coordinates and only stores the children that are present, together with a bitmap telling
+ * which ones they are. A change copies the nodes on the path from the root to the changed entry and
+ * shares every other node with the previous version, so an edit costs O(log n) rather than a copy of
+ * the whole map. Since the maps are never modified once created, any number of threads can read them
+ * without synchronisation.
+ *
+ * The hash is a bijective mix of the packed coordinates, so two different points never share a hash
+ * and there is no need to handle collisions.
+ *
+ * Null values are not supported.
+ *
+ * @param <V> The type of the values
+ */
+public final class PersistentPointMap<V> {
+
+    private static final int BITS_PER_LEVEL = 5;
+    private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+    private static final PersistentPointMap<?> EMPTY = new PersistentPointMap<>(null, 0);
+
+    private final Branch root;
+    private final int size;
+
+    private PersistentPointMap(Branch root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Get the empty map
+     *
+     * @param <V> The type of the values
+     * @return The empty map
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> PersistentPointMap<V> empty() {
+        return (PersistentPointMap<V>) EMPTY;
+    }
+
+    private static final class Leaf {
+        final long key;
+        final long hash;
+        final Object value;
+
+        Leaf(long key, long hash, Object value) {
+            this.key = key;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    private static final class Branch {
+        final int bitmap;
+        final Object[] children;
+
+        Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+
+        int indexOf(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+    }
+
+    /**
+     * Mix the packed coordinates so that neighbouring points spread over the trie. Every step is
+     * invertible, so distinct keys always have distinct hashes.
+     */
+    private static long hash(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static int bitAt(long hash, int shift) {
+        return 1 << ((int) (hash >>> shift) & LEVEL_MASK);
+    }
+
+    /**
+     * Get the value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int x, int y) {
+        long hash = hash(Point.pack(x, y));
+        Branch branch = root;
+        int shift = 0;
+        while (branch != null) {
+            int bit = bitAt(hash, shift);
+            if ((branch.bitmap & bit) == 0) {
+                return null;
+            }
+            Object child = branch.children[branch.indexOf(bit)];
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                return leaf.hash == hash ? (V) leaf.value : null;
+            }
+            branch = (Branch) child;
+            shift += BITS_PER_LEVEL;
+        }
+        return null;
+    }
+
+    /**
+     * Get the value stored for a point
+     *
+     * @param point The point
+     * @return The value, or null if there is none
+     */
+    public V get(Point point) {
+        return get(point.getX(), point.getY());
+    }
+
+    /**
+     * Check whether there is a value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return Whether there is a value for the point
+     */
+    public boolean containsKey(int x, int y) {
+        return get(x, y) != null;
+    }
+
+    /**
+     * Get a map where a value is stored for a point, replacing any previous value
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param value The value
+     * @return The new map
+     */
+    public PersistentPointMap<V> put(int x, int y, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("PersistentPointMap does not support null values");
+        }
+        boolean[] added = new boolean[1];
+        Branch newRoot = put(root == null ? new Branch(0, new Object[0]) : root, new Leaf(Point.pack(x, y), hash(Point.pack(x, y)), value), 0, added);
+        return new PersistentPointMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    private static Branch put(Branch branch, Leaf leaf, int shift, boolean[] added) {
+        int bit = bitAt(leaf.hash, shift);
+        int index = branch.indexOf(bit);
+        if ((branch.bitmap & bit) == 0) {
+            Object[] children = new Object[branch.children.length + 1];
+            System.arraycopy(branch.children, 0, children, 0, index);
+            children[index] = leaf;
+            System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+            added[0] = true;
+            return new Branch(branch.bitmap | bit, children);
+        }
+        Object child = branch.children[index];
+        Object newChild;
+        if (child instanceof Leaf) {
+            Leaf existing = (Leaf) child;
+            if (existing.hash == leaf.hash) {
+                newChild = leaf;
+            } else {
+                Branch split = new Branch(bitAt(existing.hash, shift + BITS_PER_LEVEL), new Object[]{existing});
+                newChild = put(split, leaf, shift + BITS_PER_LEVEL, added);
+            }
+        } else {
+            newChild = put((Branch) child, leaf, shift + BITS_PER_LEVEL, added);
+        }
+        Object[] children = branch.children.clone();
+        children[index] = newChild;
+        return new Branch(branch.bitmap, children);
+    }
+
+    /**
+     * Get a map where a value is stored for a point, replacing any previous value
+     *
+     * @param point The point
+     * @param value The value
+     * @return The new map
+     */
+    public PersistentPointMap<V> put(Point point, V value) {
+        return put(point.getX(), point.getY(), value);
+    }
+
+    /**
+     * Get a map without the value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The new map, or this map if there was no value for the point
+     */
+    public PersistentPointMap<V> remove(int x, int y) {
+        if (root == null) {
+            return this;
+        }
+        Object newRoot = remove(root, hash(Point.pack(x, y)), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        if (newRoot instanceof Leaf) {
+            newRoot = new Branch(bitAt(((Leaf) newRoot).hash, 0), new Object[]{newRoot});
+        }
+        return new PersistentPointMap<>((Branch) newRoot, size - 1);
+    }
+
+    /**
+     * Remove a hash from a branch. Returns the same branch if the hash is not present, null if the
+     * branch became empty, and a lone leaf if only one leaf remains so it can be pulled up a level.
+     */
+    private static Object remove(Branch branch, long hash, int shift) {
+        int bit = bitAt(hash, shift);
+        if ((branch.bitmap & bit) == 0) {
+            return branch;
+        }
+        int index = branch.indexOf(bit);
+        Object child = branch.children[index];
+        Object newChild;
+        if (child instanceof Leaf) {
+            if (((Leaf) child).hash != hash) {
+                return branch;
+            }
+            newChild = null;
+        } else {
+            newChild = remove((Branch) child, hash, shift + BITS_PER_LEVEL);
+            if (newChild == child) {
+                return branch;
+            }
+        }
+        if (newChild != null) {
+            Object[] children = branch.children.clone();
+            children[index] = newChild;
+            if (children.length == 1 && newChild instanceof Leaf) {
+                return newChild;
+            }
+            return new Branch(branch.bitmap, children);
+        }
+        if (branch.children.length == 1) {
+            return null;
+        }
+        if (branch.children.length == 2 && branch.children[1 - index] instanceof Leaf) {
+            return branch.children[1 - index];
+        }
+        Object[] children = new Object[branch.children.length - 1];
+        System.arraycopy(branch.children, 0, children, 0, index);
+        System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+        return new Branch(branch.bitmap & ~bit, children);
+    }
+
+    /**
+     * Get the number of entries in the map
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the map is empty
+     *
+     * @return Whether the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Visit every entry in the map, in no particular order
+     *
+     * @param consumer The consumer receiving each entry
+     */
+    public void forEach(PointMap.EntryConsumer<V> consumer) {
+        if (root != null) {
+            forEach(root, consumer);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> void forEach(Branch branch, PointMap.EntryConsumer<V> consumer) {
+        for (Object child : branch.children) {
+            if (child instanceof Leaf) {
+                Leaf leaf = (Leaf) child;
+                consumer.accept(Point.unpackX(leaf.key), Point.unpackY(leaf.key), (V) leaf.value);
+            } else {
+                forEach((Branch) child, consumer);
+            }
+        }
+    }
+
+    /**
+     * Get a list of all values in the map, in no particular order
+     *
+     * @return List of values
+     */
+    public List<V> values() {
+        List<V> values = new ArrayList<>(size);
+        forEach((x, y, value) -> values.add(value));
+        return values;
+    }
+
+}
@@ -0,0 +1,393 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Point;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An open-addressing hash map keyed by point coordinates.
+ *
+ * The (x, y) coordinates are packed into a single long, so neither lookups nor insertions need to
+ * allocate a Point or box a key. Collisions are resolved by linear probing and removals shift the
+ * following entries back, so no tombstones are needed.
+ *
+ * Null values are not supported.
+ *
+ * @param <V> The type of the values
+ */
+public class PointMap<V> {
+
+    /**
+     * Callback receiving the coordinates and value of each entry in the map.
+     *
+     * @param <V> The type of the values
+     */
+    public interface EntryConsumer<V> {
+        void accept(int x, int y, V value);
+    }
+
+    private static final int MINIMUM_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    public PointMap() {
+        this(MINIMUM_CAPACITY);
+    }
+
+    /**
+     * Create a map with room for a given number of entries before it needs to grow
+     *
+     * @param expectedSize The expected number of entries
+     */
+    public PointMap(int expectedSize) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity < 2L * expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Spread the packed coordinates over the table. The multiplication mixes the X coordinate
+     * in the upper half into the lower bits, which neighbouring grid points would otherwise share.
+     */
+    private int slotOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private int indexOf(long key) {
+        int slot = slotOf(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -(slot + 1);
+    }
+
+    /**
+     * Get the value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The value, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int x, int y) {
+        int index = indexOf(Point.pack(x, y));
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    /**
+     * Get the value stored for a point
+     *
+     * @param point The point
+     * @return The value, or null if there is none
+     */
+    public V get(Point point) {
+        return get(point.getX(), point.getY());
+    }
+
+    /**
+     * Check whether there is a value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return Whether there is a value for the point
+     */
+    public boolean containsKey(int x, int y) {
+        return indexOf(Point.pack(x, y)) >= 0;
+    }
+
+    /**
+     * Check whether there is a value stored for a point
+     *
+     * @param point The point
+     * @return Whether there is a value for the point
+     */
+    public boolean containsKey(Point point) {
+        return containsKey(point.getX(), point.getY());
+    }
+
+    /**
+     * Store a value for a point, replacing any previous value
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param value The value
+     * @return The previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int x, int y, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("PointMap does not support null values");
+        }
+        long key = Point.pack(x, y);
+        int index = indexOf(key);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        if (2 * (size + 1) > keys.length) {
+            grow();
+            index = indexOf(key);
+        }
+        int slot = -(index + 1);
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Store a value for a point, replacing any previous value
+     *
+     * @param point The point
+     * @param value The value
+     * @return The previous value, or null if there was none
+     */
+    public V put(Point point, V value) {
+        return put(point.getX(), point.getY(), value);
+    }
+
+    /**
+     * Remove the value stored for a point
+     *
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @return The removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int x, int y) {
+        int index = indexOf(Point.pack(x, y));
+        if (index < 0) {
+            return null;
+        }
+        V removed = (V) values[index];
+        values[index] = null;
+        size--;
+
+        // Shift back any following entries whose probe sequence passes through the freed slot
+        int free = index;
+        int slot = (index + 1) & mask;
+        while (values[slot] != null) {
+            int home = slotOf(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - free) & mask)) {
+                keys[free] = keys[slot];
+                values[free] = values[slot];
+                values[slot] = null;
+                free = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return removed;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(keys.length * 2);
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != null) {
+                int index = -(indexOf(oldKeys[slot]) + 1);
+                keys[index] = oldKeys[slot];
+                values[index] = oldValues[slot];
+            }
+        }
+    }
+
+    /**
+     * Get the number of entries in the map
+     *
+     * @return The number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the map is empty
+     *
+     * @return Whether the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove all entries from the map
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Visit every entry in the map, in no particular order
+     *
+     * @param consumer The consumer receiving each entry
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<V> consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(Point.unpackX(keys[slot]), Point.unpackY(keys[slot]), (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Get a list of all values in the map, in no particular order
+     *
+     * @return List of values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> list = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                list.add((V) value);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Get a read-only view of the points in the map. Changes to the map are reflected in the view.
+     *
+     * Lookups do not allocate, iterating the view creates a point per entry.
+     *
+     * @return Set of points
+     */
+    public Set<Point> keySet() {
+        return new AbstractSet<Point>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Point && containsKey((Point) o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Iterator<Point> iterator() {
+                return new SlotIterator<Point>() {
+                    @Override
+                    Point at(int slot) {
+                        return new Point(Point.unpackX(keys[slot]), Point.unpackY(keys[slot]));
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get a read-only view of the map as a {@link Map} keyed by points. Changes to the map are reflected
+     * in the view, while any attempt to change the view throws an {@link UnsupportedOperationException}.
+     *
+     * Lookups do not allocate, iterating the entries creates a point per entry.
+     *
+     * @return Map view
+     */
+    public Map<Point, V> asMap() {
+        return new AbstractMap<Point, V>() {
+            @Override
+            public V get(Object key) {
+                return key instanceof Point ? PointMap.this.get((Point) key) : null;
+            }
+
+            @Override
+            public boolean containsKey(Object key) {
+                return key instanceof Point && PointMap.this.containsKey((Point) key);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public Set<Point> keySet() {
+                return PointMap.this.keySet();
+            }
+
+            @Override
+            public Set<Entry<Point, V>> entrySet() {
+                return new AbstractSet<Entry<Point, V>>() {
+                    @Override
+                    public int size() {
+                        return size;
+                    }
+
+                    @Override
+                    public Iterator<Entry<Point, V>> iterator() {
+                        return new SlotIterator<Entry<Point, V>>() {
+                            @Override
+                            @SuppressWarnings("unchecked")
+                            Entry<Point, V> at(int slot) {
+                                Point point = new Point(Point.unpackX(keys[slot]), Point.unpackY(keys[slot]));
+                                return new SimpleImmutableEntry<>(point, (V) values[slot]);
+                            }
+                        };
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Iterator over the occupied slots of the table, in no particular order
+     */
+    private abstract class SlotIterator<E> implements Iterator<E> {
+
+        private int slot = -1;
+
+        abstract E at(int slot);
+
+        private int nextSlot() {
+            int next = slot + 1;
+            while (next < values.length && values[next] == null) {
+                next++;
+            }
+            return next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot() < values.length;
+        }
+
+        @Override
+        public E next() {
+            int next = nextSlot();
+            if (next >= values.length) {
+                throw new NoSuchElementException();
+            }
+            slot = next;
+            return at(slot);
+        }
+    }
+
+}
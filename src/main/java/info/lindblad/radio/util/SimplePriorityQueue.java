@@ -25,29 +25,36 @@ public class SimplePriorityQueue<E> extends TreeMap<Integer, HashSet<E>> {
         if (!containsKey(key)) {
             super.put(key, new HashSet<>());
         }
-        super.get(key).add(value);
-        nbrOfElements++;
+        if (super.get(key).add(value)) {
+            nbrOfElements++;
+        }
         return super.get(key);
     }
 
     /**
-     * Poll the element with the largest priority number
+     * Poll the elements with the largest priority number
      *
-     * @return Entry for the element with the largest priority number
+     * @return Entry for the elements with the largest priority number, or null if the queue is empty
      */
     public Map.Entry<Integer, HashSet<E>> pollLargest() {
-        nbrOfElements--;
-        return pollLastEntry();
+        Map.Entry<Integer, HashSet<E>> entry = pollLastEntry();
+        if (entry != null) {
+            nbrOfElements -= entry.getValue().size();
+        }
+        return entry;
     }
 
     /**
-     * Poll the element with the smallest priority number
+     * Poll the elements with the smallest priority number
      *
-     * @return Entry for the element with the smallest priority number
+     * @return Entry for the elements with the smallest priority number, or null if the queue is empty
      */
     public Map.Entry<Integer, HashSet<E>> pollSmallest() {
-        nbrOfElements--;
-        return pollFirstEntry();
+        Map.Entry<Integer, HashSet<E>> entry = pollFirstEntry();
+        if (entry != null) {
+            nbrOfElements -= entry.getValue().size();
+        }
+        return entry;
     }
 
     @Override
@@ -0,0 +1,79 @@
+package info.lindblad.radio;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.IslandFixtures;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+public class TestEventStream extends TestCase {
+
+    public TestEventStream(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestEventStream.class);
+    }
+
+    private static String run(EventStream eventStream, String events) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        eventStream.run(new ByteArrayInputStream(events.getBytes(StandardCharsets.UTF_8)), output);
+        return new String(output.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    public void testEvents() {
+        EventStream eventStream = new EventStream(IslandFixtures.knownBadCoverageIsland(), 1);
+        String output = run(eventStream, "P 4 5\n# comment\n\nO 4\nT 5 7 7 1\nR 4 9 0\n");
+        assertEquals("3/3 +2\n1/3 -2 -3\n2/3 +2\n2/4 -4\n", output);
+    }
+
+    public void testMicroBatches() {
+        EventStream eventStream = new EventStream(IslandFixtures.knownBadCoverageIsland(), 2);
+        // Receiver tower two gains and loses coverage within the first batch, so it is not reported
+        String output = run(eventStream, "P 4 5\nP 4 3\nR 4 9 0\n");
+        assertEquals("2/3\n2/4 -4\n", output);
+    }
+
+    public void testInvalidEventsAreSkipped() {
+        EventStream eventStream = new EventStream(IslandFixtures.knownBadCoverageIsland(), 1);
+        String output = run(eventStream, "P 9 5\nX 1\nP 4\nP 4 -1\nP 4 x\nP 4 5\n");
+        assertEquals("3/3 +2\n", output);
+    }
+
+    /**
+     * Test that a long stream of events is applied, with one line of output per event
+     */
+    public void testManyEvents() {
+        Island island = new Island(1000, 1000);
+        Random random = new Random(46);
+        for (int id = 1; id <= 1000; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(1000), random.nextInt(1000)), random.nextInt(10)));
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(1000), random.nextInt(1000))));
+        }
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        StringBuilder events = new StringBuilder();
+        int nbrOfEvents = 100_000;
+        for (int i = 0; i < nbrOfEvents; i++) {
+            TransmitterTower transmitterTower = transmitterTowers.get(i % transmitterTowers.size());
+            events.append("P ").append(transmitterTower.getId()).append(' ').append(random.nextInt(20)).append('\n');
+        }
+
+        EventStream eventStream = new EventStream(island, 1);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long applied = eventStream.run(new ByteArrayInputStream(events.toString().getBytes(StandardCharsets.UTF_8)), output);
+        assertEquals(nbrOfEvents, applied);
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertEquals(nbrOfEvents, lines.length);
+    }
+
+}
@@ -0,0 +1,179 @@
+package info.lindblad.radio;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.solver.MatrixSolver;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TestServer extends TestCase {
+
+    private static final String KNOWN_ISLAND = "10 10\n1 2 5 1\n2 0 6 3\n3 1 2 2\n4 3 5 3\n1 0 1\n2 8 8\n3 6 5\n";
+
+    public TestServer(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestServer.class);
+    }
+
+    private static class Response {
+        final int status;
+        final String contentType;
+        final String body;
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+    }
+
+    private static Response request(Server server, String method, String path, String contentType, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        if (inputStream != null) {
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                response.write(buffer, 0, read);
+            }
+            inputStream.close();
+        }
+        return new Response(status, connection.getContentType(), new String(response.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * An island where no receiver tower has coverage, so solving it takes far longer than any test should.
+     */
+    private static String hardIsland() {
+        Island island = new Island(200, 200);
+        for (int id = 1; id <= 10; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(id * 17, id * 13), 1));
+        }
+        for (int id = 1; id <= 14; id++) {
+            island.addReceiverTower(new ReceiverTower(id, new Point((id * 37) % 200, (id * 91) % 200)));
+        }
+        return island.serialise();
+    }
+
+    /**
+     * Test solving the known case from the problem statement, in the text format and as JSON.
+     */
+    public void testSolve() throws IOException {
+        Server server = new Server(0, 2, 60_000, 1 << 20, 1000, 1000);
+        server.start();
+        try {
+            Response text = request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND);
+            assertEquals(200, text.status);
+            assertEquals("2/3\n4 5\n", text.body);
+
+            String json = "{\"sizeX\":10,\"sizeY\":10,\"transmitters\":["
+                    + "{\"id\":1,\"x\":2,\"y\":5,\"power\":1},{\"id\":2,\"x\":0,\"y\":6,\"power\":3},"
+                    + "{\"id\":3,\"x\":1,\"y\":2,\"power\":2},{\"id\":4,\"x\":3,\"y\":5,\"power\":3}],"
+                    + "\"receivers\":[{\"id\":1,\"x\":0,\"y\":1},{\"id\":2,\"x\":8,\"y\":8},{\"id\":3,\"x\":6,\"y\":5}]}";
+            Response response = request(server, "POST", "/solve", "application/json", json);
+            assertEquals(200, response.status);
+            assertTrue(response.contentType.startsWith("application/json"));
+            assertEquals("{\"coverage\":\"2/3\",\"receiversWithCoverage\":2,\"receivers\":3,\"complete\":true,"
+                    + "\"changes\":[{\"id\":4,\"power\":5}]}\n", response.body);
+
+            assertEquals(200, request(server, "GET", "/health", null, null).status);
+            assertEquals(405, request(server, "GET", "/solve", null, null).status);
+            assertEquals(400, request(server, "POST", "/solve", "text/plain", "not an island").status);
+            assertEquals(400, request(server, "POST", "/solve", "application/json", "{").status);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Test that islands that are too large are rejected.
+     */
+    public void testMaximumSize() throws IOException {
+        Server server = new Server(0, 2, 60_000, 64, 3, 10);
+        server.start();
+        try {
+            assertEquals(413, request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND + KNOWN_ISLAND).status);
+            assertEquals(413, request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND).status);
+            assertEquals(413, request(server, "POST", "/solve", "text/plain", "11 5\n1 1 1 1\n1 4 4\n").status);
+            assertEquals(413, request(server, "POST", "/solve", "text/plain", "5 11\n1 1 1 1\n1 4 4\n").status);
+            assertEquals(413, request(server, "POST", "/solve", "text/plain", "5 5\n1 1 1 11\n1 4 4\n").status);
+            assertEquals(200, request(server, "POST", "/solve", "text/plain", "5 5\n1 1 1 1\n1 4 4\n").status);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Test that a slow island times out, and that the next request is admitted as soon as it has been answered.
+     */
+    public void testTimeout() throws IOException {
+        Server server = new Server(0, 1, 1000, 1 << 20, 1000, 1000);
+        server.start();
+        try {
+            assertEquals(504, request(server, "POST", "/solve", "text/plain", hardIsland()).status);
+            assertEquals(200, request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND).status);
+        } finally {
+            server.stop();
+        }
+    }
+
+    /**
+     * Test that requests beyond the concurrency limit are turned away while an island is being solved.
+     */
+    public void testAdmission() throws Exception {
+        CountDownLatch solving = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Server server = new Server(0, 1, 60_000, 1 << 20, 1000, 1000, (island, timeoutMillis) -> {
+            solving.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+            return new MatrixSolver().solve(island, timeoutMillis);
+        });
+        server.start();
+        ExecutorService client = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> held = client.submit(() -> request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND));
+            solving.await();
+            assertEquals(503, request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND).status);
+            finish.countDown();
+            assertEquals(200, held.get().status);
+            assertEquals(200, request(server, "POST", "/solve", "text/plain", KNOWN_ISLAND).status);
+        } finally {
+            finish.countDown();
+            client.shutdownNow();
+            server.stop();
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package info.lindblad.radio.benchmark;
+
+import info.lindblad.radio.coverage.HeapCoverageRaster;
+import info.lindblad.radio.model.IndexedIsland;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.SpaceFillingCurve;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.solver.model.Matrix;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the coverage build time and the matrix (distance table) throughput for large islands
+ * with the towers in map order and ordered along the Morton and Hilbert curves.
+ *
+ * Not run as part of the tests. Run it after building with:
+ *
+ *     $ mvn test-compile
+ *     $ java -cp target/classes:target/test-classes info.lindblad.radio.benchmark.OrderingBenchmark [size] [towers]
+ */
+public class OrderingBenchmark {
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 6000;
+        int nbrOfTowers = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+        Random random = new Random(36);
+        Island island = new Island(size, size);
+        for (int id = 1; id <= nbrOfTowers; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(size), random.nextInt(size)), random.nextInt(16)));
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(size), random.nextInt(size))));
+        }
+        System.out.println(String.format("Island of %d x %d with %d transmitter towers and %d receiver towers",
+                size, size, island.getNbrOfTransmitterTowers(), island.getNbrOfReceiverTowers()));
+
+        HeapCoverageRaster raster = new HeapCoverageRaster(size, size);
+        for (SpaceFillingCurve ordering : SpaceFillingCurve.values()) {
+            List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+            List<TransmitterTower> orderedTransmitterTowers = null;
+            long sortTime = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                orderedTransmitterTowers = ordering.sort(transmitterTowers);
+                sortTime = Math.min(sortTime, System.nanoTime() - start);
+            }
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                clear(raster);
+                long start = System.nanoTime();
+                raster.fill(orderedTransmitterTowers);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.println(String.format("Coverage build, %-7s: %8.1f ms (ordering %.1f ms)", ordering, best / 1e6, sortTime / 1e6));
+        }
+
+        // The matrix holds one row per transmitter tower and one column per receiver tower, so only a
+        // corner of the island is used to keep the table in memory.
+        int nbrOfRows = Math.min(2000, nbrOfTowers);
+        int nbrOfColumns = Math.min(2000, nbrOfTowers);
+        List<TransmitterTower> transmitterTowers = new ArrayList<>(island.getTransmitterTowerList().subList(0, nbrOfRows));
+        List<ReceiverTower> receiverTowers = new ArrayList<>(island.getReceiverTowerList().subList(0, nbrOfColumns));
+        for (SpaceFillingCurve ordering : SpaceFillingCurve.values()) {
+            List<TransmitterTower> orderedTransmitterTowers = ordering.sort(transmitterTowers);
+            List<ReceiverTower> orderedReceiverTowers = ordering.sort(receiverTowers);
+            IndexedIsland indexedIsland = new IndexedIsland(island.getBounds(), orderedTransmitterTowers, orderedReceiverTowers);
+            int[] receiverOrdinals = new int[orderedReceiverTowers.size()];
+            for (int receiver = 0; receiver < receiverOrdinals.length; receiver++) {
+                receiverOrdinals[receiver] = receiver;
+            }
+            long best = Long.MAX_VALUE;
+            long checksum = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                Matrix matrix = new Matrix(indexedIsland, orderedTransmitterTowers, orderedReceiverTowers, receiverOrdinals);
+                for (int column = 0; column < matrix.getNbrOfColumns(); column += 97) {
+                    checksum += matrix.getMinimumRows(column).size();
+                }
+                checksum += indexedIsland.getReceiverOrdinalsWithoutCoverage().length;
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.println(String.format("Matrix %d x %d, %-7s: %8.1f ms (%d)", nbrOfRows, nbrOfColumns, ordering, best / 1e6, checksum));
+        }
+    }
+
+    private static void clear(HeapCoverageRaster raster) {
+        for (int y = 0; y < raster.getSizeY(); y++) {
+            for (int x = 0; x < raster.getSizeX(); x++) {
+                raster.setCount(x, y, 0);
+            }
+        }
+    }
+
+}
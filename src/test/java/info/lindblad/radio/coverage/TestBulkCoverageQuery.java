@@ -0,0 +1,102 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class TestBulkCoverageQuery extends TestCase {
+
+    public TestBulkCoverageQuery(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestBulkCoverageQuery.class);
+    }
+
+    private static Island randomIsland(long seed, int sizeX, int sizeY, int nbrOfTransmitterTowers) {
+        Random random = new Random(seed);
+        Island island = new Island(sizeX, sizeY);
+        for (int id = 1; id <= nbrOfTransmitterTowers; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(sizeX), random.nextInt(sizeY)), random.nextInt(5)));
+        }
+        return island;
+    }
+
+    /**
+     * Test that the covering transmitter towers of every point agree with the dense coverage
+     */
+    public void testMatchesCoverage() {
+        Island island = randomIsland(47, 30, 25, 15);
+        Coverage coverage = new Coverage(island);
+        Random random = new Random(47);
+        int nbrOfPoints = 2000;
+        int[] xs = new int[nbrOfPoints];
+        int[] ys = new int[nbrOfPoints];
+        for (int i = 0; i < nbrOfPoints; i++) {
+            // Include points outside the island
+            xs[i] = random.nextInt(40) - 5;
+            ys[i] = random.nextInt(35) - 5;
+        }
+
+        BulkCoverageQuery.Result result = new BulkCoverageQuery(new SquareUnionCoverage(island), 1).query(xs, ys);
+        assertEquals(nbrOfPoints, result.size());
+        assertEquals(nbrOfPoints + 1, result.getOffsets().length);
+        for (int i = 0; i < nbrOfPoints; i++) {
+            int[] expected = new int[0];
+            if (xs[i] >= 0 && ys[i] >= 0 && island.getBounds().contains(new Point(xs[i], ys[i]))) {
+                expected = coverage.getTransmitterTowersCovering(new Point(xs[i], ys[i])).stream().mapToInt(TransmitterTower::getId).sorted().toArray();
+            }
+            assertTrue(Arrays.equals(expected, result.getCovering(i)));
+            assertEquals(expected.length > 0, result.hasSignal(i));
+            assertEquals(expected.length, result.getNbrOfCovering(i));
+        }
+    }
+
+    /**
+     * Test that a batch large enough to be split between threads gives the same result as a serial lookup
+     */
+    public void testParallelMatchesSerial() {
+        Island island = randomIsland(7, 2000, 2000, 5000);
+        SquareUnionCoverage coverage = new SquareUnionCoverage(island);
+        Random random = new Random(7);
+        int nbrOfPoints = BulkCoverageQuery.PARALLEL_THRESHOLD + 1000;
+        int[] xs = new int[nbrOfPoints];
+        int[] ys = new int[nbrOfPoints];
+        for (int i = 0; i < nbrOfPoints; i++) {
+            xs[i] = random.nextInt(2000);
+            ys[i] = random.nextInt(2000);
+        }
+
+        BulkCoverageQuery.Result serial = new BulkCoverageQuery(coverage, 1).query(xs, ys);
+        BulkCoverageQuery.Result parallel = new BulkCoverageQuery(coverage, 4).query(xs, ys);
+        assertTrue(Arrays.equals(serial.getOffsets(), parallel.getOffsets()));
+        assertTrue(Arrays.equals(serial.getTransmitterTowerIds(), parallel.getTransmitterTowerIds()));
+        for (int i = 0; i < nbrOfPoints; i += 1000) {
+            assertEquals(coverage.countCovering(xs[i], ys[i]), parallel.getNbrOfCovering(i));
+        }
+    }
+
+    public void testEmptyBatch() {
+        BulkCoverageQuery.Result result = new BulkCoverageQuery(randomIsland(1, 10, 10, 3)).query(new int[0], new int[0]);
+        assertEquals(0, result.size());
+        assertEquals(0, result.getTransmitterTowerIds().length);
+    }
+
+    public void testMismatchedCoordinates() {
+        try {
+            new BulkCoverageQuery(randomIsland(1, 10, 10, 3)).query(new int[2], new int[3]);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestCoveragePyramid extends TestCase {
+
+    public TestCoveragePyramid(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestCoveragePyramid.class);
+    }
+
+    private static HeapCoverageRaster randomRaster(int sizeX, int sizeY, long seed) {
+        Random random = new Random(seed);
+        List<TransmitterTower> transmitterTowers = new ArrayList<>();
+        for (int id = 1; id <= 60; id++) {
+            transmitterTowers.add(new TransmitterTower(id, new Point(random.nextInt(sizeX), random.nextInt(sizeY)), random.nextInt(60)));
+        }
+        HeapCoverageRaster raster = new HeapCoverageRaster(sizeX, sizeY);
+        raster.fill(transmitterTowers);
+        return raster;
+    }
+
+    /**
+     * Test rectangle counts and any/all queries against a brute force scan of the raster.
+     */
+    public void testRectangleQueries() {
+        HeapCoverageRaster raster = randomRaster(1100, 700, 5);
+        CoveragePyramid pyramid = new CoveragePyramid(raster);
+        Random random = new Random(5);
+        for (int i = 0; i < 300; i++) {
+            int x0 = random.nextInt(1100);
+            int y0 = random.nextInt(700);
+            int x1 = x0 + random.nextInt(i % 3 == 0 ? 1100 - x0 : Math.min(20, 1100 - x0));
+            int y1 = y0 + random.nextInt(i % 3 == 0 ? 700 - y0 : Math.min(20, 700 - y0));
+            long expected = 0;
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    if (raster.hasSignal(x, y)) {
+                        expected++;
+                    }
+                }
+            }
+            long area = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+            assertEquals(expected, pyramid.countCovered(x0, y0, x1, y1));
+            assertEquals(expected > 0, pyramid.anyCovered(x0, y0, x1, y1));
+            assertEquals(expected == area, pyramid.allCovered(x0, y0, x1, y1));
+        }
+    }
+
+    /**
+     * Test the block counts and fractions used for rendering coarse tiles.
+     */
+    public void testCoarseTiles() {
+        HeapCoverageRaster raster = new HeapCoverageRaster(600, 100);
+        raster.addRectangle(0, 0, 511, 99);
+        CoveragePyramid pyramid = new CoveragePyramid(raster);
+
+        assertEquals(2, pyramid.getNbrOfBlocksX(2));
+        assertEquals(1, pyramid.getNbrOfBlocksY(2));
+        assertEquals(512 * 100, pyramid.getCoveredCount(2, 0, 0));
+        assertEquals(1.0, pyramid.getCoveredFraction(2, 0, 0));
+        assertEquals(0.0, pyramid.getCoveredFraction(2, 1, 0));
+        assertEquals(1.0, pyramid.getCoveredFraction(0, 0, 12));
+        assertEquals(512L * 100, pyramid.countCovered(0, 0, 599, 99));
+    }
+
+}
@@ -0,0 +1,118 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+public class TestDeadZoneAnalysis extends TestCase {
+
+    public TestDeadZoneAnalysis(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestDeadZoneAnalysis.class);
+    }
+
+    /**
+     * Test an island where a transmitter tower splits the island into two dead zones.
+     *
+     *   x   x   *   *   *   x
+     *   x   x   *   T1  *   x
+     *   x   x   *   *   *   x
+     *
+     */
+    public void testTwoDeadZones() {
+        Island island = new Island(6, 3);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(3, 1), 1));
+        HeapCoverageRaster raster = new ParallelCoverageBuilder(1).build(island);
+
+        List<DeadZone> deadZones = DeadZoneAnalysis.findDeadZones(raster);
+        assertEquals(2, deadZones.size());
+
+        DeadZone largest = deadZones.get(0);
+        assertEquals(6, largest.getNbrOfPoints());
+        assertEquals(0, largest.getMinX());
+        assertEquals(0, largest.getMinY());
+        assertEquals(1, largest.getMaxX());
+        assertEquals(2, largest.getMaxY());
+        assertEquals(0.5, largest.getCentroidX());
+        assertEquals(1.0, largest.getCentroidY());
+
+        DeadZone smallest = deadZones.get(1);
+        assertEquals(3, smallest.getNbrOfPoints());
+        assertEquals(5, smallest.getMinX());
+        assertEquals(5.0, smallest.getCentroidX());
+    }
+
+    /**
+     * Test that the region sizes match a flood fill over a random raster, including regions
+     * that only join up several rows further down.
+     */
+    public void testMatchesFloodFill() {
+        int sizeX = 120;
+        int sizeY = 90;
+        Random random = new Random(17);
+        HeapCoverageRaster raster = new HeapCoverageRaster(sizeX, sizeY);
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                raster.setCount(x, y, random.nextInt(100) < 45 ? 1 : 0);
+            }
+        }
+
+        List<Long> expected = new ArrayList<>();
+        boolean[] visited = new boolean[sizeX * sizeY];
+        for (int start = 0; start < visited.length; start++) {
+            if (visited[start] || raster.hasSignal(start % sizeX, start / sizeX)) {
+                continue;
+            }
+            long size = 0;
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(start);
+            visited[start] = true;
+            while (!queue.isEmpty()) {
+                int index = queue.poll();
+                size++;
+                int x = index % sizeX;
+                int y = index / sizeX;
+                int[][] neighbours = {{x - 1, y}, {x + 1, y}, {x, y - 1}, {x, y + 1}};
+                for (int[] neighbour : neighbours) {
+                    int nx = neighbour[0];
+                    int ny = neighbour[1];
+                    if (nx >= 0 && nx < sizeX && ny >= 0 && ny < sizeY && !visited[ny * sizeX + nx] && !raster.hasSignal(nx, ny)) {
+                        visited[ny * sizeX + nx] = true;
+                        queue.add(ny * sizeX + nx);
+                    }
+                }
+            }
+            expected.add(size);
+        }
+        expected.sort(Collections.reverseOrder());
+
+        List<Long> actual = new ArrayList<>();
+        for (DeadZone deadZone : DeadZoneAnalysis.findDeadZones(raster)) {
+            actual.add(deadZone.getNbrOfPoints());
+        }
+        assertEquals(expected, actual);
+    }
+
+    /**
+     * Test that a fully covered island has no dead zones.
+     */
+    public void testNoDeadZones() {
+        HeapCoverageRaster raster = new HeapCoverageRaster(10, 10);
+        raster.addRectangle(0, 0, 9, 9);
+        assertTrue(DeadZoneAnalysis.findDeadZones(raster).isEmpty());
+    }
+
+}
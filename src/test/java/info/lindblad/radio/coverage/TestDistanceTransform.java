@@ -0,0 +1,92 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class TestDistanceTransform extends TestCase {
+
+    public TestDistanceTransform(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestDistanceTransform.class);
+    }
+
+    /**
+     * Test that the distance and closest points match a brute force search over a sparse random grid.
+     */
+    public void testMatchesBruteForce() {
+        int sizeX = 23;
+        int sizeY = 17;
+        Random random = new Random(42);
+        boolean[] covered = new boolean[sizeX * sizeY];
+        Set<Point> coveredPoints = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            int x = random.nextInt(sizeX);
+            int y = random.nextInt(sizeY);
+            covered[y * sizeX + x] = true;
+            coveredPoints.add(new Point(x, y));
+        }
+
+        DistanceTransform distanceTransform = new DistanceTransform(sizeX, sizeY, covered);
+
+        for (int y = 0; y < sizeY; y++) {
+            for (int x = 0; x < sizeX; x++) {
+                Point point = new Point(x, y);
+                Set<Point> expected = Point.closestNeighbours(point, coveredPoints);
+                int expectedDistance = expected.iterator().next().distance(point);
+                assertEquals(expectedDistance, distanceTransform.getDistanceToSignal(point));
+                assertEquals(expected, distanceTransform.getNearestPointsWithSignal(point));
+                assertEquals(expectedDistance, distanceTransform.getNearestPointWithSignal(point).get().distance(point));
+            }
+        }
+    }
+
+    /**
+     * Test that an island without any signal reports no distance and no closest points.
+     */
+    public void testNoSignal() {
+        DistanceTransform distanceTransform = new DistanceTransform(4, 3, new boolean[12]);
+        assertEquals(DistanceTransform.NO_SIGNAL, distanceTransform.getDistanceToSignal(2, 1));
+        assertFalse(distanceTransform.getNearestPointWithSignal(new Point(2, 1)).isPresent());
+        assertTrue(distanceTransform.getNearestPointsWithSignal(new Point(2, 1)).isEmpty());
+    }
+
+    /**
+     * Test that the coverage uses the transform to find the closest points with signal.
+     *
+     *   x   x   x   x   x   x
+     *   x   x   x   x   x   x
+     *   *   *   *   x   x   x
+     *   *   T1  *   x   x   x
+     *   *   *   *   x   x   x
+     *
+     */
+    public void testCoverageClosestPoints() {
+        Island island = new Island(6, 5);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(1, 1), 1));
+        Coverage coverage = new Coverage(island);
+
+        Set<Point> expected = new HashSet<>();
+        expected.add(new Point(2, 2));
+        assertEquals(expected, coverage.findClosestPointsWithSignal(new Point(4, 4)));
+        assertEquals(2, coverage.getDistanceTransform().getDistanceToSignal(4, 4));
+
+        expected.clear();
+        expected.add(new Point(2, 0));
+        expected.add(new Point(2, 1));
+        expected.add(new Point(2, 2));
+        assertEquals(expected, coverage.findClosestPointsWithSignal(new Point(3, 1)));
+    }
+
+}
@@ -0,0 +1,147 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.solver.Solver;
+import info.lindblad.radio.util.IslandFixtures;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class TestIncrementalCoverage extends TestCase {
+
+    public TestIncrementalCoverage(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIncrementalCoverage.class);
+    }
+
+    /**
+     * Test the known case from the problem statement, where raising transmitter tower 4 to power 5 covers receiver tower two
+     */
+    public void testKnownBadCoverageCase() {
+        IncrementalCoverage coverage = new IncrementalCoverage(IslandFixtures.knownBadCoverageIsland());
+        assertEquals(3, coverage.getNbrOfReceiverTowers());
+        assertEquals(2, coverage.getNbrOfReceiverTowersWithCoverage());
+
+        Map<ReceiverTower, Boolean> changes = new HashMap<>();
+        coverage.setPower(4, 5, changes::put);
+        assertEquals(3, coverage.getNbrOfReceiverTowersWithCoverage());
+        assertEquals(1, changes.size());
+        assertEquals(Boolean.TRUE, changes.get(new ReceiverTower(2, new Point(8, 8))));
+        assertEquals(5, coverage.getIsland().getTransmitterTower(3, 5).getPower());
+
+        changes.clear();
+        coverage.removeTransmitterTower(4, changes::put);
+        assertEquals(1, coverage.getNbrOfReceiverTowersWithCoverage());
+        assertEquals(2, changes.size());
+        assertEquals(Boolean.FALSE, changes.get(new ReceiverTower(3, new Point(6, 5))));
+        assertNull(coverage.getIsland().getTransmitterTower(3, 5));
+        assertNull(coverage.getTransmitterTower(4));
+
+        changes.clear();
+        coverage.addReceiverTower(new ReceiverTower(4, new Point(1, 1)), changes::put);
+        assertEquals(4, coverage.getNbrOfReceiverTowers());
+        assertEquals(2, coverage.getNbrOfReceiverTowersWithCoverage());
+        assertEquals(Boolean.TRUE, changes.get(new ReceiverTower(4, new Point(1, 1))));
+    }
+
+    public void testUnknownTransmitterTower() {
+        IncrementalCoverage coverage = new IncrementalCoverage(IslandFixtures.knownBadCoverageIsland());
+        try {
+            coverage.setPower(5, 1, (receiverTower, hasSignal) -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        try {
+            coverage.removeTransmitterTower(5, (receiverTower, hasSignal) -> { });
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test that changes outside the island or to a negative power level are rejected before anything changes
+     */
+    public void testInvalidChanges() {
+        Island island = IslandFixtures.knownBadCoverageIsland();
+        IncrementalCoverage coverage = new IncrementalCoverage(island);
+        List<ReceiverTower> changes = new ArrayList<>();
+        try {
+            coverage.setPower(4, -1, (receiverTower, hasSignal) -> changes.add(receiverTower));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        try {
+            coverage.addTransmitterTower(new TransmitterTower(4, new Point(10, 5), 5), (receiverTower, hasSignal) -> changes.add(receiverTower));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        try {
+            coverage.addReceiverTower(new ReceiverTower(4, new Point(-1, 0)), (receiverTower, hasSignal) -> changes.add(receiverTower));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        assertTrue(changes.isEmpty());
+        assertEquals(IslandFixtures.knownBadCoverageIsland(), island);
+        assertEquals(3, coverage.getNbrOfReceiverTowers());
+        assertEquals(2, coverage.getNbrOfReceiverTowersWithCoverage());
+        assertEquals(3, coverage.getTransmitterTower(4).getPower());
+    }
+
+    /**
+     * Test that the coverage kept up to date after random events agrees with the coverage computed from scratch
+     */
+    public void testRandomEvents() {
+        Random random = new Random(46);
+        for (int i = 0; i < 20; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            IncrementalCoverage coverage = new IncrementalCoverage(island);
+            int nextId = 100;
+            for (int event = 0; event < 200; event++) {
+                List<TransmitterTower> transmitterTowers = new ArrayList<>(island.getTransmitterTowerList());
+                Point point = new Point(random.nextInt(island.getBounds().getSizeX()), random.nextInt(island.getBounds().getSizeY()));
+                Set<ReceiverTower> before = Solver.getReceiverTowersWithoutCoverage(island);
+                Map<ReceiverTower, Boolean> changes = new HashMap<>();
+                int type = random.nextInt(4);
+                if (type == 0 && !transmitterTowers.isEmpty()) {
+                    coverage.setPower(transmitterTowers.get(random.nextInt(transmitterTowers.size())).getId(), random.nextInt(8), changes::put);
+                } else if (type == 1 && !transmitterTowers.isEmpty()) {
+                    coverage.removeTransmitterTower(transmitterTowers.get(random.nextInt(transmitterTowers.size())).getId(), changes::put);
+                } else if (type == 2) {
+                    coverage.addTransmitterTower(new TransmitterTower(nextId++, point, random.nextInt(8)), changes::put);
+                } else if (type == 3) {
+                    coverage.addReceiverTower(new ReceiverTower(nextId++, point), changes::put);
+                }
+
+                Set<ReceiverTower> after = Solver.getReceiverTowersWithoutCoverage(island);
+                assertEquals(island.getNbrOfReceiverTowers(), coverage.getNbrOfReceiverTowers());
+                assertEquals(island.getNbrOfReceiverTowers() - after.size(), coverage.getNbrOfReceiverTowersWithCoverage());
+                for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+                    assertEquals(!after.contains(receiverTower), coverage.hasSignal(receiverTower));
+                    if (type != 3 && before.contains(receiverTower) != after.contains(receiverTower)) {
+                        assertEquals(Boolean.valueOf(!after.contains(receiverTower)), changes.get(receiverTower));
+                    }
+                }
+            }
+        }
+    }
+
+}
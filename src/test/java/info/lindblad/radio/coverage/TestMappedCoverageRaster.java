@@ -0,0 +1,169 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class TestMappedCoverageRaster extends TestCase {
+
+    public TestMappedCoverageRaster(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestMappedCoverageRaster.class);
+    }
+
+    /**
+     * An island that spans several tiles in both directions, with towers straddling the tile edges.
+     */
+    private static Island randomIsland() {
+        Random random = new Random(3);
+        Island island = new Island(150, 70);
+        for (int id = 1; id <= 20; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(150), random.nextInt(70)), random.nextInt(12)));
+        }
+        return island;
+    }
+
+    /**
+     * Test that a coverage backed by a memory-mapped raster answers the same as the regular coverage.
+     */
+    public void testCoverageOnTopOfRaster() throws IOException {
+        Island island = randomIsland();
+        Path path = Files.createTempFile("coverage", ".raster");
+        try (MappedCoverageRaster raster = MappedCoverageRaster.create(path, 150, 70)) {
+            raster.fill(island.getTransmitterTowers().values());
+
+            Coverage expected = new Coverage(island);
+            Coverage coverage = new Coverage(island, raster);
+            for (int y = 0; y < 70; y++) {
+                for (int x = 0; x < 150; x++) {
+                    Point point = new Point(x, y);
+                    assertEquals(expected.hasSignal(point), coverage.hasSignal(point));
+                    assertEquals(expected.getTransmitterTowersCovering(point), coverage.getTransmitterTowersCovering(point));
+                }
+            }
+            assertEquals(expected.getAllPointsWithSignal(), coverage.getAllPointsWithSignal());
+            assertEquals(expected.findClosestPointsWithSignal(new Point(149, 0)), coverage.findClosestPointsWithSignal(new Point(149, 0)));
+            try {
+                coverage.coveredBy(new Point(0, 0), new TransmitterTower(99, new Point(0, 0), 0));
+                fail("Expected an IllegalStateException to be thrown");
+            } catch (IllegalStateException illegalStateException) {
+                // Expected
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that the closest points with signal of a coverage backed by a raster are found from the
+     * transmitter towers, without a distance transform.
+     */
+    public void testClosestPointsWithoutDistanceTransform() throws IOException {
+        Island island = new Island(150, 70);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(10, 10), 2));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(100, 50), 4));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(148, 1), 3));
+        Path path = Files.createTempFile("coverage", ".raster");
+        try (MappedCoverageRaster raster = MappedCoverageRaster.create(path, 150, 70)) {
+            raster.fill(island.getTransmitterTowers().values());
+
+            Coverage expected = new Coverage(island);
+            Coverage coverage = new Coverage(island, raster);
+            for (int y = 0; y < 80; y += 3) {
+                for (int x = 0; x < 160; x += 3) {
+                    Point point = new Point(x, y);
+                    assertEquals(expected.findClosestPointsWithSignal(point), coverage.findClosestPointsWithSignal(point));
+                }
+            }
+            try {
+                coverage.getDistanceTransform();
+                fail("Expected IllegalStateException");
+            } catch (IllegalStateException expectedException) {
+                // Expected
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that a raster computed once is reused when the transmitter towers have not changed,
+     * and recomputed when they have.
+     */
+    public void testReuseAcrossRuns() throws IOException {
+        Island island = randomIsland();
+        Path path = Files.createTempFile("coverage", ".raster");
+        try {
+            try (MappedCoverageRaster raster = MappedCoverageRaster.openOrCreate(path, island)) {
+                assertTrue(raster.isRecomputed());
+                // Leave a mark that only survives if the file is reused
+                raster.setCount(0, 0, 42);
+            }
+            try (MappedCoverageRaster raster = MappedCoverageRaster.openOrCreate(path, island)) {
+                assertFalse(raster.isRecomputed());
+                assertEquals(42, raster.getCount(0, 0));
+                assertEquals(MappedCoverageRaster.fingerprint(island), raster.getFingerprint());
+            }
+
+            island.getTransmitterTowers().values().iterator().next().setPower(13);
+            try (MappedCoverageRaster raster = MappedCoverageRaster.openOrCreate(path, island)) {
+                assertTrue(raster.isRecomputed());
+                HeapCoverageRaster expected = new HeapCoverageRaster(150, 70);
+                expected.fill(island.getTransmitterTowers().values());
+                for (int y = 0; y < 70; y++) {
+                    for (int x = 0; x < 150; x++) {
+                        assertEquals(expected.getCount(x, y), raster.getCount(x, y));
+                    }
+                }
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that a file that is not a raster is replaced by a raster computed from scratch.
+     */
+    public void testReplaceInvalidFile() throws IOException {
+        Island island = randomIsland();
+        Path path = Files.createTempFile("coverage", ".raster");
+        try {
+            Files.write(path, new byte[128]);
+            try (MappedCoverageRaster raster = MappedCoverageRaster.openOrCreate(path, island)) {
+                assertTrue(raster.isRecomputed());
+                assertEquals(MappedCoverageRaster.fingerprint(island), raster.getFingerprint());
+            }
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that opening a file that is not a raster is rejected.
+     */
+    public void testOpenInvalidFile() throws IOException {
+        Path path = Files.createTempFile("coverage", ".raster");
+        try {
+            Files.write(path, new byte[128]);
+            MappedCoverageRaster.open(path);
+            fail("Expected an IllegalArgumentException to be thrown");
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return;
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class TestParallelCoverageBuilder extends TestCase {
+
+    public TestParallelCoverageBuilder(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestParallelCoverageBuilder.class);
+    }
+
+    private static Island randomIsland() {
+        Random random = new Random(11);
+        Island island = new Island(300, 500);
+        for (int id = 1; id <= 200; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(300), random.nextInt(500)), random.nextInt(40)));
+        }
+        return island;
+    }
+
+    /**
+     * Check the counts of a raster against the covering transmitter towers of the original coverage
+     */
+    private static void assertSameCounts(Coverage expected, Island island, CoverageRaster actual) {
+        assertEquals(island.getBounds().getSizeX(), actual.getSizeX());
+        assertEquals(island.getBounds().getSizeY(), actual.getSizeY());
+        for (int y = 0; y < actual.getSizeY(); y++) {
+            for (int x = 0; x < actual.getSizeX(); x++) {
+                assertEquals(expected.getTransmitterTowersCovering(new Point(x, y)).size(), actual.getCount(x, y));
+            }
+        }
+    }
+
+    /**
+     * Test that the parallel build gives the same coverage as Coverage for different numbers of threads.
+     */
+    public void testSameAsCoverage() {
+        Island island = randomIsland();
+        Coverage expected = new Coverage(island);
+
+        for (int nbrOfThreads : new int[]{1, 3, 8}) {
+            assertSameCounts(expected, island, new ParallelCoverageBuilder(nbrOfThreads).build(island));
+        }
+    }
+
+    /**
+     * Test towers whose signal reaches past the top and bottom of the island, and islands whose height is not a multiple of the band height.
+     */
+    public void testTowersBeyondBands() {
+        Island island = new Island(20, ParallelCoverageBuilder.BAND_HEIGHT * 2 + 5);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(3, 0), ParallelCoverageBuilder.BAND_HEIGHT * 5));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(10, ParallelCoverageBuilder.BAND_HEIGHT * 2 + 4), 2));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(15, ParallelCoverageBuilder.BAND_HEIGHT - 1), 1));
+        assertSameCounts(new Coverage(island), island, new ParallelCoverageBuilder(3).build(island));
+    }
+
+    /**
+     * Test building into a memory-mapped raster in parallel.
+     */
+    public void testMappedRaster() throws IOException {
+        Island island = randomIsland();
+        Coverage expected = new Coverage(island);
+
+        Path path = Files.createTempFile("coverage", ".raster");
+        try (MappedCoverageRaster raster = MappedCoverageRaster.create(path, 300, 500)) {
+            new ParallelCoverageBuilder(4).build(island, raster);
+            assertSameCounts(expected, island, raster);
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Test that providing a non-positive number of threads results in an exception
+     */
+    public void testIllegalNbrOfThreads() {
+        try {
+            new ParallelCoverageBuilder(0);
+            fail("Expected an IllegalArgumentException to be thrown");
+        } catch (IllegalArgumentException illegalArgumentException) {
+            return;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.IslandFixtures;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestRedundancyReport extends TestCase {
+
+    public TestRedundancyReport(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestRedundancyReport.class);
+    }
+
+    public void testKnownBadCoverageCase() {
+        RedundancyReport report = new RedundancyReport(IslandFixtures.knownBadCoverageIsland());
+        assertTrue(Arrays.equals(new int[]{1, 2, 3}, report.getReceiverIds()));
+        // Receiver tower one is only reached by transmitter tower three, with one to spare
+        assertTrue(Arrays.equals(new int[]{1, 0, 1}, report.getMultiplicities()));
+        assertTrue(Arrays.equals(new int[]{1, RedundancyReport.NO_MARGIN, 0}, report.getMargins()));
+        assertTrue(Arrays.equals(new int[]{1, 2}, report.getHistogram()));
+        assertEquals(2, report.getNbrOfReceiverTowersWithCoverage(1));
+        assertEquals(0, report.getNbrOfReceiverTowersWithCoverage(2));
+        assertEquals(0, report.getMinimumMargin());
+        assertEquals("0\t1\n1\t2", report.toString());
+    }
+
+    /**
+     * Test that the margin is that of the nearest covering transmitter tower, not the largest one, and
+     * the smallest of the nearest ones when they are equally near
+     */
+    public void testNearestMargin() {
+        Island island = new Island(20, 20);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(6, 5), 1));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(10, 5), 9));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(5, 15), 2));
+        island.addTransmitterTower(new TransmitterTower(4, new Point(5, 17), 4));
+        island.addReceiverTower(new ReceiverTower(1, new Point(5, 5)));
+        island.addReceiverTower(new ReceiverTower(2, new Point(5, 16)));
+        RedundancyReport report = new RedundancyReport(island);
+        assertTrue(Arrays.equals(new int[]{2, 2}, report.getMultiplicities()));
+        assertTrue(Arrays.equals(new int[]{0, 1}, report.getMargins()));
+        assertEquals(0, report.getMinimumMargin());
+    }
+
+    /**
+     * Test that the multiplicities and margins agree with the covering transmitter towers of the dense
+     * coverage, where the margin is that of the nearest one
+     */
+    public void testMatchesCoverage() {
+        Random random = new Random(50);
+        Island island = new Island(40, 30);
+        for (int id = 1; id <= 30; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(40), random.nextInt(30)), random.nextInt(8)));
+        }
+        for (int id = 1; id <= 100; id++) {
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(40), random.nextInt(30))));
+        }
+        Coverage coverage = new Coverage(island);
+        RedundancyReport report = new RedundancyReport(island);
+
+        List<ReceiverTower> receiverTowers = island.getReceiverTowerList();
+        assertEquals(receiverTowers.size(), report.getNbrOfReceiverTowers());
+        int total = 0;
+        for (int count : report.getHistogram()) {
+            total += count;
+        }
+        assertEquals(receiverTowers.size(), total);
+        for (ReceiverTower receiverTower : receiverTowers) {
+            int receiver = Arrays.binarySearch(report.getReceiverIds(), receiverTower.getId());
+            Set<TransmitterTower> covering = coverage.getTransmitterTowersCovering(receiverTower.getPoint());
+            assertEquals(covering.size(), report.getMultiplicities()[receiver]);
+            int margin = covering.stream()
+                    .min(Comparator.<TransmitterTower>comparingInt(transmitterTower -> transmitterTower.getPoint().distance(receiverTower.getPoint()))
+                            .thenComparingInt(TransmitterTower::getPower))
+                    .map(transmitterTower -> transmitterTower.getPower() - transmitterTower.getPoint().distance(receiverTower.getPoint()))
+                    .orElse(RedundancyReport.NO_MARGIN);
+            assertEquals(margin, report.getMargins()[receiver]);
+        }
+    }
+
+    public void testWriteCsv() throws IOException {
+        Path csv = Files.createTempFile("redundancy", ".csv");
+        try {
+            new RedundancyReport(IslandFixtures.knownBadCoverageIsland()).writeCsv(csv);
+            assertEquals(Arrays.asList("id,x,y,multiplicity,margin", "1,0,1,1,1", "2,8,8,0,", "3,6,5,1,0"),
+                    Files.readAllLines(csv, StandardCharsets.UTF_8));
+        } finally {
+            Files.delete(csv);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+package info.lindblad.radio.coverage;
+
+import info.lindblad.radio.model.Coverage;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Random;
+
+public class TestSquareUnionCoverage extends TestCase {
+
+    public TestSquareUnionCoverage(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestSquareUnionCoverage.class);
+    }
+
+    private static Island randomIsland(long seed) {
+        Random random = new Random(seed);
+        Island island = new Island(30, 25);
+        for (int id = 1; id <= 15; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(30), random.nextInt(25)), random.nextInt(5)));
+        }
+        return island;
+    }
+
+    /**
+     * Test that point queries, counts and the covered area agree with the dense coverage.
+     */
+    public void testMatchesCoverage() {
+        for (long seed = 0; seed < 5; seed++) {
+            Island island = randomIsland(seed);
+            Coverage coverage = new Coverage(island);
+            SquareUnionCoverage squareUnionCoverage = new SquareUnionCoverage(island);
+
+            for (int y = 0; y < 25; y++) {
+                for (int x = 0; x < 30; x++) {
+                    Point point = new Point(x, y);
+                    assertEquals(coverage.hasSignal(point), squareUnionCoverage.hasSignal(point));
+                    assertEquals(coverage.getTransmitterTowersCovering(point).size(), squareUnionCoverage.countCovering(x, y));
+                }
+            }
+            assertEquals(coverage.getAllPointsWithSignal().size(), squareUnionCoverage.getCoveredArea());
+        }
+    }
+
+    /**
+     * Test rectangle queries against a brute force count over the dense coverage.
+     */
+    public void testRectangleQueries() {
+        Island island = randomIsland(7);
+        Coverage coverage = new Coverage(island);
+        SquareUnionCoverage squareUnionCoverage = new SquareUnionCoverage(island);
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            int x0 = random.nextInt(30);
+            int y0 = random.nextInt(25);
+            int x1 = x0 + random.nextInt(30 - x0);
+            int y1 = y0 + random.nextInt(25 - y0);
+            long expected = 0;
+            for (int y = y0; y <= y1; y++) {
+                for (int x = x0; x <= x1; x++) {
+                    if (coverage.hasSignal(new Point(x, y))) {
+                        expected++;
+                    }
+                }
+            }
+            long area = ((long) x1 - x0 + 1) * (y1 - y0 + 1);
+            assertEquals(expected, squareUnionCoverage.getCoveredArea(x0, y0, x1, y1));
+            assertEquals(expected > 0, squareUnionCoverage.hasSignalAnywhere(x0, y0, x1, y1));
+            assertEquals(expected == area, squareUnionCoverage.isFullyCovered(x0, y0, x1, y1));
+        }
+    }
+
+    /**
+     * Test that a very large island can be reasoned about without allocating per point.
+     */
+    public void testVeryLargeIsland() {
+        Island island = new Island(1000000, 1000000);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(0, 0), 499999));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(999999, 999999), 499999));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(500000, 500000), 10));
+        SquareUnionCoverage squareUnionCoverage = new SquareUnionCoverage(island);
+
+        // The middle square overlaps 10 x 10 points of the first square and 11 x 11 points of the second
+        assertEquals(2L * 500000 * 500000 + 21 * 21 - 10 * 10 - 11 * 11, squareUnionCoverage.getCoveredArea());
+        assertTrue(squareUnionCoverage.hasSignal(499999, 499999));
+        assertFalse(squareUnionCoverage.hasSignal(499999, 500011));
+        assertEquals(2, squareUnionCoverage.countCovering(500000, 500000));
+    }
+
+}
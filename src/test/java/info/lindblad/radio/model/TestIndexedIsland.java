@@ -0,0 +1,117 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.solver.MatrixSolver;
+import info.lindblad.radio.solver.Solution;
+import info.lindblad.radio.solver.Solver;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class TestIndexedIsland extends TestCase {
+
+    public TestIndexedIsland(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIndexedIsland.class);
+    }
+
+    /**
+     * Test the known case from the problem statement, where receiver tower two is out of range.
+     */
+    public void testKnownBadCoverageCase() {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(2, 5), 1));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(0, 6), 3));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(1, 2), 2));
+        island.addTransmitterTower(new TransmitterTower(4, new Point(3, 5), 3));
+        island.addReceiverTower(new ReceiverTower(1, new Point(0, 1)));
+        island.addReceiverTower(new ReceiverTower(2, new Point(8, 8)));
+        island.addReceiverTower(new ReceiverTower(3, new Point(6, 5)));
+
+        IndexedIsland indexedIsland = new IndexedIsland(island);
+        assertEquals(4, indexedIsland.getNbrOfTransmitterTowers());
+        assertEquals(3, indexedIsland.getNbrOfReceiverTowers());
+
+        int receiverTwo = indexedIsland.getReceiverOrdinal(2);
+        assertEquals(2, indexedIsland.getReceiverId(receiverTwo));
+        assertEquals(8, indexedIsland.getReceiverX(receiverTwo));
+        assertTrue(Arrays.equals(new int[]{receiverTwo}, indexedIsland.getReceiverOrdinalsWithoutCoverage()));
+        // The result is cached, so changing the returned array must not change the next one
+        indexedIsland.getReceiverOrdinalsWithoutCoverage()[0] = -1;
+        assertTrue(Arrays.equals(new int[]{receiverTwo}, indexedIsland.getReceiverOrdinalsWithoutCoverage()));
+        assertFalse(indexedIsland.hasSignal(receiverTwo));
+
+        int transmitterFour = indexedIsland.getTransmitterOrdinal(4);
+        assertEquals(3, indexedIsland.getTransmitterPower(transmitterFour));
+        assertEquals(5, indexedIsland.distance(transmitterFour, receiverTwo));
+        assertEquals(2, indexedIsland.getRequiredPowerIncrease(transmitterFour, receiverTwo));
+
+        assertEquals(-1, indexedIsland.getTransmitterOrdinal(5));
+        assertEquals(-1, indexedIsland.getReceiverOrdinal(0));
+    }
+
+    /**
+     * Test that the coverage check agrees with the solver on a generated island, and that the island
+     * can be rebuilt from the view.
+     */
+    public void testAgreesWithSolver() {
+        for (int i = 0; i < 50; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            IndexedIsland indexedIsland = new IndexedIsland(island);
+
+            Set<Integer> expected = new HashSet<>();
+            for (ReceiverTower receiverTower : Solver.getReceiverTowersWithoutCoverage(island)) {
+                expected.add(receiverTower.getId());
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (int receiver : indexedIsland.getReceiverOrdinalsWithoutCoverage()) {
+                actual.add(indexedIsland.getReceiverId(receiver));
+            }
+            assertEquals(expected, actual);
+
+            Island copy = indexedIsland.toIsland();
+            assertEquals(island.getNbrOfTransmitterTowers(), copy.getNbrOfTransmitterTowers());
+            assertEquals(Solver.nbrOfReceiverTowersWithoutCoverage(island), Solver.nbrOfReceiverTowersWithoutCoverage(copy));
+        }
+    }
+
+    /**
+     * Test that duplicate ids are accepted, that looking one up gives the first tower with it, and that
+     * an island with duplicate ids is solved as before.
+     */
+    public void testDuplicateIds() {
+        List<TransmitterTower> transmitterTowers = new ArrayList<>();
+        transmitterTowers.add(new TransmitterTower(1, new Point(0, 0), 0));
+        transmitterTowers.add(new TransmitterTower(1, new Point(9, 9), 0));
+        List<ReceiverTower> receiverTowers = new ArrayList<>();
+        receiverTowers.add(new ReceiverTower(2, new Point(0, 1)));
+        receiverTowers.add(new ReceiverTower(2, new Point(9, 8)));
+        IndexedIsland indexedIsland = new IndexedIsland(new Bounds(10, 10), transmitterTowers, receiverTowers);
+        assertEquals(0, indexedIsland.getTransmitterOrdinal(1));
+        assertEquals(0, indexedIsland.getReceiverOrdinal(2));
+        assertTrue(Arrays.equals(new int[]{0, 1}, indexedIsland.getReceiverOrdinalsWithoutCoverage()));
+
+        Island island = new Island(10, 10);
+        transmitterTowers.forEach(island::addTransmitterTower);
+        receiverTowers.forEach(island::addReceiverTower);
+        Solution solution = Solution.solve(island, new MatrixSolver());
+        assertEquals(2, solution.getNbrOfReceiverTowers());
+        assertEquals(0, solution.getNbrOfReceiverTowersWithCoverage());
+        Map<TransmitterTower, Integer> changes = solution.getTransmitterTowerChanges();
+        assertEquals(2, changes.size());
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            assertEquals(Integer.valueOf(1), changes.get(transmitterTower));
+        }
+    }
+
+}
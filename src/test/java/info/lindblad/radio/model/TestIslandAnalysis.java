@@ -0,0 +1,84 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.solver.Solver;
+import info.lindblad.radio.util.IslandFixtures;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.HashSet;
+import java.util.Set;
+
+public class TestIslandAnalysis extends TestCase {
+
+    public TestIslandAnalysis(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIslandAnalysis.class);
+    }
+
+    /**
+     * Test that everything is computed once and then handed out again
+     */
+    public void testMemoisation() {
+        IslandAnalysis analysis = new IslandAnalysis(IslandFixtures.knownBadCoverageIsland());
+        assertSame(analysis.getCoverage(), analysis.getCoverage());
+        assertSame(analysis.getReceiverTowersWithoutCoverage(), analysis.getReceiverTowersWithoutCoverage());
+        assertSame(analysis.getIndexedIsland(SpaceFillingCurve.NONE), analysis.getIndexedIsland(SpaceFillingCurve.NONE));
+        assertSame(analysis.getIndexedIsland(SpaceFillingCurve.HILBERT), analysis.getIndexedIsland(SpaceFillingCurve.HILBERT));
+        assertNotSame(analysis.getIndexedIsland(SpaceFillingCurve.NONE), analysis.getIndexedIsland(SpaceFillingCurve.HILBERT));
+        assertEquals(SpaceFillingCurve.HILBERT, analysis.getIndexedIsland(SpaceFillingCurve.HILBERT).getOrdering());
+    }
+
+    /**
+     * Test the known case from the problem statement, where receiver tower two is out of range
+     */
+    public void testKnownBadCoverageCase() {
+        IslandAnalysis analysis = new IslandAnalysis(IslandFixtures.knownBadCoverageIsland());
+        Set<ReceiverTower> expected = new HashSet<>();
+        expected.add(new ReceiverTower(2, new Point(8, 8)));
+        assertEquals(expected, analysis.getReceiverTowersWithoutCoverage());
+        assertEquals(1, analysis.getNbrOfReceiverTowersWithoutCoverage());
+    }
+
+    /**
+     * Test that adding a tower discards what was computed for the earlier version of the island
+     */
+    public void testNewVersion() {
+        Island island = IslandFixtures.knownBadCoverageIsland();
+        IslandAnalysis analysis = new IslandAnalysis(island);
+        Coverage coverage = analysis.getCoverage();
+        IndexedIsland indexedIsland = analysis.getIndexedIsland(SpaceFillingCurve.NONE);
+        assertEquals(1, analysis.getNbrOfReceiverTowersWithoutCoverage());
+
+        long version = island.getVersion();
+        island.addTransmitterTower(new TransmitterTower(5, new Point(8, 8), 0));
+        assertTrue(island.getVersion() > version);
+
+        assertNotSame(coverage, analysis.getCoverage());
+        assertNotSame(indexedIsland, analysis.getIndexedIsland(SpaceFillingCurve.NONE));
+        assertEquals(5, analysis.getIndexedIsland(SpaceFillingCurve.NONE).getNbrOfTransmitterTowers());
+        assertEquals(5, analysis.getTransmitterTowers(SpaceFillingCurve.NONE).size());
+        assertEquals(0, analysis.getNbrOfReceiverTowersWithoutCoverage());
+    }
+
+    /**
+     * Test that the receiver towers without coverage are the same whether or not the full coverage has been computed
+     */
+    public void testRandomIslands() {
+        for (int i = 0; i < 20; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            Set<ReceiverTower> expected = Solver.getReceiverTowersWithoutCoverage(island);
+
+            assertEquals(expected, new IslandAnalysis(island).getReceiverTowersWithoutCoverage());
+
+            IslandAnalysis analysis = new IslandAnalysis(island);
+            analysis.getCoverage();
+            assertEquals(expected, analysis.getReceiverTowersWithoutCoverage());
+        }
+    }
+
+}
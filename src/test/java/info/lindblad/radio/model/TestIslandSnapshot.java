@@ -0,0 +1,133 @@
+package info.lindblad.radio.model;
+
+import info.lindblad.radio.solver.Solver;
+import info.lindblad.radio.util.IslandFixtures;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class TestIslandSnapshot extends TestCase {
+
+    public TestIslandSnapshot(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIslandSnapshot.class);
+    }
+
+    /**
+     * Test that edits produce new versions while the old versions stay unchanged.
+     */
+    public void testEdits() {
+        Island island = IslandFixtures.knownBadCoverageIsland();
+        IslandSnapshot original = IslandSnapshot.of(island);
+        IslandSnapshot increased = original.withTransmitterPower(3, 5, 5);
+
+        assertEquals(0, original.getVersion());
+        assertEquals(1, increased.getVersion());
+        assertEquals(3, original.getTransmitterTower(3, 5).getPower());
+        assertEquals(5, increased.getTransmitterTower(3, 5).getPower());
+        assertEquals(4, increased.getTransmitterTower(3, 5).getId());
+        assertEquals(1, Solver.nbrOfReceiverTowersWithoutCoverage(original.toIsland()));
+        assertEquals(0, Solver.nbrOfReceiverTowersWithoutCoverage(increased.toIsland()));
+
+        // Changing a tower handed out by a snapshot does not change the snapshot
+        original.getTransmitterTower(3, 5).setPower(10);
+        assertEquals(3, original.getTransmitterTower(3, 5).getPower());
+
+        IslandSnapshot edited = increased.withoutReceiverTower(8, 8).withReceiverTower(4, 9, 9).withoutTransmitterTower(0, 6);
+        assertEquals(3, edited.getNbrOfTransmitterTowers());
+        assertEquals(3, edited.getNbrOfReceiverTowers());
+        assertNull(edited.getReceiverTower(8, 8));
+        assertEquals(4, edited.getReceiverTower(9, 9).getId());
+        assertEquals(4, increased.getNbrOfTransmitterTowers());
+        assertEquals(4, edited.toIndexedIsland().getReceiverId(edited.toIndexedIsland().getReceiverOrdinal(4)));
+
+        try {
+            edited.withTransmitterPower(0, 6, 1);
+            fail("Expected an edit of a missing transmitter tower to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test that edits with a negative power or a location outside the island are rejected, as for Island.
+     */
+    public void testInvalidEdits() {
+        IslandSnapshot snapshot = IslandSnapshot.of(IslandFixtures.knownBadCoverageIsland());
+        try {
+            snapshot.withTransmitterPower(3, 5, -1);
+            fail("Expected a negative power to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        try {
+            snapshot.withTransmitterTower(5, 1, 1, -1);
+            fail("Expected a negative power to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        int[][] outside = {{-1, 0}, {0, -1}, {10, 0}, {0, 10}};
+        for (int[] point : outside) {
+            try {
+                snapshot.withTransmitterTower(5, point[0], point[1], 1);
+                fail("Expected a transmitter tower outside the island to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            try {
+                snapshot.withReceiverTower(5, point[0], point[1]);
+                fail("Expected a receiver tower outside the island to be rejected");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        assertEquals(0, snapshot.getVersion());
+        assertEquals(3, snapshot.getTransmitterTower(3, 5).getPower());
+    }
+
+    /**
+     * Test that concurrent writers do not lose edits and that readers always see complete versions.
+     */
+    public void testConcurrentUpdates() throws InterruptedException {
+        VersionedIsland versionedIsland = new VersionedIsland(IslandSnapshot.empty(100, 100));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < 4; writer++) {
+            final int row = writer;
+            threads.add(new Thread(() -> {
+                for (int x = 0; x < 100; x++) {
+                    final int column = x;
+                    versionedIsland.update(snapshot -> snapshot.withTransmitterTower(row * 100 + column + 1, column, row, 1));
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            try {
+                for (int i = 0; i < 1000; i++) {
+                    IslandSnapshot snapshot = versionedIsland.get();
+                    assertEquals(snapshot.getVersion(), snapshot.getNbrOfTransmitterTowers());
+                    assertEquals(snapshot.getNbrOfTransmitterTowers(), snapshot.getTransmitterTowerList().size());
+                }
+            } catch (Throwable t) {
+                failure.set(t);
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals(400, versionedIsland.get().getNbrOfTransmitterTowers());
+        assertEquals(400, versionedIsland.get().getVersion());
+    }
+
+}
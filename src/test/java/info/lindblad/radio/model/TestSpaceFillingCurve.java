@@ -0,0 +1,73 @@
+package info.lindblad.radio.model;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class TestSpaceFillingCurve extends TestCase {
+
+    public TestSpaceFillingCurve(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestSpaceFillingCurve.class);
+    }
+
+    /**
+     * Test the Morton curve on the first few points.
+     */
+    public void testMorton() {
+        assertEquals(0, SpaceFillingCurve.MORTON.index(0, 0));
+        assertEquals(1, SpaceFillingCurve.MORTON.index(1, 0));
+        assertEquals(2, SpaceFillingCurve.MORTON.index(0, 1));
+        assertEquals(3, SpaceFillingCurve.MORTON.index(1, 1));
+        assertEquals(4, SpaceFillingCurve.MORTON.index(2, 0));
+        assertTrue(SpaceFillingCurve.MORTON.index(Integer.MAX_VALUE, Integer.MAX_VALUE) > 0);
+    }
+
+    /**
+     * Test that the Hilbert curve visits every point of an aligned block exactly once, moving one step at a time.
+     */
+    public void testHilbertVisitsNeighbours() {
+        int size = 64;
+        List<TransmitterTower> towers = new ArrayList<>();
+        Set<Long> indices = new HashSet<>();
+        int id = 1;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                towers.add(new TransmitterTower(id++, new Point(x, y), 1));
+                indices.add(SpaceFillingCurve.HILBERT.index(x, y));
+            }
+        }
+        assertEquals(size * size, indices.size());
+
+        List<TransmitterTower> sorted = SpaceFillingCurve.HILBERT.sort(towers);
+        assertEquals(towers.size(), sorted.size());
+        for (int i = 1; i < sorted.size(); i++) {
+            Point previous = sorted.get(i - 1).getPoint();
+            Point current = sorted.get(i).getPoint();
+            int steps = Math.abs(previous.getX() - current.getX()) + Math.abs(previous.getY() - current.getY());
+            assertEquals(1, steps);
+        }
+    }
+
+    /**
+     * Test that no ordering keeps the list as it is, and that the sorted list is a copy.
+     */
+    public void testNone() {
+        List<ReceiverTower> towers = new ArrayList<>();
+        towers.add(new ReceiverTower(1, new Point(9, 9)));
+        towers.add(new ReceiverTower(2, new Point(0, 0)));
+        List<ReceiverTower> sorted = SpaceFillingCurve.NONE.sort(towers);
+        assertEquals(towers, sorted);
+        assertNotSame(towers, sorted);
+        assertEquals(2, SpaceFillingCurve.MORTON.sort(towers).get(0).getId());
+    }
+
+}
@@ -0,0 +1,108 @@
+package info.lindblad.radio.model;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class TestSpatialIndex extends TestCase {
+
+    public TestSpatialIndex(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestSpatialIndex.class);
+    }
+
+    private static Island randomIsland(Random random, int size, int nbrOfTowers) {
+        Island island = new Island(size, size);
+        for (int id = 1; id <= nbrOfTowers; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(size), random.nextInt(size)), 1 + random.nextInt(5)));
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(size), random.nextInt(size))));
+        }
+        return island;
+    }
+
+    /**
+     * Test rectangle and radius queries against a scan of all towers.
+     */
+    public void testRectangleAndRadiusQueries() {
+        Random random = new Random(35);
+        Island island = randomIsland(random, 500, 2000);
+        SpatialIndex<TransmitterTower> index = island.getTransmitterTowerIndex();
+        assertEquals(island.getNbrOfTransmitterTowers(), index.size());
+
+        for (int i = 0; i < 200; i++) {
+            int minX = random.nextInt(500) - 50;
+            int minY = random.nextInt(500) - 50;
+            int maxX = minX + random.nextInt(i % 10 == 0 ? 600 : 40);
+            int maxY = minY + random.nextInt(i % 10 == 0 ? 600 : 40);
+            Set<TransmitterTower> expected = new HashSet<>();
+            for (TransmitterTower transmitterTower : island.getTransmitterTowerList()) {
+                Point point = transmitterTower.getPoint();
+                if (point.getX() >= minX && point.getX() <= maxX && point.getY() >= minY && point.getY() <= maxY) {
+                    expected.add(transmitterTower);
+                }
+            }
+            List<TransmitterTower> found = index.findInRectangle(minX, minY, maxX, maxY);
+            assertEquals(expected.size(), found.size());
+            assertEquals(expected, new HashSet<>(found));
+
+            Point centre = new Point(random.nextInt(500), random.nextInt(500));
+            int distance = random.nextInt(30);
+            Set<ReceiverTower> expectedReceivers = new HashSet<>();
+            for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+                if (receiverTower.getPoint().distance(centre) <= distance) {
+                    expectedReceivers.add(receiverTower);
+                }
+            }
+            assertEquals(expectedReceivers, new HashSet<>(island.getReceiverTowerIndex().findWithinDistance(centre, distance)));
+        }
+    }
+
+    /**
+     * Test that the nearest towers are at the same distances as the closest towers found by sorting all towers.
+     */
+    public void testNearest() {
+        Random random = new Random(35);
+        Island island = randomIsland(random, 1000, 300);
+        for (int i = 0; i < 200; i++) {
+            Point point = new Point(random.nextInt(1000), random.nextInt(1000));
+            int count = 1 + random.nextInt(20);
+            List<Integer> expected = new ArrayList<>();
+            for (ReceiverTower receiverTower : island.getReceiverTowerList()) {
+                expected.add(receiverTower.getPoint().distance(point));
+            }
+            expected.sort(null);
+            List<Integer> actual = new ArrayList<>();
+            for (ReceiverTower receiverTower : island.getReceiverTowerIndex().findNearest(point, count)) {
+                actual.add(receiverTower.getPoint().distance(point));
+            }
+            assertEquals(expected.subList(0, count), actual);
+        }
+        assertEquals(island.getNbrOfReceiverTowers(), island.getReceiverTowerIndex().findNearest(new Point(0, 0), 100000).size());
+    }
+
+    /**
+     * Test that a tower replaced by another at the same location is removed from the index.
+     */
+    public void testReplacedTower() {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(3, 3), 1));
+        TransmitterTower replacement = new TransmitterTower(2, new Point(3, 3), 2);
+        island.addTransmitterTower(replacement);
+        List<TransmitterTower> found = island.getTransmitterTowerIndex().findWithinDistance(new Point(4, 4), 1);
+        assertEquals(1, found.size());
+        assertSame(replacement, found.get(0));
+        assertTrue(island.getTransmitterTowerIndex().remove(replacement));
+        assertEquals(0, island.getTransmitterTowerIndex().size());
+        assertTrue(island.getTransmitterTowerIndex().findNearest(new Point(4, 4), 1).isEmpty());
+    }
+
+}
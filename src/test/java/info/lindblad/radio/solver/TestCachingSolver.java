@@ -0,0 +1,155 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestCachingSolver extends TestCase {
+
+    public TestCachingSolver(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestCachingSolver.class);
+    }
+
+    /**
+     * Generate a random island that does not take long to solve.
+     */
+    private static Island generateIsland() {
+        Island island = TestCaseGenerator.generateIsland();
+        while (DirectoryBatchSolver.estimateDifficulty(island) > 10_000) {
+            island = TestCaseGenerator.generateIsland();
+        }
+        return island;
+    }
+
+    /**
+     * Rebuild an island with its towers added in a random order.
+     */
+    private static Island shuffled(Island island, Random random) {
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        List<ReceiverTower> receiverTowers = island.getReceiverTowerList();
+        Collections.shuffle(transmitterTowers, random);
+        Collections.shuffle(receiverTowers, random);
+        Island shuffled = new Island(island.getBounds().getSizeX(), island.getBounds().getSizeY());
+        for (TransmitterTower transmitterTower : transmitterTowers) {
+            shuffled.addTransmitterTower(new TransmitterTower(transmitterTower.getId(), transmitterTower.getPoint(), transmitterTower.getPower()));
+        }
+        for (ReceiverTower receiverTower : receiverTowers) {
+            shuffled.addReceiverTower(new ReceiverTower(receiverTower.getId(), receiverTower.getPoint()));
+        }
+        return shuffled;
+    }
+
+    /**
+     * Test that the key does not depend on the order of the towers, but does depend on every tower.
+     */
+    public void testKey() {
+        Random random = new Random(44);
+        for (int i = 0; i < 20; i++) {
+            Island island = generateIsland();
+            assertEquals(CachingSolver.key(island), CachingSolver.key(shuffled(island, random)));
+
+            Island changed = shuffled(island, random);
+            TransmitterTower transmitterTower = changed.getTransmitterTowerList().get(0);
+            changed.addTransmitterTower(new TransmitterTower(transmitterTower.getId(), transmitterTower.getPoint(), transmitterTower.getPower() + 1));
+            assertFalse(CachingSolver.key(island).equals(CachingSolver.key(changed)));
+        }
+    }
+
+    /**
+     * Test that cached solutions are the same as solving the island, with the towers of the island looked up.
+     */
+    public void testHitsAndMisses() {
+        Random random = new Random(44);
+        CachingSolver cache = new CachingSolver(new MatrixSolver(), 100, null);
+        for (int i = 0; i < 10; i++) {
+            Island island = generateIsland();
+            Solution expected = Solution.solve(island, new MatrixSolver());
+            assertEquals(expected, cache.solve(island));
+
+            Island resubmitted = shuffled(island, random);
+            Solution cached = cache.solve(resubmitted);
+            assertEquals(expected, cached);
+            for (TransmitterTower transmitterTower : cached.getTransmitterTowerChanges().keySet()) {
+                assertSame(resubmitted.getTransmitterTower(transmitterTower.getPoint().getX(), transmitterTower.getPoint().getY()), transmitterTower);
+            }
+            Map<TransmitterTower, Integer> changes = cache.getRequiredTransmitterTowerChanges(island);
+            assertEquals(expected.getTransmitterTowerChanges(), changes);
+        }
+        assertEquals(10, cache.getMisses());
+        assertEquals(20, cache.getHits());
+        assertEquals(10, cache.size());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    /**
+     * Test that the least recently used solutions are evicted, and that incomplete solutions are not cached.
+     */
+    public void testEviction() {
+        CachingSolver cache = new CachingSolver(new MatrixSolver(), 3, null);
+        List<Island> islands = new ArrayList<>();
+        for (int id = 1; id <= 4; id++) {
+            Island island = new Island(10, 10);
+            island.addTransmitterTower(new TransmitterTower(id, new Point(1, 1), 1));
+            island.addReceiverTower(new ReceiverTower(1, new Point(5, 5)));
+            islands.add(island);
+        }
+        cache.solve(islands.get(0));
+        cache.solve(islands.get(1));
+        cache.solve(islands.get(2));
+        // Use the first island, so the second is the least recently used
+        cache.solve(islands.get(0));
+        cache.solve(islands.get(3));
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.get(islands.get(0)).isPresent());
+        assertFalse(cache.get(islands.get(1)).isPresent());
+
+        Island incomplete = new Island(10, 10);
+        cache.put(incomplete, new Solution(0, 0, Collections.emptyMap(), false));
+        assertFalse(cache.get(incomplete).isPresent());
+    }
+
+    /**
+     * Test that a saved cache is loaded again.
+     */
+    public void testPersistence() throws IOException {
+        Path file = Files.createTempFile("cache", ".txt");
+        file.toFile().deleteOnExit();
+        Files.delete(file);
+
+        CachingSolver cache = new CachingSolver(new MatrixSolver(), 100, file);
+        List<Island> islands = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Island island = generateIsland();
+            islands.add(island);
+            cache.solve(island);
+        }
+        cache.save();
+
+        CachingSolver loaded = new CachingSolver(new MatrixSolver(), 100, file);
+        assertEquals(cache.size(), loaded.size());
+        for (Island island : islands) {
+            assertEquals(cache.solve(island), loaded.solve(island));
+        }
+        assertEquals(0, loaded.getMisses());
+    }
+
+}
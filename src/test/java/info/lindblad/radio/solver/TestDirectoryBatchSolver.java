@@ -0,0 +1,124 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.InputParser;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestDirectoryBatchSolver extends TestCase {
+
+    public TestDirectoryBatchSolver(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestDirectoryBatchSolver.class);
+    }
+
+    private static Path createDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("islands");
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    private static Path write(Path directory, String filename, String contents) throws IOException {
+        Path file = directory.resolve(filename);
+        Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * An island where no receiver tower has coverage, so the solver has to try all n! orders of them.
+     */
+    private static Island hardIsland(int nbrOfReceiverTowers) {
+        Island island = new Island(200, 200);
+        for (int id = 1; id <= 10; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(id * 17, id * 13), 1));
+        }
+        for (int id = 1; id <= nbrOfReceiverTowers; id++) {
+            island.addReceiverTower(new ReceiverTower(id, new Point((id * 37) % 200, (id * 91) % 200)));
+        }
+        return island;
+    }
+
+    /**
+     * Test that every island is solved as by MatrixSolver, that invalid files are reported and that the
+     * summary has a line per island, in the order of the files.
+     */
+    public void testSolvesDirectory() throws IOException {
+        Path directory = createDirectory();
+        List<Island> islands = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            // Random islands can take a very long time to solve
+            while (DirectoryBatchSolver.estimateDifficulty(island) > 10_000) {
+                island = TestCaseGenerator.generateIsland();
+            }
+            islands.add(island);
+            write(directory, String.format("island-%02d.txt", i), island.serialise());
+        }
+        write(directory, "island-99.txt", "not an island\n");
+        write(directory, "notes.md", "Not an island either\n");
+
+        List<Path> files = DirectoryBatchSolver.findIslandFiles(directory.toString() + "/island-*.txt");
+        assertEquals(13, files.size());
+        assertEquals(14, DirectoryBatchSolver.findIslandFiles(directory.toString()).size());
+
+        List<DirectoryBatchSolver.Result> results = new DirectoryBatchSolver(3, 60_000).solve(files);
+        assertEquals(13, results.size());
+        for (int i = 0; i < islands.size(); i++) {
+            DirectoryBatchSolver.Result result = results.get(i);
+            assertEquals(files.get(i), result.getPath());
+            assertEquals(DirectoryBatchSolver.Status.SOLVED, result.getStatus());
+            // The solver breaks ties by the order of the towers, so solve the island as read from its file
+            Island island = InputParser.islandFromFile(files.get(i).toString());
+            assertEquals(islands.get(i), island);
+            assertEquals(Solution.solve(island, new MatrixSolver()), result.getSolution());
+        }
+        assertEquals(DirectoryBatchSolver.Status.INVALID, results.get(12).getStatus());
+        assertNull(results.get(12).getSolution());
+
+        Path summary = directory.resolve("summary.tsv");
+        summary.toFile().deleteOnExit();
+        DirectoryBatchSolver.writeSummary(results, summary);
+        List<String> lines = Files.readAllLines(summary, StandardCharsets.UTF_8);
+        assertEquals(14, lines.size());
+        assertTrue(lines.get(1).startsWith(files.get(0) + "\tSOLVED\t"));
+        assertTrue(lines.get(13).startsWith(files.get(12) + "\tINVALID\t"));
+    }
+
+    /**
+     * Test that an island that would take far too long to solve is stopped once its time budget is used up.
+     */
+    public void testTimeBudget() throws IOException {
+        Path directory = createDirectory();
+        Path hard = write(directory, "hard.txt", hardIsland(14).serialise());
+        Path easy = write(directory, "easy.txt", hardIsland(2).serialise());
+
+        long start = System.nanoTime();
+        List<DirectoryBatchSolver.Result> results = new DirectoryBatchSolver(2, 200).solve(DirectoryBatchSolver.findIslandFiles(directory.toString()));
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 30_000);
+
+        assertEquals(easy, results.get(0).getPath());
+        assertEquals(DirectoryBatchSolver.Status.SOLVED, results.get(0).getStatus());
+        assertEquals(hard, results.get(1).getPath());
+        assertFalse(results.get(1).getSolution().isComplete());
+        assertTrue(results.get(1).getStatus() == DirectoryBatchSolver.Status.BEST_SO_FAR
+                || results.get(1).getStatus() == DirectoryBatchSolver.Status.TIMEOUT);
+        assertTrue(results.get(0).getDifficulty() < results.get(1).getDifficulty());
+    }
+
+}
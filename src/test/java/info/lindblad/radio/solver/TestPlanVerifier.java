@@ -0,0 +1,103 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import info.lindblad.radio.util.FastInputParser;
+import info.lindblad.radio.util.IslandFixtures;
+import info.lindblad.radio.util.TestCaseGenerator;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class TestPlanVerifier extends TestCase {
+
+    public TestPlanVerifier(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestPlanVerifier.class);
+    }
+
+    /**
+     * Test the known case from the problem statement, where raising transmitter tower 4 to power 5 covers receiver tower two
+     */
+    public void testKnownBadCoverageCase() {
+        Island island = IslandFixtures.knownBadCoverageIsland();
+        String serialised = island.serialise();
+
+        PlanVerifier.Report noChanges = PlanVerifier.verify(island, Collections.emptyMap());
+        assertFalse(noChanges.isValid());
+        assertEquals(3, noChanges.getNbrOfReceiverTowers());
+        assertEquals(Collections.singletonList(new ReceiverTower(2, new Point(8, 8))), noChanges.getReceiverTowersWithoutCoverage());
+        assertEquals(0, noChanges.getTotalPowerIncrease());
+
+        PlanVerifier.Report plan = PlanVerifier.verify(island, Collections.singletonMap(4, 5));
+        assertTrue(plan.isValid());
+        assertEquals(2, plan.getTotalPowerIncrease());
+
+        // Lowering transmitter tower 4 loses receiver tower three as well
+        PlanVerifier.Report lowered = PlanVerifier.verify(island, Collections.singletonMap(4, 0));
+        assertEquals(2, lowered.getReceiverTowersWithoutCoverage().size());
+        assertEquals(-3, lowered.getTotalPowerIncrease());
+
+        assertEquals(serialised, island.serialise());
+    }
+
+    public void testInvalidPlans() {
+        Island island = IslandFixtures.knownBadCoverageIsland();
+        try {
+            PlanVerifier.verify(island, Collections.singletonMap(5, 5));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        try {
+            PlanVerifier.verify(island, Collections.singletonMap(4, -1));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+    /**
+     * Test that the reports for the solutions of random islands agree with applying the changes to a copy of the island
+     */
+    public void testSolutionsOfRandomIslands() {
+        for (int i = 0; i < 20; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            if (DirectoryBatchSolver.estimateDifficulty(island) > 10_000) {
+                continue;
+            }
+            String serialised = island.serialise();
+            Solution solution = Solution.solve(island, new MatrixSolver());
+            long expectedIncrease = 0;
+            Map<Integer, Integer> plan = new HashMap<>();
+            Island copy = FastInputParser.parse(serialised).get();
+            for (Map.Entry<TransmitterTower, Integer> change : solution.getTransmitterTowerChanges().entrySet()) {
+                expectedIncrease += change.getValue() - change.getKey().getPower();
+                plan.put(change.getKey().getId(), change.getValue());
+                copy.getTransmitterTowers().get(change.getKey().getPoint()).setPower(change.getValue());
+            }
+
+            PlanVerifier.Report report = PlanVerifier.verify(island, solution);
+            Set<ReceiverTower> expectedWithoutCoverage = Solver.getReceiverTowersWithoutCoverage(copy);
+            assertEquals(report.toString(), expectedWithoutCoverage, new HashSet<>(report.getReceiverTowersWithoutCoverage()));
+            assertEquals(expectedWithoutCoverage.isEmpty(), report.isValid());
+            assertEquals(expectedIncrease, report.getTotalPowerIncrease());
+            assertEquals(island.getNbrOfReceiverTowers() - solution.getNbrOfReceiverTowersWithCoverage(),
+                    PlanVerifier.verify(island, Collections.emptyMap()).getReceiverTowersWithoutCoverage().size());
+            assertEquals(report.getTotalPowerIncrease(), PlanVerifier.verify(island, plan).getTotalPowerIncrease());
+            assertEquals(serialised, island.serialise());
+        }
+    }
+
+}
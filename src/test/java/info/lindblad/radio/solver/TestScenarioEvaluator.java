@@ -0,0 +1,143 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.IndexedIsland;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.SpaceFillingCurve;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestScenarioEvaluator extends TestCase {
+
+    public TestScenarioEvaluator(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestScenarioEvaluator.class);
+    }
+
+    private static Island randomIsland(long seed, int size, int nbrOfTransmitterTowers, int nbrOfReceiverTowers) {
+        Random random = new Random(seed);
+        Island island = new Island(size, size);
+        for (int id = 1; id <= nbrOfTransmitterTowers; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(size), random.nextInt(size)), random.nextInt(8)));
+        }
+        for (int id = 1; id <= nbrOfReceiverTowers; id++) {
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(size), random.nextInt(size))));
+        }
+        return island;
+    }
+
+    private static List<Map<Integer, Integer>> randomPlans(long seed, int nbrOfPlans, Island island) {
+        Random random = new Random(seed);
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        List<Map<Integer, Integer>> plans = new ArrayList<>();
+        for (int i = 0; i < nbrOfPlans; i++) {
+            Map<Integer, Integer> plan = new HashMap<>();
+            int nbrOfChanges = random.nextInt(5);
+            for (int j = 0; j < nbrOfChanges; j++) {
+                plan.put(transmitterTowers.get(random.nextInt(transmitterTowers.size())).getId(), random.nextInt(15));
+            }
+            plans.add(plan);
+        }
+        return plans;
+    }
+
+    private static void assertSameReport(PlanVerifier.Report expected, PlanVerifier.Report actual) {
+        assertEquals(expected.getNbrOfReceiverTowers(), actual.getNbrOfReceiverTowers());
+        assertEquals(expected.getReceiverTowersWithoutCoverage(), actual.getReceiverTowersWithoutCoverage());
+        assertEquals(expected.getTotalPowerIncrease(), actual.getTotalPowerIncrease());
+        assertEquals(expected.isValid(), actual.isValid());
+    }
+
+    /**
+     * Test that every plan gets the same report as when the coverage is rebuilt for it
+     */
+    public void testMatchesPlanVerifier() {
+        Island island = randomIsland(49, 40, 20, 60);
+        ScenarioEvaluator evaluator = new ScenarioEvaluator(new IndexedIsland(island, SpaceFillingCurve.HILBERT), 1);
+        for (Map<Integer, Integer> plan : randomPlans(49, 300, island)) {
+            assertSameReport(PlanVerifier.verify(island, plan), evaluator.evaluate(plan));
+        }
+    }
+
+    /**
+     * Test that a batch scored by several threads gives the same reports, in the order of the plans
+     */
+    public void testParallelBatch() {
+        Island island = randomIsland(7, 100, 50, 200);
+        IndexedIsland indexedIsland = new IndexedIsland(island);
+        List<Map<Integer, Integer>> plans = randomPlans(7, 1000, island);
+        List<PlanVerifier.Report> serial = new ScenarioEvaluator(indexedIsland, 1).evaluate(plans);
+        List<PlanVerifier.Report> parallel = new ScenarioEvaluator(indexedIsland, 4).evaluate(plans);
+        assertEquals(plans.size(), parallel.size());
+        for (int i = 0; i < plans.size(); i++) {
+            assertSameReport(serial.get(i), parallel.get(i));
+            if (i % 100 == 0) {
+                assertSameReport(PlanVerifier.verify(island, plans.get(i)), parallel.get(i));
+            }
+        }
+    }
+
+    /**
+     * Test a long, thin island with receiver towers beyond its edge, which are never covered, and powers
+     * reaching across it.
+     */
+    public void testThinIsland() {
+        Random random = new Random(11);
+        Island island = new Island(1000, 3);
+        for (int id = 1; id <= 30; id++) {
+            island.addTransmitterTower(new TransmitterTower(id, new Point(random.nextInt(1000), random.nextInt(3)), random.nextInt(50)));
+        }
+        for (int id = 1; id <= 40; id++) {
+            island.addReceiverTower(new ReceiverTower(id, new Point(random.nextInt(1100), random.nextInt(6))));
+        }
+        ScenarioEvaluator evaluator = new ScenarioEvaluator(new IndexedIsland(island), 1);
+        List<TransmitterTower> transmitterTowers = island.getTransmitterTowerList();
+        for (int i = 0; i < 200; i++) {
+            Map<Integer, Integer> plan = new HashMap<>();
+            for (int j = 0; j < 3; j++) {
+                plan.put(transmitterTowers.get(random.nextInt(transmitterTowers.size())).getId(), random.nextInt(1200));
+            }
+            assertSameReport(PlanVerifier.verify(island, plan), evaluator.evaluate(plan));
+        }
+    }
+
+    public void testEmptyPlan() {
+        Island island = randomIsland(3, 20, 5, 10);
+        PlanVerifier.Report report = new ScenarioEvaluator(new IndexedIsland(island)).evaluate(Collections.emptyMap());
+        assertSameReport(PlanVerifier.verify(island, Collections.emptyMap()), report);
+        assertEquals(0, report.getTotalPowerIncrease());
+    }
+
+    public void testInvalidPlans() {
+        Island island = randomIsland(3, 20, 5, 10);
+        ScenarioEvaluator evaluator = new ScenarioEvaluator(new IndexedIsland(island), 4);
+        try {
+            evaluator.evaluate(Collections.singletonMap(6, 5));
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+        List<Map<Integer, Integer>> plans = randomPlans(3, 200, island);
+        plans.set(150, Collections.singletonMap(island.getTransmitterTowerList().get(0).getId(), -1));
+        try {
+            evaluator.evaluate(plans);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Expected
+        }
+    }
+
+}
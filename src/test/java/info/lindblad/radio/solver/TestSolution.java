@@ -0,0 +1,63 @@
+package info.lindblad.radio.solver;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class TestSolution extends TestCase {
+
+    public TestSolution(String testName) {
+        super(testName);
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestSolution.class);
+    }
+
+    /**
+     * Test that the solution of the known case from the problem statement prints as the application always has.
+     */
+    public void testSolvingKnownBadCoverage() {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(2, 5), 1));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(0, 6), 3));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(1, 2), 2));
+        island.addTransmitterTower(new TransmitterTower(4, new Point(3, 5), 3));
+        island.addReceiverTower(new ReceiverTower(1, new Point(0, 1)));
+        island.addReceiverTower(new ReceiverTower(2, new Point(8, 8)));
+        island.addReceiverTower(new ReceiverTower(3, new Point(6, 5)));
+
+        Solution solution = Solution.solve(island, new MatrixSolver());
+        assertEquals(3, solution.getNbrOfReceiverTowers());
+        assertEquals(2, solution.getNbrOfReceiverTowersWithCoverage());
+        assertEquals("2/3\n4 5\n", solution.toString());
+    }
+
+    /**
+     * Test that the power changes are ordered by transmitter tower id, and that equal solutions are equal.
+     */
+    public void testChangesOrderedById() {
+        Map<TransmitterTower, Integer> changes = new HashMap<>();
+        for (int id = 20; id > 0; id--) {
+            changes.put(new TransmitterTower(id, new Point(id, 0), 1), id + 1);
+        }
+        Solution solution = new Solution(5, 3, changes);
+
+        StringBuilder expected = new StringBuilder("3/5\n");
+        for (int id = 1; id <= 20; id++) {
+            expected.append(id).append(' ').append(id + 1).append('\n');
+        }
+        assertEquals(expected.toString(), solution.toString());
+        assertEquals(solution, new Solution(5, 3, new HashMap<>(changes)));
+        assertEquals(solution.hashCode(), new Solution(5, 3, new HashMap<>(changes)).hashCode());
+        assertFalse(solution.equals(new Solution(5, 4, changes)));
+    }
+
+}
@@ -229,4 +229,30 @@ public class TestMatrix extends TestCase {
         assertEquals(expectedNewTransmitterTowerPowerLevels, matrix.getNewTransmitterTowerPowerLevels());
     }
 
+    /**
+     * Test that the minimum rows are found when some transmitter towers already reach the receiver
+     * tower, so that the column holds negative values.
+     *
+     *      R1
+     *  T1  -3
+     *  T2  6
+     *  T3  -3
+     */
+    public void testNegativeCells() {
+        List<TransmitterTower> transmitterTowers = new ArrayList<>();
+        transmitterTowers.add(new TransmitterTower(1, new Point(0, 0), 5));
+        transmitterTowers.add(new TransmitterTower(2, new Point(9, 9), 1));
+        transmitterTowers.add(new TransmitterTower(3, new Point(4, 4), 5));
+        List<ReceiverTower> receiverTowers = new ArrayList<>();
+        receiverTowers.add(new ReceiverTower(1, new Point(2, 2)));
+
+        Matrix matrix = new Matrix(transmitterTowers, receiverTowers);
+        assertEquals(-3, matrix.getValue(0, 0));
+        assertEquals(6, matrix.getValue(0, 1));
+        List<Integer> expected = new ArrayList<>();
+        expected.add(0);
+        expected.add(2);
+        assertEquals(expected, matrix.getMinimumRows(0));
+    }
+
 }
@@ -0,0 +1,34 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+
+/**
+ * Islands shared by the tests.
+ */
+public class IslandFixtures {
+
+    private IslandFixtures() {
+    }
+
+    /**
+     * Create the island from the problem statement, where receiver tower 2 has no coverage until
+     * transmitter tower 4 is raised to power 5. A new island is returned on every call, so tests may change it.
+     *
+     * @return The island
+     */
+    public static Island knownBadCoverageIsland() {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(2, 5), 1));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(0, 6), 3));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(1, 2), 2));
+        island.addTransmitterTower(new TransmitterTower(4, new Point(3, 5), 3));
+        island.addReceiverTower(new ReceiverTower(1, new Point(0, 1)));
+        island.addReceiverTower(new ReceiverTower(2, new Point(8, 8)));
+        island.addReceiverTower(new ReceiverTower(3, new Point(6, 5)));
+        return island;
+    }
+
+}
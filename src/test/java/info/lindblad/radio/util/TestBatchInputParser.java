@@ -0,0 +1,92 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class TestBatchInputParser extends TestCase {
+
+    public TestBatchInputParser(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestBatchInputParser.class);
+    }
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<Optional<Island>> islands = new ArrayList<>();
+
+    private void parse(String input) {
+        ids.clear();
+        islands.clear();
+        int nbrOfIslands = BatchInputParser.parse(input, (id, island) -> {
+            ids.add(id);
+            islands.add(island);
+        });
+        assertEquals(ids.size(), nbrOfIslands);
+    }
+
+    /**
+     * Test that every island of a batch is parsed as if it was on its own, whatever the line endings.
+     */
+    public void testAgreesWithFastInputParser() {
+        List<String> expectedIslands = new ArrayList<>();
+        StringBuilder batch = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            String serialised = TestCaseGenerator.generateIsland().serialise();
+            expectedIslands.add(serialised);
+            batch.append("# island-").append(i).append('\n').append(serialised);
+        }
+        for (String lineEnding : new String[]{"\n", "\r\n", "\r"}) {
+            String input = batch.toString().replace("\n", lineEnding);
+            parse(input);
+            assertEquals(expectedIslands.size(), islands.size());
+            for (int i = 0; i < expectedIslands.size(); i++) {
+                assertEquals("island-" + i, ids.get(i));
+                assertEquals(FastInputParser.parse(expectedIslands.get(i)).get(), islands.get(i).get());
+            }
+
+            ids.clear();
+            islands.clear();
+            BatchInputParser.parse(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), (id, island) -> islands.add(island));
+            assertEquals(expectedIslands.size(), islands.size());
+        }
+    }
+
+    /**
+     * Test that islands without an id are numbered, that leading blank lines are ignored and that
+     * islands that cannot be parsed are still handed over.
+     */
+    public void testIdsAndInvalidIslands() {
+        parse("5 5\n1 1 1 1\n#\n\n\n3 3\n1 0 0\n#  named island  \nnot an island\n#\n");
+        assertEquals(4, ids.size());
+        assertEquals("1", ids.get(0));
+        assertEquals("2", ids.get(1));
+        assertEquals("named island", ids.get(2));
+        assertEquals("4", ids.get(3));
+
+        assertEquals(1, islands.get(0).get().getNbrOfTransmitterTowers());
+        assertEquals(1, islands.get(1).get().getNbrOfReceiverTowers());
+        assertFalse(islands.get(2).isPresent());
+        assertFalse(islands.get(3).isPresent());
+    }
+
+    /**
+     * Test that empty input holds no islands.
+     */
+    public void testEmptyInput() {
+        parse("");
+        assertEquals(0, islands.size());
+        parse("\n  \n");
+        assertEquals(0, islands.size());
+    }
+
+}
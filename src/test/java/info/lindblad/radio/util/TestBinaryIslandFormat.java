@@ -0,0 +1,122 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.IndexedIsland;
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.SpaceFillingCurve;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class TestBinaryIslandFormat extends TestCase {
+
+    public TestBinaryIslandFormat(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestBinaryIslandFormat.class);
+    }
+
+    private static Path temporaryFile() throws IOException {
+        Path path = Files.createTempFile("island", ".bin");
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    /**
+     * Test that islands are read back unchanged, with the towers at the same ordinals and the ordering kept.
+     */
+    public void testRoundTrip() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            Island island = TestCaseGenerator.generateIsland();
+            for (SpaceFillingCurve ordering : SpaceFillingCurve.values()) {
+                Path path = temporaryFile();
+                BinaryIslandFormat.write(island, ordering, path);
+                IndexedIsland expected = new IndexedIsland(island, ordering);
+                IndexedIsland read = BinaryIslandFormat.read(path);
+
+                assertEquals(ordering, read.getOrdering());
+                assertEquals(island, read.toIsland());
+                assertEquals(expected.getNbrOfTransmitterTowers(), read.getNbrOfTransmitterTowers());
+                for (int ordinal = 0; ordinal < expected.getNbrOfTransmitterTowers(); ordinal++) {
+                    assertEquals(expected.getTransmitterId(ordinal), read.getTransmitterId(ordinal));
+                    assertEquals(ordinal, read.getTransmitterOrdinal(read.getTransmitterId(ordinal)));
+                }
+                for (int ordinal = 0; ordinal < expected.getNbrOfReceiverTowers(); ordinal++) {
+                    assertEquals(expected.getReceiverId(ordinal), read.getReceiverId(ordinal));
+                    assertEquals(ordinal, read.getReceiverOrdinal(read.getReceiverId(ordinal)));
+                }
+                assertTrue(Arrays.equals(expected.getReceiverOrdinalsWithoutCoverage(), read.getReceiverOrdinalsWithoutCoverage()));
+                assertEquals(island, BinaryIslandFormat.read(ByteBuffer.wrap(Files.readAllBytes(path))).toIsland());
+            }
+        }
+    }
+
+    /**
+     * Test that reading a buffer wraps it rather than copying the towers out of it.
+     */
+    public void testWrapsWithoutCopying() throws IOException {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(2, 5), 1));
+        island.addReceiverTower(new ReceiverTower(1, new Point(8, 8)));
+        Path path = temporaryFile();
+        BinaryIslandFormat.write(island, SpaceFillingCurve.NONE, path);
+        ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+
+        IndexedIsland read = BinaryIslandFormat.read(contents);
+        assertEquals(1, read.getTransmitterPower(0));
+        // The power is the fourth transmitter field, after the ids, X and Y of the single transmitter tower
+        contents.putInt(BinaryIslandFormat.HEADER_SIZE + 3 * Integer.BYTES, 6);
+        assertEquals(6, read.getTransmitterPower(0));
+        assertEquals(0, read.getReceiverOrdinalsWithoutCoverage().length);
+    }
+
+    /**
+     * Test that an island without towers can be written and read.
+     */
+    public void testEmptyIsland() throws IOException {
+        Path path = temporaryFile();
+        BinaryIslandFormat.write(new Island(7, 3), SpaceFillingCurve.NONE, path);
+        assertEquals(BinaryIslandFormat.HEADER_SIZE, Files.size(path));
+        assertEquals(new Island(7, 3), BinaryIslandFormat.read(path).toIsland());
+    }
+
+    /**
+     * Test that files that are not island files, of another version, with an unknown ordering or truncated are rejected.
+     */
+    public void testInvalidFiles() throws IOException {
+        Path path = temporaryFile();
+        BinaryIslandFormat.write(TestCaseGenerator.generateIsland(), SpaceFillingCurve.HILBERT, path);
+        byte[] contents = Files.readAllBytes(path);
+
+        byte[] badMagic = contents.clone();
+        badMagic[0] = 'X';
+        byte[] badVersion = contents.clone();
+        ByteBuffer.wrap(badVersion).order(ByteOrder.LITTLE_ENDIAN).putInt(4, 2);
+        byte[] badOrdering = contents.clone();
+        ByteBuffer.wrap(badOrdering).order(ByteOrder.LITTLE_ENDIAN).putInt(12, 3);
+        byte[] truncated = Arrays.copyOf(contents, contents.length - 1);
+        byte[] tooShort = Arrays.copyOf(contents, 10);
+
+        for (byte[] invalid : new byte[][]{badMagic, badVersion, badOrdering, truncated, tooShort}) {
+            Files.write(path, invalid);
+            try {
+                BinaryIslandFormat.read(path);
+                fail("Invalid file was accepted");
+            } catch (IllegalArgumentException expected) {
+                // Expected
+            }
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+public class TestFastInputParser extends TestCase {
+
+    private static final String KNOWN_CASE = "10 10\n1 2 5 1\n2 0 6 3\n3 1 2 2\n4 3 5 3\n1 0 1\n2 8 8\n3 6 5\n";
+
+    public TestFastInputParser(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestFastInputParser.class);
+    }
+
+    private static Island knownCaseIsland() {
+        Island island = new Island(10, 10);
+        island.addTransmitterTower(new TransmitterTower(1, new Point(2, 5), 1));
+        island.addTransmitterTower(new TransmitterTower(2, new Point(0, 6), 3));
+        island.addTransmitterTower(new TransmitterTower(3, new Point(1, 2), 2));
+        island.addTransmitterTower(new TransmitterTower(4, new Point(3, 5), 3));
+        island.addReceiverTower(new ReceiverTower(1, new Point(0, 1)));
+        island.addReceiverTower(new ReceiverTower(2, new Point(8, 8)));
+        island.addReceiverTower(new ReceiverTower(3, new Point(6, 5)));
+        return island;
+    }
+
+    /**
+     * Test the known case from the problem statement, from a string and from a stream.
+     */
+    public void testParseKnownCase() {
+        Optional<Island> islandOptional = FastInputParser.parse(KNOWN_CASE);
+        assertTrue(islandOptional.isPresent());
+        assertEquals(knownCaseIsland(), islandOptional.get());
+
+        islandOptional = FastInputParser.parse(new ByteArrayInputStream(KNOWN_CASE.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(islandOptional.isPresent());
+        assertEquals(knownCaseIsland(), islandOptional.get());
+    }
+
+    /**
+     * Test Windows and old Mac line endings, a missing final line ending and stray separators.
+     */
+    public void testLineEndingsAndSeparators() {
+        assertEquals(knownCaseIsland(), FastInputParser.parse(KNOWN_CASE.replace("\n", "\r\n")).get());
+        assertEquals(knownCaseIsland(), FastInputParser.parse(KNOWN_CASE.replace("\n", "\r")).get());
+        assertEquals(knownCaseIsland(), FastInputParser.parse(KNOWN_CASE.trim()).get());
+        assertEquals(knownCaseIsland(), FastInputParser.parse("10x10\n  1,2,5,1\n2\t0\t6\t3\n3 1 2 2 \n4 3 5 3\n\n1 0 1\nfoo\n2 8 8\n3 6 5").get());
+    }
+
+    /**
+     * Test that the fast parser agrees with InputParser on generated islands.
+     */
+    public void testAgreesWithInputParser() {
+        for (int i = 0; i < 50; i++) {
+            String serialised = TestCaseGenerator.generateIsland().serialise();
+            assertEquals(InputParser.parse(serialised).get(), FastInputParser.parse(serialised).get());
+        }
+    }
+
+    /**
+     * Test that an island needs its dimensions on the first line, and that values that do not fit
+     * in an integer are skipped rather than failing the whole parse.
+     */
+    public void testInvalidInput() {
+        assertFalse(FastInputParser.parse("").isPresent());
+        assertFalse(FastInputParser.parse("\n5 5\n1 2 2 1\n").isPresent());
+        assertFalse(FastInputParser.parse("5 5 5\n1 2 2 1\n").isPresent());
+
+        Island island = FastInputParser.parse("5 5\n1 2 2 1\n99999999999 1 0 0\n").get();
+        assertEquals(1, island.getNbrOfTransmitterTowers());
+        assertEquals(1, island.getNbrOfReceiverTowers());
+        assertEquals(InputParser.parse("5 5\n1 2 2 1\n99999999999 1 0 0\n").get(), island);
+    }
+
+}
@@ -0,0 +1,90 @@
+package info.lindblad.radio.util;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+public class TestIntRadixHeap extends TestCase {
+
+    public TestIntRadixHeap(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIntRadixHeap.class);
+    }
+
+    public void testFindElementsWithLowestPriorityNumber() {
+        IntRadixHeap queue = new IntRadixHeap();
+        queue.add(5, 1);
+        queue.add(2, 2);
+        queue.add(9, 3);
+        queue.add(2, 4);
+        assertEquals(4, queue.size());
+        assertEquals(2, queue.peekPriority());
+
+        List<Integer> smallest = new ArrayList<>();
+        assertEquals(2, queue.pollSmallest(smallest::add));
+        smallest.sort(null);
+        assertEquals(2, smallest.size());
+        assertEquals(Integer.valueOf(2), smallest.get(0));
+        assertEquals(Integer.valueOf(4), smallest.get(1));
+        assertEquals(2, queue.size());
+
+        assertEquals(1, queue.poll());
+        assertEquals(3, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    /**
+     * Test interleaved adds and polls against java.util.PriorityQueue, with priorities only growing.
+     */
+    public void testAgainstPriorityQueue() {
+        Random random = new Random(37);
+        IntRadixHeap queue = new IntRadixHeap();
+        PriorityQueue<Integer> expected = new PriorityQueue<>();
+        int last = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                int priority = last + (random.nextBoolean() ? random.nextInt(10) : random.nextInt(1 << 20));
+                queue.add(priority, priority);
+                expected.add(priority);
+            } else {
+                int value = queue.poll();
+                assertEquals(expected.poll().intValue(), value);
+                last = value;
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+    }
+
+    /**
+     * Test that priorities below the last polled priority, including negative priorities, are rejected.
+     */
+    public void testNotMonotone() {
+        IntRadixHeap queue = new IntRadixHeap();
+        try {
+            queue.add(-1, 0);
+            fail("Expected a negative priority to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        queue.add(5, 0);
+        queue.poll();
+        try {
+            queue.add(4, 0);
+            fail("Expected a priority below the last polled priority to be rejected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+        queue.clear();
+        queue.add(4, 7);
+        assertEquals(7, queue.poll());
+    }
+
+}
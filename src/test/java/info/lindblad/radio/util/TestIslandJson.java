@@ -0,0 +1,65 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.ReceiverTower;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class TestIslandJson extends TestCase {
+
+    public TestIslandJson(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestIslandJson.class);
+    }
+
+    /**
+     * Test that a JSON island is the same as the island in the text format.
+     */
+    public void testParse() {
+        Island expected = new Island(10, 8);
+        expected.addTransmitterTower(new TransmitterTower(1, new Point(2, 4), 2));
+        expected.addTransmitterTower(new TransmitterTower(2, new Point(0, 7), 1));
+        expected.addReceiverTower(new ReceiverTower(1, new Point(0, 0)));
+
+        String json = "{\"sizeX\": 10, \"sizeY\": 8, \"name\": \"an \\\"island\\\"\", \"tags\": [true, false, null],\n"
+                + " \"transmitters\": [{\"id\": 1, \"x\": 2, \"y\": 4, \"power\": 2}, {\"id\": 2, \"x\": 0, \"y\": 7, \"power\": 1}],\n"
+                + " \"receivers\": [{\"id\": 1, \"x\": 0, \"y\": 0}]}";
+        assertEquals(expected, IslandJson.parse(json).get());
+        assertEquals(expected.toString(null), IslandJson.parse(json).get().toString(null));
+    }
+
+    /**
+     * Test that an island without towers can leave the tower arrays out.
+     */
+    public void testWithoutTowers() {
+        assertEquals(new Island(3, 4), IslandJson.parse("{\"sizeX\":3,\"sizeY\":4}").get());
+    }
+
+    /**
+     * Test that documents that are not islands are rejected.
+     */
+    public void testInvalidIslands() {
+        String[] invalid = {
+                "",
+                "[]",
+                "{\"sizeX\": 10}",
+                "{\"sizeX\": 10, \"sizeY\": 1.5}",
+                "{\"sizeX\": 10, \"sizeY\": 99999999999}",
+                "{\"sizeX\": 10, \"sizeY\": 10, \"receivers\": [{\"id\": 1, \"x\": -1, \"y\": 0}]}",
+                "{\"sizeX\": 10, \"sizeY\": 10, \"receivers\": {}}",
+                "{\"sizeX\": 10, \"sizeY\": 10} trailing",
+                "{\"sizeX\": 10, \"sizeY\": 10",
+                "{\"a\": " + new String(new char[1000]).replace('\0', '[') + "}",
+        };
+        for (String json : invalid) {
+            assertFalse(json, IslandJson.parse(json).isPresent());
+        }
+    }
+
+}
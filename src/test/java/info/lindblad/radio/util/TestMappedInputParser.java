@@ -0,0 +1,77 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Island;
+import info.lindblad.radio.model.Point;
+import info.lindblad.radio.model.TransmitterTower;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class TestMappedInputParser extends TestCase {
+
+    public TestMappedInputParser(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestMappedInputParser.class);
+    }
+
+    private static Path write(String input) throws IOException {
+        Path path = Files.createTempFile("island", ".txt");
+        path.toFile().deleteOnExit();
+        Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    /**
+     * Test that tiny chunks, which split the file on almost every line, give the same island as the
+     * single-threaded parser, for every kind of line ending.
+     */
+    public void testAgreesWithFastInputParser() throws IOException {
+        Random random = new Random(39);
+        StringBuilder sb = new StringBuilder("200 100\n");
+        for (int id = 1; id <= 2000; id++) {
+            // Few distinct points, so towers are often replaced by later ones
+            sb.append(String.format("%d %d %d %d\n", id, random.nextInt(30), random.nextInt(30), random.nextInt(10)));
+            sb.append(String.format("%d %d %d\n", id, random.nextInt(30), random.nextInt(30)));
+        }
+        String input = sb.toString();
+        for (String lineEnding : new String[]{"\n", "\r\n", "\r"}) {
+            String withLineEndings = input.replace("\n", lineEnding);
+            Island expected = FastInputParser.parse(withLineEndings).get();
+            for (long chunkSize : new long[]{1, 7, 100, MappedInputParser.MAX_CHUNK_SIZE}) {
+                Island island = MappedInputParser.parse(write(withLineEndings), 3, chunkSize).get();
+                assertEquals(expected, island);
+                assertEquals(expected.toString(null), island.toString(null));
+            }
+        }
+    }
+
+    /**
+     * Test that the last of several transmitter towers at the same point wins, even across chunks.
+     */
+    public void testLastWriteWins() throws IOException {
+        Island island = MappedInputParser.parse(write("5 5\n1 2 2 1\n2 2 2 3\n3 2 2 2"), 2, 1).get();
+        assertEquals(1, island.getNbrOfTransmitterTowers());
+        TransmitterTower transmitterTower = island.getTransmitterTowers().get(new Point(2, 2));
+        assertEquals(3, transmitterTower.getId());
+        assertEquals(2, transmitterTower.getPower());
+    }
+
+    /**
+     * Test that the dimensions have to be on the first line.
+     */
+    public void testDimensionsOnFirstLine() throws IOException {
+        assertFalse(MappedInputParser.parse(write(""), 2, 4).isPresent());
+        assertFalse(MappedInputParser.parse(write("\n5 5\n1 2 2 1\n"), 2, 4).isPresent());
+        assertTrue(MappedInputParser.parse(write("5 5"), 2, 4).isPresent());
+    }
+
+}
@@ -132,4 +132,21 @@ public class TestPermutations extends TestCase {
         assertEquals(expectedOriginalList, originalList);
     }
 
+    /**
+     * Test that the lazily generated permutations are the same, in the same order, as the eager ones.
+     */
+    public void testLazyPermutations() {
+        for (int size = 0; size <= 6; size++) {
+            List<Integer> originalList = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                originalList.add(i);
+            }
+            List<List<Integer>> permutedLists = new ArrayList<>();
+            for (List<Integer> permutedList : Permutations.lazily(originalList)) {
+                permutedLists.add(permutedList);
+            }
+            assertEquals(new Permutations<>(originalList).getPermutations(), permutedLists);
+        }
+    }
+
 }
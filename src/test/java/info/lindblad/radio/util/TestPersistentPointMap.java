@@ -0,0 +1,88 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Point;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class TestPersistentPointMap extends TestCase {
+
+    public TestPersistentPointMap(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestPersistentPointMap.class);
+    }
+
+    /**
+     * Test that changes return new maps and leave the previous versions untouched.
+     */
+    public void testVersionsAreIndependent() {
+        PersistentPointMap<String> empty = PersistentPointMap.empty();
+        PersistentPointMap<String> first = empty.put(1, 2, "a");
+        PersistentPointMap<String> second = first.put(new Point(2, 1), "b");
+        PersistentPointMap<String> third = second.put(1, 2, "c");
+        PersistentPointMap<String> fourth = third.remove(2, 1);
+
+        assertTrue(empty.isEmpty());
+        assertNull(empty.get(1, 2));
+        assertEquals(1, first.size());
+        assertEquals("a", first.get(1, 2));
+        assertNull(first.get(2, 1));
+        assertEquals(2, second.size());
+        assertEquals("a", second.get(1, 2));
+        assertEquals(2, third.size());
+        assertEquals("c", third.get(new Point(1, 2)));
+        assertEquals("b", third.get(2, 1));
+        assertEquals(1, fourth.size());
+        assertFalse(fourth.containsKey(2, 1));
+        assertSame(fourth, fourth.remove(5, 5));
+        assertTrue(fourth.remove(1, 2).isEmpty());
+    }
+
+    /**
+     * Test that random edits agree with a HashMap, checking an old version after every step.
+     */
+    public void testAgainstHashMap() {
+        Random random = new Random(34);
+        PersistentPointMap<Integer> map = PersistentPointMap.empty();
+        Map<Point, Integer> expected = new HashMap<>();
+        List<PersistentPointMap<Integer>> versions = new ArrayList<>();
+        List<Map<Point, Integer>> expectedVersions = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(100);
+            int y = random.nextInt(100);
+            if (random.nextInt(3) == 0) {
+                expected.remove(new Point(x, y));
+                map = map.remove(x, y);
+            } else {
+                expected.put(new Point(x, y), i);
+                map = map.put(x, y, i);
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 2000 == 0) {
+                versions.add(map);
+                expectedVersions.add(new HashMap<>(expected));
+            }
+        }
+        versions.add(map);
+        expectedVersions.add(expected);
+
+        for (int version = 0; version < versions.size(); version++) {
+            Map<Point, Integer> visited = new HashMap<>();
+            versions.get(version).forEach((x, y, value) -> visited.put(new Point(x, y), value));
+            assertEquals(expectedVersions.get(version), visited);
+            for (Map.Entry<Point, Integer> entry : expectedVersions.get(version).entrySet()) {
+                assertEquals(entry.getValue(), versions.get(version).get(entry.getKey()));
+            }
+        }
+    }
+
+}
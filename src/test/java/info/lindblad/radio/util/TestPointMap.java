@@ -0,0 +1,122 @@
+package info.lindblad.radio.util;
+
+import info.lindblad.radio.model.Point;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class TestPointMap extends TestCase {
+
+    public TestPointMap(String testName) {
+        super( testName );
+    }
+
+    public static Test suite() {
+        return new TestSuite(TestPointMap.class);
+    }
+
+    /**
+     * Test storing, replacing and removing values.
+     */
+    public void testPutGetRemove() {
+        PointMap<String> map = new PointMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(1, 2, "a"));
+        assertNull(map.put(new Point(2, 1), "b"));
+        assertEquals("a", map.put(1, 2, "c"));
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(new Point(1, 2)));
+        assertEquals("b", map.get(2, 1));
+        assertNull(map.get(1, 1));
+        assertTrue(map.containsKey(2, 1));
+        assertEquals("b", map.remove(2, 1));
+        assertNull(map.remove(2, 1));
+        assertFalse(map.containsKey(new Point(2, 1)));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1, 2));
+    }
+
+    /**
+     * Test negative and extreme coordinates, which must not collide once packed.
+     */
+    public void testPacking() {
+        PointMap<Integer> map = new PointMap<>();
+        map.put(-1, 0, 1);
+        map.put(0, -1, 2);
+        map.put(Integer.MAX_VALUE, Integer.MIN_VALUE, 3);
+        map.put(Integer.MIN_VALUE, Integer.MAX_VALUE, 4);
+        assertEquals(Integer.valueOf(1), map.get(-1, 0));
+        assertEquals(Integer.valueOf(2), map.get(0, -1));
+        assertEquals(Integer.valueOf(3), map.get(Integer.MAX_VALUE, Integer.MIN_VALUE));
+        assertEquals(Integer.valueOf(4), map.get(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertEquals(-1, Point.unpackX(Point.pack(-1, 7)));
+        assertEquals(7, Point.unpackY(Point.pack(-1, 7)));
+    }
+
+    /**
+     * Test that random inserts and removals, including growth and the shifting of entries
+     * after removal, agree with a HashMap.
+     */
+    public void testAgainstHashMap() {
+        Random random = new Random(32);
+        PointMap<Integer> map = new PointMap<>();
+        Map<Point, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int x = random.nextInt(64);
+            int y = random.nextInt(64);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(new Point(x, y)), map.remove(x, y));
+            } else {
+                assertEquals(expected.put(new Point(x, y), i), map.put(x, y, i));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                assertEquals(expected.get(new Point(x, y)), map.get(x, y));
+            }
+        }
+        Map<Point, Integer> visited = new HashMap<>();
+        map.forEach((x, y, value) -> visited.put(new Point(x, y), value));
+        assertEquals(expected, visited);
+        assertEquals(expected.size(), map.values().size());
+        assertEquals(expected, map.asMap());
+        assertEquals(expected.keySet(), map.keySet());
+    }
+
+    /**
+     * Test that the map views follow later changes and cannot be changed themselves.
+     */
+    public void testReadOnlyViews() {
+        PointMap<String> map = new PointMap<>();
+        Map<Point, String> view = map.asMap();
+        map.put(1, 2, "a");
+        assertEquals("a", view.get(new Point(1, 2)));
+        assertTrue(view.containsKey(new Point(1, 2)));
+        assertTrue(map.keySet().contains(new Point(1, 2)));
+        assertFalse(view.containsKey("(1, 2)"));
+        assertEquals(1, view.size());
+        try {
+            view.put(new Point(2, 1), "b");
+            fail("The view must be read-only");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        try {
+            view.keySet().iterator().remove();
+            fail("The view must be read-only");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        map.remove(1, 2);
+        assertTrue(view.isEmpty());
+        assertFalse(map.keySet().iterator().hasNext());
+    }
+
+}
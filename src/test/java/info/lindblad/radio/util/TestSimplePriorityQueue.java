@@ -65,4 +65,19 @@ public class TestSimplePriorityQueue extends TestCase {
         assertEquals(queue.pollSmallest().getValue(), fruits);
     }
 
-}
\ No newline at end of file
+    public void testSizeAfterPollingCollidingPriorityNumbers() {
+        SimplePriorityQueue<String> queue = new SimplePriorityQueue<>();
+        queue.put(1, "Apple");
+        queue.put(1, "Banana");
+        queue.put(1, "Banana");
+        queue.put(2, "Lemon");
+        assertEquals(3, queue.size());
+        queue.pollSmallest();
+        assertEquals(1, queue.size());
+        queue.pollLargest();
+        assertEquals(0, queue.size());
+        assertNull(queue.pollSmallest());
+        assertEquals(0, queue.size());
+    }
+
+}